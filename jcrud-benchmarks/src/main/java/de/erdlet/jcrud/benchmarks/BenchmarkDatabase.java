@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+/**
+ * Helper for setting up the embedded H2 databases the benchmarks run against.
+ *
+ * @author Tobias Erdle
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Creates a pooled {@link DataSource} for a new in-memory database which contains the table
+     * {@code NUMBERS (ID, VAL)} with the given amount of rows.
+     *
+     * @param name the name of the in-memory database
+     * @param rows the number of rows inside the {@code NUMBERS} table
+     * @return the pooled {@link DataSource}
+     */
+    static BasicDataSource create(final String name, final int rows) throws SQLException {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        ds.setUsername("sa");
+
+        execute(ds, "DROP TABLE IF EXISTS NUMBERS");
+        execute(ds, "CREATE TABLE NUMBERS (ID BIGINT PRIMARY KEY, VAL BIGINT NOT NULL)");
+        execute(ds, "INSERT INTO NUMBERS (ID, VAL) SELECT X, X * 2 FROM SYSTEM_RANGE(1, " + rows + ")");
+
+        return ds;
+    }
+
+    static void execute(final DataSource dataSource, final String statement) throws SQLException {
+        try (final var conn = dataSource.getConnection();
+            final var pstmt = conn.prepareStatement(statement)) {
+            conn.setAutoCommit(true);
+
+            pstmt.execute();
+        }
+    }
+}
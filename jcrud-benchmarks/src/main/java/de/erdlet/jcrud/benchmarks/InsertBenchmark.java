@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.batch.BatchOptions;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares inserting {@code entities} rows one by one with inserting them by a single batch. The table
+ * is emptied after every iteration, so its size stays comparable between the iterations.
+ *
+ * @author Tobias Erdle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final String INSERT = "INSERT INTO NUMBERS (ID, VAL) VALUES (?, ?)";
+    private static final ParamSetter<NumberEntry> SETTER = new NumberEntryParamSetter();
+
+    @Param({"1", "10", "100", "1000"})
+    private int entities;
+
+    private BasicDataSource dataSource;
+    private JCrud jcrud;
+    private long nextId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.create("insert", 0);
+        jcrud = new JCrudImpl(dataSource);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        BenchmarkDatabase.execute(dataSource, "TRUNCATE TABLE NUMBERS");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void insertOneByOne() {
+        for (final var entry : nextEntries()) {
+            jcrud.insert(INSERT, entry, SETTER);
+        }
+    }
+
+    @Benchmark
+    public long[] insertBatch() {
+        return jcrud.insert(INSERT, nextEntries(), SETTER, BatchOptions.defaults());
+    }
+
+    private List<NumberEntry> nextEntries() {
+        final var result = new ArrayList<NumberEntry>(entities);
+        for (int i = 0; i < entities; i++) {
+            final var entry = new NumberEntry();
+            entry.setId(++nextId);
+            entry.setVal(nextId * 2);
+            result.add(entry);
+        }
+
+        return result;
+    }
+}
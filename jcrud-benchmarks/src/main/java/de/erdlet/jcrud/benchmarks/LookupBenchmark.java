@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.RowMapper;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the single row reads {@link JCrud#selectSingle} by primary key and {@link JCrud#count}, whose
+ * costs are dominated by the fixed costs of a query. The key is bound as a boxed {@code Object...} value
+ * and by {@link Params}. Run with {@code -prof gc} to compare the allocations of both variants.
+ *
+ * @author Tobias Erdle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final RowMapper<NumberEntry> MAPPER = new NumberEntryRowMapper();
+
+    private BasicDataSource dataSource;
+    private JCrud jcrud;
+    private long nextId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.create("lookup", ROWS);
+        jcrud = new JCrudImpl(dataSource);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Optional<NumberEntry> selectSingle() {
+        return jcrud.selectSingle("SELECT ID, VAL FROM NUMBERS WHERE ID = ?", MAPPER, nextId());
+    }
+
+    @Benchmark
+    public Optional<NumberEntry> selectSingleParams() {
+        return jcrud.selectSingle("SELECT ID, VAL FROM NUMBERS WHERE ID = ?", MAPPER, Params.of().setLong(nextId()));
+    }
+
+    @Benchmark
+    public long count() {
+        return jcrud.count("SELECT COUNT(*) FROM NUMBERS WHERE ID <= ?", nextId());
+    }
+
+    private long nextId() {
+        nextId = nextId % ROWS + 1;
+        return nextId;
+    }
+}
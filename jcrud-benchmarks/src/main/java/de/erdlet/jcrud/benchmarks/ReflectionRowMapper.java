@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import de.erdlet.jcrud.results.RowMapper;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Typical reflection-based {@link RowMapper}, which resolves the fields by the column labels of every row
+ * and sets them reflectively. It serves as baseline for the generated mappers.
+ *
+ * @param <T> the type of the mapped entity
+ * @author Tobias Erdle
+ */
+final class ReflectionRowMapper<T> implements RowMapper<T> {
+
+    private final Constructor<T> constructor;
+    private final Class<T> type;
+
+    ReflectionRowMapper(final Class<T> type) throws NoSuchMethodException {
+        this.type = type;
+        this.constructor = type.getDeclaredConstructor();
+    }
+
+    @Override
+    public T map(final ResultSet rs) throws SQLException {
+        try {
+            final var entity = constructor.newInstance();
+            final var metaData = rs.getMetaData();
+
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                final Field field = type.getDeclaredField(metaData.getColumnLabel(i).toLowerCase(Locale.ENGLISH));
+                field.setAccessible(true);
+                field.set(entity, rs.getObject(i, field.getType()));
+            }
+
+            return entity;
+        } catch (final InstantiationException | IllegalAccessException | InvocationTargetException
+            | NoSuchFieldException ex) {
+            throw new SQLException("Failed to map row to " + type.getName(), ex);
+        }
+    }
+}
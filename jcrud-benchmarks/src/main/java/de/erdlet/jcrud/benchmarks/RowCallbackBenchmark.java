@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link JCrud#select} with the collection-free {@link JCrud#query} and {@link JCrud#extract}
+ * when aggregating one million rows. Run it with {@code -prof gc} to see the difference in the
+ * allocation rate.
+ *
+ * @author Tobias Erdle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RowCallbackBenchmark {
+
+    private static final String QUERY = "SELECT VAL FROM NUMBERS";
+
+    private BasicDataSource dataSource;
+    private JCrud jcrud;
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.create("row_callback", 1_000_000);
+        jcrud = new JCrudImpl(dataSource);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public long select() {
+        var sum = 0L;
+        for (final Long value : jcrud.select(QUERY, rs -> rs.getLong(1))) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long query() {
+        final var sum = new long[1];
+        jcrud.query(QUERY, rs -> {
+            sum[0] += rs.getLong(1);
+        });
+
+        return sum[0];
+    }
+
+    @Benchmark
+    public long extract() {
+        return jcrud.extract(QUERY, rs -> {
+            var sum = 0L;
+            while (rs.next()) {
+                sum += rs.getLong(1);
+            }
+
+            return sum;
+        });
+    }
+}
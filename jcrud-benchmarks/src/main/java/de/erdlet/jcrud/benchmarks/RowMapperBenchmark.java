@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.results.RowMapper;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link RowMapper} generated by the {@code jcrud-processor} with a reflection-based mapper
+ * and a hand-written one when selecting 10,000 rows.
+ *
+ * @author Tobias Erdle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final String QUERY = "SELECT ID, VAL FROM NUMBERS";
+
+    private BasicDataSource dataSource;
+    private JCrud jcrud;
+
+    private RowMapper<NumberEntry> generated;
+    private RowMapper<NumberEntry> reflection;
+    private RowMapper<NumberEntry> handWritten;
+
+    @Setup
+    public void setUp() throws SQLException, NoSuchMethodException {
+        dataSource = BenchmarkDatabase.create("row_mapper", 10_000);
+        jcrud = new JCrudImpl(dataSource);
+
+        generated = new NumberEntryRowMapper();
+        reflection = new ReflectionRowMapper<>(NumberEntry.class);
+        handWritten = rs -> {
+            final var entry = new NumberEntry();
+            entry.setId(rs.getLong("ID"));
+            entry.setVal(rs.getLong("VAL"));
+            return entry;
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<NumberEntry> generatedMapper() {
+        return jcrud.select(QUERY, generated);
+    }
+
+    @Benchmark
+    public List<NumberEntry> reflectionMapper() {
+        return jcrud.select(QUERY, reflection);
+    }
+
+    @Benchmark
+    public List<NumberEntry> handWrittenLabelMapper() {
+        return jcrud.select(QUERY, handWritten);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.exception.InvalidStatementException;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of {@link JCrud#update} without a database, which is mainly the check of the
+ * statement type. The check reads the beginning of the statement, so its costs shouldn't depend on
+ * the {@code statementLength}. Run it with {@code -prof gc} to see its allocations.
+ *
+ * @author Tobias Erdle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StatementCheckBenchmark {
+
+    private static final ParamSetter<Long> SETTER = (value, pstmt) -> pstmt.setLong(1, value);
+
+    @Param({"64", "4096"})
+    private int statementLength;
+
+    private JCrud jcrud;
+    private String update;
+    private String invalidUpdate;
+
+    @Setup
+    public void setUp() {
+        jcrud = new JCrudImpl(StubDataSource.create());
+
+        final var statement = new StringBuilder("UPDATE NUMBERS SET VAL = VAL + 1 WHERE ID = ?");
+        while (statement.length() < statementLength) {
+            statement.append(" AND VAL <> ").append(statement.length());
+        }
+
+        update = statement.toString();
+        invalidUpdate = "DELETE" + update.substring("UPDATE".length());
+    }
+
+    @Benchmark
+    public void update() {
+        jcrud.update(update, 1L, SETTER);
+    }
+
+    @Benchmark
+    public boolean rejectUpdate() {
+        try {
+            jcrud.update(invalidUpdate, 1L, SETTER);
+            return false;
+        } catch (final InvalidStatementException ex) {
+            return true;
+        }
+    }
+}
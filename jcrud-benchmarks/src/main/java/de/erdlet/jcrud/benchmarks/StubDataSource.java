@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} whose connections and statements do nothing. Benchmarks using it measure the
+ * overhead of JCrud itself without the costs of a database.
+ *
+ * @author Tobias Erdle
+ */
+final class StubDataSource {
+
+    private StubDataSource() {
+    }
+
+    static DataSource create() {
+        final var statement = stub(PreparedStatement.class, "executeUpdate", 1);
+        final var connection = stub(Connection.class, "prepareStatement", statement);
+
+        return stub(DataSource.class, "getConnection", connection);
+    }
+
+    /**
+     * Creates a stub which returns the result for the given method and default values otherwise.
+     */
+    private static <T> T stub(final Class<T> type, final String method, final Object result) {
+        return type.cast(Proxy.newProxyInstance(StubDataSource.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, invoked, args) -> {
+                if (invoked.getName().equals(method)) {
+                    return result;
+                }
+
+                final var returnType = invoked.getReturnType();
+                if (returnType == boolean.class) {
+                    // e.g. Connection#getAutoCommit, as no transaction is running
+                    return invoked.getName().equals("getAutoCommit");
+                }
+                if (returnType == int.class || returnType == long.class) {
+                    return returnType == int.class ? (Object) 0 : (Object) 0L;
+                }
+
+                return null;
+            }));
+    }
+}
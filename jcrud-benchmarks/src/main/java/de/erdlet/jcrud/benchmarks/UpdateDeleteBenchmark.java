@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.benchmarks;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link JCrud#update} and {@link JCrud#delete} of single rows by primary key. The deleted row
+ * is inserted again in the same invocation, so {@link InsertBenchmark} with one entity is the baseline
+ * for the costs of the delete.
+ *
+ * @author Tobias Erdle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UpdateDeleteBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final ParamSetter<NumberEntry> UPDATE_SETTER = (entry, pstmt) -> {
+        pstmt.setLong(1, entry.getVal());
+        pstmt.setLong(2, entry.getId());
+    };
+    private static final ParamSetter<NumberEntry> DELETE_SETTER = (entry, pstmt) -> pstmt.setLong(1, entry.getId());
+    private static final ParamSetter<NumberEntry> INSERT_SETTER = new NumberEntryParamSetter();
+
+    private BasicDataSource dataSource;
+    private JCrud jcrud;
+    private final NumberEntry entry = new NumberEntry();
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.create("update_delete", ROWS);
+        jcrud = new JCrudImpl(dataSource);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void update() {
+        nextEntry();
+        jcrud.update("UPDATE NUMBERS SET VAL = ? WHERE ID = ?", entry, UPDATE_SETTER);
+    }
+
+    @Benchmark
+    public void deleteAndInsert() {
+        nextEntry();
+        jcrud.delete("DELETE FROM NUMBERS WHERE ID = ?", entry, DELETE_SETTER);
+        jcrud.insert("INSERT INTO NUMBERS (ID, VAL) VALUES (?, ?)", entry, INSERT_SETTER);
+    }
+
+    private void nextEntry() {
+        entry.setId(entry.getId() % ROWS + 1);
+        entry.setVal(entry.getVal() + 1);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.processor;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+
+/**
+ * The JDBC getters and setters used for a property type. Types without a dedicated getter are read by
+ * {@link java.sql.ResultSet#getObject(int, Class)} and bound by
+ * {@link java.sql.PreparedStatement#setObject(int, Object)}.
+ *
+ * @author Tobias Erdle
+ */
+enum ColumnType {
+    LONG(TypeKind.LONG, "java.lang.Long", "Long", "BIGINT"),
+    INT(TypeKind.INT, "java.lang.Integer", "Int", "INTEGER"),
+    SHORT(TypeKind.SHORT, "java.lang.Short", "Short", "SMALLINT"),
+    BYTE(TypeKind.BYTE, "java.lang.Byte", "Byte", "TINYINT"),
+    DOUBLE(TypeKind.DOUBLE, "java.lang.Double", "Double", "DOUBLE"),
+    FLOAT(TypeKind.FLOAT, "java.lang.Float", "Float", "REAL"),
+    BOOLEAN(TypeKind.BOOLEAN, "java.lang.Boolean", "Boolean", "BOOLEAN"),
+    STRING(null, "java.lang.String", "String", null),
+    BIG_DECIMAL(null, "java.math.BigDecimal", "BigDecimal", null),
+    DATE(null, "java.sql.Date", "Date", null),
+    TIME(null, "java.sql.Time", "Time", null),
+    TIMESTAMP(null, "java.sql.Timestamp", "Timestamp", null),
+    BYTES(null, null, "Bytes", null),
+    OBJECT(null, null, "Object", null);
+
+    private final TypeKind primitiveKind;
+    private final String className;
+    private final String accessorSuffix;
+    private final String sqlType;
+
+    ColumnType(final TypeKind primitiveKind, final String className, final String accessorSuffix,
+        final String sqlType) {
+        this.primitiveKind = primitiveKind;
+        this.className = className;
+        this.accessorSuffix = accessorSuffix;
+        this.sqlType = sqlType;
+    }
+
+    static ColumnType of(final TypeMirror type, final Types types) {
+        if (type.getKind().isPrimitive()) {
+            for (final var columnType : values()) {
+                if (columnType.primitiveKind == type.getKind()) {
+                    return columnType;
+                }
+            }
+        }
+
+        if (type.getKind() == TypeKind.ARRAY && ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE) {
+            return BYTES;
+        }
+
+        if (type.getKind() == TypeKind.DECLARED) {
+            final var name = types.erasure(type).toString();
+            for (final var columnType : values()) {
+                if (name.equals(columnType.className)) {
+                    return columnType;
+                }
+            }
+        }
+
+        return OBJECT;
+    }
+
+    /**
+     * @return whether the type is the boxed variant of a primitive, so {@code NULL} has to be handled
+     * explicitly
+     */
+    boolean isBoxed(final TypeMirror type) {
+        return primitiveKind != null && type instanceof DeclaredType;
+    }
+
+    String getter() {
+        return "get" + accessorSuffix;
+    }
+
+    String setter() {
+        return "set" + accessorSuffix;
+    }
+
+    String sqlType() {
+        return sqlType;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Describes how an entity annotated with {@link de.erdlet.jcrud.mapping.GenerateMappers} is
+ * constructed and how its properties are read.
+ *
+ * @author Tobias Erdle
+ */
+final class EntityModel {
+
+    private static final String DATABASE_GENERATED = "de.erdlet.jcrud.mapping.DatabaseGenerated";
+
+    private final TypeElement type;
+    private final String packageName;
+    private final String typeName;
+    private final List<Property> properties;
+    private final boolean constructorInjection;
+
+    private EntityModel(final TypeElement type, final String packageName, final String typeName,
+        final List<Property> properties, final boolean constructorInjection) {
+        this.type = type;
+        this.packageName = packageName;
+        this.typeName = typeName;
+        this.properties = properties;
+        this.constructorInjection = constructorInjection;
+    }
+
+    static EntityModel of(final TypeElement type, final Elements elements, final Types types)
+        throws MappingException {
+        checkMappable(type);
+
+        final var packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        final var qualifiedName = type.getQualifiedName().toString();
+        final var typeName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+
+        final var fields = new ArrayList<VariableElement>();
+        for (final var field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+                fields.add(field);
+            }
+        }
+
+        if (fields.isEmpty()) {
+            throw new MappingException(type, "A mapped entity needs at least one non-static field");
+        }
+
+        final var constructorInjection = hasConstructorForAll(type, fields, types);
+        if (!constructorInjection && !hasNoArgConstructor(type)) {
+            throw new MappingException(type, "A mapped entity needs either a constructor taking all fields in "
+                + "declaration order or a no-arg constructor with a setter per field");
+        }
+
+        final var properties = new ArrayList<Property>();
+        for (final var field : fields) {
+            final var bound = !isDatabaseGenerated(field);
+            final var accessor = bound ? findAccessor(type, field, types) : null;
+            final var setter = constructorInjection ? null : findSetter(type, field, types);
+
+            properties.add(new Property(field.getSimpleName().toString(), field.asType(),
+                ColumnType.of(field.asType(), types), accessor, setter, bound));
+        }
+
+        return new EntityModel(type, packageName, typeName, properties, constructorInjection);
+    }
+
+    TypeElement getType() {
+        return type;
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * @return the name of the entity relative to its package, e.g. {@code Outer.Inner}
+     */
+    String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * @return the prefix for the generated classes, e.g. {@code Outer_Inner}
+     */
+    String getGeneratedPrefix() {
+        return typeName.replace('.', '_');
+    }
+
+    List<Property> getProperties() {
+        return properties;
+    }
+
+    boolean isConstructorInjection() {
+        return constructorInjection;
+    }
+
+    boolean isPublic() {
+        return type.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    private static void checkMappable(final TypeElement type) throws MappingException {
+        // Records are compared by name, as ElementKind.RECORD doesn't exist in Java 11
+        if (type.getKind() != ElementKind.CLASS && !"RECORD".equals(type.getKind().name())) {
+            throw new MappingException(type, "Only classes and records can be mapped");
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new MappingException(type, "Abstract classes can't be mapped");
+        }
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new MappingException(type, "Private classes can't be mapped");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new MappingException(type, "Generic classes can't be mapped");
+        }
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS
+            || type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new MappingException(type, "Only top level and static nested classes can be mapped");
+        }
+    }
+
+    private static boolean hasConstructorForAll(final TypeElement type, final List<VariableElement> fields,
+        final Types types) {
+        for (final var constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)
+                || constructor.getParameters().size() != fields.size()) {
+                continue;
+            }
+
+            var matches = true;
+            for (int i = 0; i < fields.size() && matches; i++) {
+                matches = types.isSameType(constructor.getParameters().get(i).asType(), fields.get(i).asType());
+            }
+
+            if (matches) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasNoArgConstructor(final TypeElement type) {
+        return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+            .anyMatch(c -> !c.getModifiers().contains(Modifier.PRIVATE) && c.getParameters().isEmpty());
+    }
+
+    private static boolean isDatabaseGenerated(final VariableElement field) {
+        return field.getAnnotationMirrors().stream()
+            .anyMatch(a -> a.getAnnotationType().toString().equals(DATABASE_GENERATED));
+    }
+
+    private static String findAccessor(final TypeElement type, final VariableElement field, final Types types)
+        throws MappingException {
+        final var name = field.getSimpleName().toString();
+        final var capitalized = capitalize(name);
+
+        final var accessor = findMethod(type, name, field.asType(), types)
+            .or(() -> findMethod(type, "get" + capitalized, field.asType(), types))
+            .or(() -> findMethod(type, "is" + capitalized, field.asType(), types)
+                .filter(m -> ColumnType.of(field.asType(), types) == ColumnType.BOOLEAN));
+
+        if (accessor.isPresent()) {
+            return accessor.get().getSimpleName() + "()";
+        }
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return name;
+        }
+
+        throw new MappingException(field, "No accessor found for field '" + name + "'. Add a method '" + name
+            + "()' or 'get" + capitalized + "()' or make the field non-private");
+    }
+
+    private static String findSetter(final TypeElement type, final VariableElement field, final Types types)
+        throws MappingException {
+        final var name = "set" + capitalize(field.getSimpleName().toString());
+
+        for (final var method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name) && isCallable(method)
+                && method.getParameters().size() == 1
+                && types.isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                return name;
+            }
+        }
+
+        throw new MappingException(field, "No setter '" + name + "' found for field '" + field.getSimpleName() + "'");
+    }
+
+    private static Optional<ExecutableElement> findMethod(final TypeElement type, final String name,
+        final TypeMirror returnType, final Types types) {
+        return ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+            .filter(m -> m.getSimpleName().contentEquals(name))
+            .filter(EntityModel::isCallable)
+            .filter(m -> m.getParameters().isEmpty())
+            .filter(m -> types.isSameType(m.getReturnType(), returnType))
+            .findFirst();
+    }
+
+    private static boolean isCallable(final ExecutableElement method) {
+        return !method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC);
+    }
+
+    private static String capitalize(final String name) {
+        return name.substring(0, 1).toUpperCase(Locale.ENGLISH) + name.substring(1);
+    }
+
+    /**
+     * A mapped field of the entity.
+     */
+    static final class Property {
+
+        private final String name;
+        private final TypeMirror type;
+        private final ColumnType columnType;
+        private final String accessor;
+        private final String setter;
+        private final boolean bound;
+
+        Property(final String name, final TypeMirror type, final ColumnType columnType, final String accessor,
+            final String setter, final boolean bound) {
+            this.name = name;
+            this.type = type;
+            this.columnType = columnType;
+            this.accessor = accessor;
+            this.setter = setter;
+            this.bound = bound;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        TypeMirror getType() {
+            return type;
+        }
+
+        ColumnType getColumnType() {
+            return columnType;
+        }
+
+        /**
+         * @return the expression reading the property from the entity, e.g. {@code getTitle()}
+         */
+        String getAccessor() {
+            return accessor;
+        }
+
+        String getSetter() {
+            return setter;
+        }
+
+        /**
+         * @return whether the property is bound as statement parameter
+         */
+        boolean isBound() {
+            return bound;
+        }
+    }
+}
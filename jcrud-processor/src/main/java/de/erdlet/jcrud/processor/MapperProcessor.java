@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.processor;
+
+import java.io.IOException;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Annotation processor which generates a {@link de.erdlet.jcrud.results.RowMapper} and a
+ * {@link de.erdlet.jcrud.parameter.ParamSetter} for every class or record annotated with
+ * {@link de.erdlet.jcrud.mapping.GenerateMappers}. The generated classes access the columns and
+ * parameters by index and don't use reflection at runtime.
+ * <p>
+ * To use the processor, add it to the annotation processor path of the compiler:
+ *
+ * <pre>
+ * {@code
+ * <annotationProcessorPaths>
+ *   <path>
+ *     <groupId>de.erdlet.jcrud</groupId>
+ *     <artifactId>jcrud-processor</artifactId>
+ *     <version>${jcrud.version}</version>
+ *   </path>
+ * </annotationProcessorPaths>
+ * }
+ * </pre>
+ *
+ * @author Tobias Erdle
+ */
+@SupportedAnnotationTypes(MapperProcessor.GENERATE_MAPPERS)
+public final class MapperProcessor extends AbstractProcessor {
+
+    static final String GENERATE_MAPPERS = "de.erdlet.jcrud.mapping.GenerateMappers";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        final var elements = processingEnv.getElementUtils();
+        final var types = processingEnv.getTypeUtils();
+        final var writer = new MapperWriter(types,
+            elements.getTypeElement("javax.annotation.processing.Generated") != null);
+
+        for (final var annotation : annotations) {
+            for (final var element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                try {
+                    final var entity = EntityModel.of((TypeElement) element, elements, types);
+
+                    writeSource(entity, writer.rowMapperName(entity), writer.writeRowMapper(entity));
+                    writeSource(entity, writer.paramSetterName(entity), writer.writeParamSetter(entity));
+                } catch (final MappingException ex) {
+                    error(ex.getElement(), ex.getMessage());
+                } catch (final IOException ex) {
+                    error(element, "Failed to write generated mapper: " + ex.getMessage());
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void writeSource(final EntityModel entity, final String simpleName, final String source)
+        throws IOException {
+        final var name = entity.getPackageName().isEmpty() ? simpleName : entity.getPackageName() + "." + simpleName;
+
+        try (final var out = processingEnv.getFiler().createSourceFile(name, entity.getType()).openWriter()) {
+            out.write(source);
+        }
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.processor;
+
+import de.erdlet.jcrud.processor.EntityModel.Property;
+import java.util.Arrays;
+import java.util.TreeSet;
+import javax.lang.model.util.Types;
+
+/**
+ * Writes the source code of the generated {@link de.erdlet.jcrud.results.RowMapper} and
+ * {@link de.erdlet.jcrud.parameter.ParamSetter}. The generated methods consist of straight-line code
+ * without any reflection or loops, so the JIT can inline them completely.
+ *
+ * @author Tobias Erdle
+ */
+final class MapperWriter {
+
+    private final Types types;
+    private final boolean generatedAnnotationAvailable;
+
+    MapperWriter(final Types types, final boolean generatedAnnotationAvailable) {
+        this.types = types;
+        this.generatedAnnotationAvailable = generatedAnnotationAvailable;
+    }
+
+    String rowMapperName(final EntityModel entity) {
+        return entity.getGeneratedPrefix() + "RowMapper";
+    }
+
+    String paramSetterName(final EntityModel entity) {
+        return entity.getGeneratedPrefix() + "ParamSetter";
+    }
+
+    String writeRowMapper(final EntityModel entity) {
+        final var source = new StringBuilder();
+        writeHeader(source, entity, "de.erdlet.jcrud.results.RowMapper", "java.sql.ResultSet");
+
+        source.append(classDeclaration(entity, rowMapperName(entity), "RowMapper")).append(" {\n\n")
+            .append("    @Override\n")
+            .append("    public ").append(entity.getTypeName()).append(" map(final ResultSet rs) throws SQLException {\n");
+
+        final var properties = entity.getProperties();
+        for (int i = 0; i < properties.size(); i++) {
+            writeColumnRead(source, properties.get(i), i + 1);
+        }
+
+        if (entity.isConstructorInjection()) {
+            source.append("\n        return new ").append(entity.getTypeName()).append('(');
+            for (int i = 0; i < properties.size(); i++) {
+                source.append(i > 0 ? ", " : "").append("column").append(i + 1);
+            }
+            source.append(");\n");
+        } else {
+            source.append("\n        final ").append(entity.getTypeName()).append(" entity = new ")
+                .append(entity.getTypeName()).append("();\n");
+            for (int i = 0; i < properties.size(); i++) {
+                source.append("        entity.").append(properties.get(i).getSetter())
+                    .append("(column").append(i + 1).append(");\n");
+            }
+            source.append("\n        return entity;\n");
+        }
+
+        return source.append("    }\n}\n").toString();
+    }
+
+    String writeParamSetter(final EntityModel entity) {
+        final var source = new StringBuilder();
+        writeHeader(source, entity, "de.erdlet.jcrud.parameter.ParamSetter", "java.sql.PreparedStatement",
+            "java.sql.Types");
+
+        source.append(classDeclaration(entity, paramSetterName(entity), "ParamSetter")).append(" {\n\n")
+            .append("    @Override\n")
+            .append("    public void setStatementParams(final ").append(entity.getTypeName())
+            .append(" entity, final PreparedStatement pstmt)\n")
+            .append("        throws SQLException {\n");
+
+        var index = 0;
+        for (final var property : entity.getProperties()) {
+            if (property.isBound()) {
+                writeParameterBinding(source, property, ++index);
+            }
+        }
+
+        return source.append("    }\n}\n").toString();
+    }
+
+    private void writeHeader(final StringBuilder source, final EntityModel entity, final String... imports) {
+        if (!entity.getPackageName().isEmpty()) {
+            source.append("package ").append(entity.getPackageName()).append(";\n\n");
+        }
+
+        final var sortedImports = new TreeSet<>(Arrays.asList(imports));
+        sortedImports.add("java.sql.SQLException");
+        if (generatedAnnotationAvailable) {
+            sortedImports.add("javax.annotation.processing.Generated");
+        }
+
+        for (final var name : sortedImports) {
+            source.append("import ").append(name).append(";\n");
+        }
+        source.append('\n');
+
+        if (generatedAnnotationAvailable) {
+            source.append("@Generated(\"").append(MapperProcessor.class.getName()).append("\")\n");
+        }
+    }
+
+    private String classDeclaration(final EntityModel entity, final String name, final String iface) {
+        return (entity.isPublic() ? "public " : "") + "final class " + name + " implements " + iface + "<"
+            + entity.getTypeName() + ">";
+    }
+
+    private void writeColumnRead(final StringBuilder source, final Property property, final int column) {
+        final var columnType = property.getColumnType();
+        final var variable = "column" + column;
+        final var read = columnType == ColumnType.OBJECT
+            ? "rs.getObject(" + column + ", " + types.erasure(property.getType()) + ".class)"
+            : "rs." + columnType.getter() + "(" + column + ")";
+
+        if (columnType.isBoxed(property.getType())) {
+            // The primitive getters return 0 or false for NULL, which has to be checked afterwards
+            final var primitive = types.unboxedType(property.getType());
+            source.append("        final ").append(primitive).append(' ').append(variable).append("Value = ")
+                .append(read).append(";\n")
+                .append("        final ").append(declaredType(property)).append(' ').append(variable)
+                .append(" = rs.wasNull() ? null : ").append(variable).append("Value;\n");
+        } else {
+            source.append("        final ").append(declaredType(property)).append(' ').append(variable)
+                .append(" = ").append(read).append(";\n");
+        }
+    }
+
+    private void writeParameterBinding(final StringBuilder source, final Property property, final int index) {
+        final var columnType = property.getColumnType();
+        final var value = "entity." + property.getAccessor();
+
+        if (columnType.isBoxed(property.getType())) {
+            final var variable = "param" + index;
+            source.append("        final ").append(declaredType(property)).append(' ').append(variable)
+                .append(" = ").append(value).append(";\n")
+                .append("        if (").append(variable).append(" == null) {\n")
+                .append("            pstmt.setNull(").append(index).append(", Types.").append(columnType.sqlType())
+                .append(");\n")
+                .append("        } else {\n")
+                .append("            pstmt.").append(columnType.setter()).append('(').append(index).append(", ")
+                .append(variable).append(");\n")
+                .append("        }\n");
+        } else {
+            source.append("        pstmt.").append(columnType.setter()).append('(').append(index).append(", ")
+                .append(value).append(");\n");
+        }
+    }
+
+    private String declaredType(final Property property) {
+        final var type = property.getType();
+
+        return type.getKind().isPrimitive() ? type.toString() : types.erasure(type).toString();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.processor;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.results.RowMapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MapperProcessorTest {
+
+    private Path workDir;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        workDir = Files.createTempDirectory("jcrud-processor");
+        connection = DriverManager.getConnection("jdbc:h2:mem:processor", "sa", "");
+
+        try (final var stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE TASKS (ID BIGINT AUTO_INCREMENT PRIMARY KEY, TITLE VARCHAR, "
+                + "PRIORITY INT NOT NULL, DONE BOOLEAN)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (final var stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE TASKS");
+        }
+        connection.close();
+
+        try (final var files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testGeneratedMappersUseConstructorOfEntity() throws Exception {
+        final var result = compile(Map.of("example/Task.java", "package example;\n"
+            + "import de.erdlet.jcrud.mapping.*;\n"
+            + "@GenerateMappers\n"
+            + "public final class Task {\n"
+            + "  @DatabaseGenerated private final Long id;\n"
+            + "  private final String title;\n"
+            + "  private final int priority;\n"
+            + "  private final Boolean done;\n"
+            + "  public Task(Long id, String title, int priority, Boolean done) {\n"
+            + "    this.id = id; this.title = title; this.priority = priority; this.done = done;\n"
+            + "  }\n"
+            + "  public Long getId() { return id; }\n"
+            + "  public String getTitle() { return title; }\n"
+            + "  public int getPriority() { return priority; }\n"
+            + "  public Boolean getDone() { return done; }\n"
+            + "  public String toString() { return id + \"|\" + title + \"|\" + priority + \"|\" + done; }\n"
+            + "}\n"));
+
+        assertTrue(result.success, result.diagnostics);
+
+        final var rows = roundTrip(result, "example.Task", "example.TaskRowMapper", "example.TaskParamSetter",
+            List.of("null|Write tests|2|true", "null|Release|1|null"));
+
+        assertEquals(List.of("1|Write tests|2|true", "2|Release|1|null"), rows);
+    }
+
+    @Test
+    void testGeneratedMappersUseSettersOfEntityWithoutMatchingConstructor() throws Exception {
+        final var result = compile(Map.of("example/Task.java", "package example;\n"
+            + "import de.erdlet.jcrud.mapping.*;\n"
+            + "@GenerateMappers\n"
+            + "public class Task {\n"
+            + "  @DatabaseGenerated long id;\n"
+            + "  private String title;\n"
+            + "  private int priority;\n"
+            + "  private boolean done;\n"
+            + "  public void setId(long id) { this.id = id; }\n"
+            + "  public String getTitle() { return title; }\n"
+            + "  public void setTitle(String title) { this.title = title; }\n"
+            + "  public int getPriority() { return priority; }\n"
+            + "  public void setPriority(int priority) { this.priority = priority; }\n"
+            + "  public boolean isDone() { return done; }\n"
+            + "  public void setDone(boolean done) { this.done = done; }\n"
+            + "  public String toString() { return id + \"|\" + title + \"|\" + priority + \"|\" + done; }\n"
+            + "}\n"));
+
+        assertTrue(result.success, result.diagnostics);
+
+        final var generated = Files.readString(workDir.resolve("generated/example/TaskRowMapper.java"));
+        assertAll(
+            () -> assertTrue(generated.contains("entity.setTitle(column2);")),
+            () -> assertFalse(generated.contains("reflect")));
+    }
+
+    @Test
+    void testGeneratedMappersForNestedClassAreFlattened() throws Exception {
+        final var result = compile(Map.of("example/Outer.java", "package example;\n"
+            + "import de.erdlet.jcrud.mapping.*;\n"
+            + "public class Outer {\n"
+            + "  @GenerateMappers\n"
+            + "  public static class Inner {\n"
+            + "    final String title;\n"
+            + "    public Inner(String title) { this.title = title; }\n"
+            + "  }\n"
+            + "}\n"));
+
+        assertTrue(result.success, result.diagnostics);
+        assertTrue(Files.exists(workDir.resolve("generated/example/Outer_InnerRowMapper.java")));
+    }
+
+    @Test
+    void testEntityWithoutUsableConstructorIsReportedAsError() throws Exception {
+        final var result = compile(Map.of("example/Task.java", "package example;\n"
+            + "import de.erdlet.jcrud.mapping.*;\n"
+            + "@GenerateMappers\n"
+            + "public class Task {\n"
+            + "  private final String title;\n"
+            + "  private final int priority;\n"
+            + "  public Task(String title) { this.title = title; this.priority = 0; }\n"
+            + "}\n"));
+
+        assertFalse(result.success);
+        assertTrue(result.diagnostics.contains("needs either a constructor taking all fields"), result.diagnostics);
+    }
+
+    @Test
+    void testPrivateFieldWithoutAccessorIsReportedAsError() throws Exception {
+        final var result = compile(Map.of("example/Task.java", "package example;\n"
+            + "import de.erdlet.jcrud.mapping.*;\n"
+            + "@GenerateMappers\n"
+            + "public class Task {\n"
+            + "  private final String title;\n"
+            + "  public Task(String title) { this.title = title; }\n"
+            + "}\n"));
+
+        assertFalse(result.success);
+        assertTrue(result.diagnostics.contains("No accessor found for field 'title'"), result.diagnostics);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> roundTrip(final CompilationResult result, final String entityName,
+        final String rowMapperName, final String paramSetterName, final List<String> rows) throws Exception {
+        try (final var loader = new URLClassLoader(new URL[]{result.classes.toUri().toURL()},
+            getClass().getClassLoader())) {
+            final var entityType = loader.loadClass(entityName);
+            final var rowMapper = (RowMapper<Object>) loader.loadClass(rowMapperName).getConstructor().newInstance();
+            final var paramSetter = (ParamSetter<Object>) loader.loadClass(paramSetterName).getConstructor()
+                .newInstance();
+
+            try (final var pstmt = connection.prepareStatement(
+                "INSERT INTO TASKS (TITLE, PRIORITY, DONE) VALUES (?, ?, ?)")) {
+                for (final var row : rows) {
+                    final var values = row.split("\\|");
+                    final var entity = entityType.getConstructor(Long.class, String.class, int.class, Boolean.class)
+                        .newInstance(null, values[1], Integer.parseInt(values[2]),
+                            "null".equals(values[3]) ? null : Boolean.valueOf(values[3]));
+
+                    paramSetter.setStatementParams(entity, pstmt);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            return readAll(rowMapper);
+        }
+    }
+
+    private List<String> readAll(final RowMapper<Object> rowMapper) throws SQLException {
+        try (final var pstmt = connection.prepareStatement("SELECT ID, TITLE, PRIORITY, DONE FROM TASKS ORDER BY ID");
+            final var rs = pstmt.executeQuery()) {
+            final var result = new ArrayList<String>();
+            while (rs.next()) {
+                result.add(rowMapper.map(rs).toString());
+            }
+
+            return result;
+        }
+    }
+
+    private CompilationResult compile(final Map<String, String> sources) throws IOException {
+        final var sourceDir = Files.createDirectories(workDir.resolve("src"));
+        final var generatedDir = Files.createDirectories(workDir.resolve("generated"));
+        final var classesDir = Files.createDirectories(workDir.resolve("classes"));
+
+        final var files = new ArrayList<File>();
+        for (final var source : sources.entrySet()) {
+            final var file = sourceDir.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            files.add(file.toFile());
+        }
+
+        final var compiler = ToolProvider.getSystemJavaCompiler();
+        final var diagnostics = new StringWriter();
+        try (final var fileManager = compiler.getStandardFileManager(null, null, null)) {
+            final var task = compiler.getTask(diagnostics, fileManager, null,
+                List.of("-classpath", System.getProperty("java.class.path"), "-d", classesDir.toString(),
+                    "-s", generatedDir.toString()),
+                null, fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(List.of(new MapperProcessor()));
+
+            return new CompilationResult(task.call(), diagnostics.toString(), classesDir);
+        }
+    }
+
+    private static final class CompilationResult {
+
+        private final boolean success;
+        private final String diagnostics;
+        private final Path classes;
+
+        private CompilationResult(final boolean success, final String diagnostics, final Path classes) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.classes = classes;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.batch.BatchOptions;
+import de.erdlet.jcrud.paging.Keyset;
+import de.erdlet.jcrud.paging.Page;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.KeySetter;
+import de.erdlet.jcrud.results.NumericColumns;
+import de.erdlet.jcrud.results.ResultIterator;
+import de.erdlet.jcrud.results.ResultSetExtractor;
+import de.erdlet.jcrud.results.RowCallbackHandler;
+import de.erdlet.jcrud.results.RowMapper;
+import de.erdlet.jcrud.scan.ScanOptions;
+import de.erdlet.jcrud.transaction.SessionCallback;
+import de.erdlet.jcrud.transaction.TransactionOptions;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * Base class for decorators of {@link JCrud}, which forwards every operation to the delegate.
+ * Subclasses only override the operations they change.
+ *
+ * @author Tobias Erdle
+ */
+public class DelegatingJCrud implements JCrud {
+
+    private final JCrud delegate;
+
+    public DelegatingJCrud(final JCrud delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the {@link JCrud} all operations are forwarded to
+     */
+    protected JCrud getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Object... params) {
+        return delegate.select(query, rowMapper, params);
+    }
+
+    @Override
+    public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Params params) {
+        return delegate.select(query, rowMapper, params);
+    }
+
+    @Override
+    public <T> Stream<T> stream(final String query, final RowMapper<T> rowMapper, final Object... params) {
+        return delegate.stream(query, rowMapper, params);
+    }
+
+    @Override
+    public <T> Stream<T> stream(final String query, final int fetchSize, final RowMapper<T> rowMapper,
+        final Object... params) {
+        return delegate.stream(query, fetchSize, rowMapper, params);
+    }
+
+    @Override
+    public <T> Stream<T> scan(final String query, final RowMapper<T> rowMapper, final ScanOptions options,
+        final Object... params) {
+        return delegate.scan(query, rowMapper, options, params);
+    }
+
+    @Override
+    public <T> ResultIterator<T> iterate(final String query, final RowMapper<T> rowMapper, final Object... params) {
+        return delegate.iterate(query, rowMapper, params);
+    }
+
+    @Override
+    public <T> ResultIterator<T> iterate(final String query, final int fetchSize, final RowMapper<T> rowMapper,
+        final Object... params) {
+        return delegate.iterate(query, fetchSize, rowMapper, params);
+    }
+
+    @Override
+    public <T, K> Page<T, K> selectPage(final String query, final RowMapper<T> rowMapper, final Keyset<T, K> keyset,
+        final K after, final Object... params) {
+        return delegate.selectPage(query, rowMapper, keyset, after, params);
+    }
+
+    @Override
+    public <T, K> Iterator<Page<T, K>> pages(final String query, final RowMapper<T> rowMapper,
+        final Keyset<T, K> keyset, final Object... params) {
+        return delegate.pages(query, rowMapper, keyset, params);
+    }
+
+    @Override
+    public void query(final String query, final RowCallbackHandler rowCallbackHandler, final Object... params) {
+        delegate.query(query, rowCallbackHandler, params);
+    }
+
+    @Override
+    public <T> T extract(final String query, final ResultSetExtractor<T> resultSetExtractor, final Object... params) {
+        return delegate.extract(query, resultSetExtractor, params);
+    }
+
+    @Override
+    public long[] selectLongs(final String query, final Object... params) {
+        return delegate.selectLongs(query, params);
+    }
+
+    @Override
+    public int[] selectInts(final String query, final Object... params) {
+        return delegate.selectInts(query, params);
+    }
+
+    @Override
+    public double[] selectDoubles(final String query, final Object... params) {
+        return delegate.selectDoubles(query, params);
+    }
+
+    @Override
+    public NumericColumns selectColumns(final String query, final Object... params) {
+        return delegate.selectColumns(query, params);
+    }
+
+    @Override
+    public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Object... params) {
+        return delegate.selectSingle(query, rowMapper, params);
+    }
+
+    @Override
+    public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Params params) {
+        return delegate.selectSingle(query, rowMapper, params);
+    }
+
+    @Override
+    public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+        delegate.insert(statement, entity, paramSetter);
+    }
+
+    @Override
+    public <T> void insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter) {
+        delegate.insert(statement, entities, paramSetter);
+    }
+
+    @Override
+    public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        return delegate.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T, K> K insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper) {
+        return delegate.insert(statement, entity, paramSetter, keyMapper);
+    }
+
+    @Override
+    public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter) {
+        delegate.insert(statement, entity, paramSetter, keySetter);
+    }
+
+    @Override
+    public <T, K> List<K> insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper, final BatchOptions options) {
+        return delegate.insert(statement, entities, paramSetter, keyMapper, options);
+    }
+
+    @Override
+    public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter, final BatchOptions options) {
+        return delegate.insert(statement, entities, paramSetter, keySetter, options);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Iterator<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        return delegate.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Stream<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        return delegate.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Flow.Publisher<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        return delegate.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> void update(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+        delegate.update(statement, entity, paramSetter);
+    }
+
+    @Override
+    public <T> long[] update(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        return delegate.update(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> void delete(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+        delegate.delete(statement, entity, paramSetter);
+    }
+
+    @Override
+    public <T> long[] delete(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        return delegate.delete(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public long count(final String query, final Object... params) {
+        return delegate.count(query, params);
+    }
+
+    @Override
+    public long count(final String query, final Params params) {
+        return delegate.count(query, params);
+    }
+
+    @Override
+    public <R> R inSession(final SessionCallback<R> callback) {
+        return delegate.inSession(callback);
+    }
+
+    @Override
+    public <R> R inTransaction(final SessionCallback<R> callback) {
+        return delegate.inTransaction(callback);
+    }
+
+    @Override
+    public <R> R inTransaction(final TransactionOptions options, final SessionCallback<R> callback) {
+        return delegate.inTransaction(options, callback);
+    }
+}
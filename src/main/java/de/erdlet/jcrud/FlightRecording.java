@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.monitoring.Execution;
+import de.erdlet.jcrud.monitoring.Operation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder events of a single operation. Whether an event is enabled is checked by its
+ * cached {@link EventType} before the event is created, so disabled events neither allocate nor read the
+ * clock. By default, only operations taking at least 20 ms are recorded,
+ * which can be changed by the {@code threshold} setting of the events, e.g. in a {@code .jfc} file or
+ * by {@code recording.enable("jcrud.Query").withThreshold(Duration.ofMillis(5))}.
+ *
+ * @author Tobias Erdle
+ */
+final class FlightRecording {
+
+    private static final String CATEGORY = "jCRUD";
+
+    private static final EventType QUERY_EVENT = EventType.getEventType(QueryEvent.class);
+    private static final EventType BATCH_EVENT = EventType.getEventType(BatchEvent.class);
+    private static final EventType ACQUIRE_EVENT = EventType.getEventType(ConnectionAcquireEvent.class);
+
+    private final ConnectionAcquireEvent acquireEvent;
+    private final OperationEvent operationEvent;
+
+    private FlightRecording(final ConnectionAcquireEvent acquireEvent, final OperationEvent operationEvent) {
+        this.acquireEvent = acquireEvent;
+        this.operationEvent = operationEvent;
+    }
+
+    static FlightRecording startQuery(final Operation operation, final String sql, final int parameterCount) {
+        if (!QUERY_EVENT.isEnabled()) {
+            return start(null, null, sql);
+        }
+
+        final var event = new QueryEvent();
+        event.parameterCount = parameterCount;
+
+        return start(event, operation, sql);
+    }
+
+    static FlightRecording startBatch(final Operation operation, final String sql) {
+        return start(BATCH_EVENT.isEnabled() ? new BatchEvent() : null, operation, sql);
+    }
+
+    static FlightRecording startSession() {
+        return start(null, null, null);
+    }
+
+    /**
+     * @param operationEvent the event of the operation, which is only passed when it is enabled
+     */
+    private static FlightRecording start(final OperationEvent operationEvent, final Operation operation,
+        final String sql) {
+        final var acquireEnabled = ACQUIRE_EVENT.isEnabled();
+        if (!acquireEnabled && operationEvent == null) {
+            return null;
+        }
+
+        ConnectionAcquireEvent acquireEvent = null;
+        if (acquireEnabled) {
+            acquireEvent = new ConnectionAcquireEvent();
+            acquireEvent.sql = sql;
+            acquireEvent.begin();
+        }
+        if (operationEvent != null) {
+            operationEvent.operation = operation.name();
+            operationEvent.sql = sql;
+            operationEvent.begin();
+        }
+
+        return new FlightRecording(acquireEvent, operationEvent);
+    }
+
+    void connectionAcquired() {
+        if (acquireEvent != null) {
+            acquireEvent.end();
+            if (acquireEvent.shouldCommit()) {
+                acquireEvent.commit();
+            }
+        }
+    }
+
+    void finished(final Execution execution) {
+        if (operationEvent == null) {
+            return;
+        }
+
+        operationEvent.end();
+        if (operationEvent.shouldCommit()) {
+            operationEvent.acquireDuration = execution.getAcquireNanos();
+            operationEvent.executeDuration = execution.getExecuteNanos();
+            operationEvent.mappingDuration = execution.getMappingNanos();
+            operationEvent.rowCount = execution.getRowCount();
+            operationEvent.failure = execution.getFailure().map(Throwable::toString).orElse(null);
+            if (operationEvent instanceof BatchEvent) {
+                ((BatchEvent) operationEvent).batchSize = execution.getBatchSize();
+            }
+
+            operationEvent.commit();
+        }
+    }
+
+    @Category(CATEGORY)
+    @StackTrace
+    abstract static class OperationEvent extends Event {
+
+        @Label("Operation")
+        String operation;
+
+        @Label("SQL")
+        String sql;
+
+        @Label("Row Count")
+        @Description("The number of read rows for queries, the update count for writes, or -1 if unknown")
+        long rowCount;
+
+        @Label("Acquire Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long acquireDuration;
+
+        @Label("Execute Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long executeDuration;
+
+        @Label("Mapping Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long mappingDuration;
+
+        @Label("Failure")
+        String failure;
+    }
+
+    @Name("jcrud.Query")
+    @Label("JCrud Query")
+    @Description("A single JCrud operation, i.e. a query or a write of one entity")
+    @Threshold("20 ms")
+    static final class QueryEvent extends OperationEvent {
+
+        @Label("Parameter Count")
+        @Description("The number of bound parameters, or -1 in case they are bound by a ParamSetter")
+        int parameterCount;
+    }
+
+    @Name("jcrud.Batch")
+    @Label("JCrud Batch")
+    @Description("A JCrud batch write of multiple entities")
+    @Threshold("20 ms")
+    static final class BatchEvent extends OperationEvent {
+
+        @Label("Batch Size")
+        long batchSize;
+    }
+
+    @Name("jcrud.ConnectionAcquire")
+    @Label("JCrud Connection Acquire")
+    @Description("Waiting for a connection of the DataSource")
+    @Category(CATEGORY)
+    @Threshold("20 ms")
+    @StackTrace
+    static final class ConnectionAcquireEvent extends Event {
+
+        @Label("SQL")
+        @Description("The SQL of the operation which needs the connection, or empty for sessions")
+        String sql;
+    }
+}
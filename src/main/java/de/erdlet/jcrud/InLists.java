@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.parameter.InList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expands {@link InList} parameters of a query into {@code ?, ?, ...} placeholder lists, e.g. for
+ * {@code WHERE ID IN (?)}. The number of placeholders is padded to one of the {@link #BUCKETS} by repeating
+ * the last value, so lists of different sizes share a few statement texts and thereby the statement caches
+ * of the driver and the database. Padding only repeats a value which is part of the list already, so it
+ * doesn't change the result of {@code IN} and {@code NOT IN} conditions.
+ * <p>
+ * Every query is expanded into exactly one statement, which is never split, so its results are the same
+ * as for the values written out by hand.
+ *
+ * @author Tobias Erdle
+ */
+final class InLists {
+
+    /**
+     * The placeholder counts of expanded lists. The largest bucket is the maximum size of an {@link InList}.
+     */
+    static final int[] BUCKETS = {1, 4, 16, 64, 256, InList.MAX_SIZE};
+
+    /**
+     * The maximum number of parameters of an expanded statement, which stays below the limit of 2100
+     * parameters of some drivers.
+     */
+    static final int MAX_PARAMS = 2000;
+
+    private InLists() {
+    }
+
+    /**
+     * @param params the parameters of a query
+     * @return whether any of the parameters has to be expanded
+     */
+    static boolean containsInList(final Object[] params) {
+        for (final var param : params) {
+            if (param instanceof InList) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Expands the {@link InList} parameters of the query into a single statement.
+     *
+     * @param query the query containing one placeholder per parameter
+     * @param params the parameters of the query
+     * @return the expanded statement
+     */
+    static Expanded expand(final String query, final Object[] params) {
+        final var placeholders = placeholders(query);
+        if (placeholders.size() != params.length) {
+            throw new IllegalArgumentException(String.format(
+                "The query '%s' has %d placeholders but %d parameters were passed",
+                query, placeholders.size(), params.length));
+        }
+
+        var count = 0;
+        for (final var param : params) {
+            count += param instanceof InList ? paddedSize(((InList) param).size()) : 1;
+        }
+        if (count > MAX_PARAMS) {
+            throw new IllegalArgumentException(String.format(
+                "The query '%s' would be expanded to %d parameters but at most %d are supported",
+                query, count, MAX_PARAMS));
+        }
+
+        final var sql = new StringBuilder(query.length() + 3 * count);
+        final var bound = new Object[count];
+        var copied = 0;
+        var next = 0;
+        for (int i = 0; i < params.length; i++) {
+            final int placeholder = placeholders.get(i);
+            sql.append(query, copied, placeholder);
+            copied = placeholder + 1;
+
+            if (!(params[i] instanceof InList)) {
+                sql.append('?');
+                bound[next++] = params[i];
+                continue;
+            }
+
+            final var values = ((InList) params[i]).getValues();
+            final var size = paddedSize(values.size());
+            for (int j = 0; j < size; j++) {
+                sql.append(j == 0 ? "?" : ", ?");
+                bound[next++] = values.get(Math.min(j, values.size() - 1));
+            }
+        }
+        sql.append(query, copied, query.length());
+
+        return new Expanded(sql.toString(), bound);
+    }
+
+    private static int paddedSize(final int size) {
+        for (final var bucket : BUCKETS) {
+            if (size <= bucket) {
+                return bucket;
+            }
+        }
+
+        // InList rejects larger lists, so this is never reached
+        throw new IllegalStateException("An IN list must not contain more than " + InList.MAX_SIZE + " values");
+    }
+
+    /**
+     * @param query the query to be scanned
+     * @return the indexes of the {@code ?} placeholders of the query
+     */
+    static List<Integer> placeholders(final String query) {
+        // Question marks inside of literals, quoted identifiers and comments are no placeholders
+        final var placeholders = new ArrayList<Integer>();
+        final var length = query.length();
+        for (int i = 0; i < length; i++) {
+            final var c = query.charAt(i);
+            if (c == '\'' || c == '"') {
+                i = end(query.indexOf(c, i + 1), length);
+            } else if (c == '-' && query.startsWith("-", i + 1)) {
+                i = end(query.indexOf('\n', i + 2), length);
+            } else if (c == '/' && query.startsWith("*", i + 1)) {
+                i = end(query.indexOf("*/", i + 2), length) + 1;
+            } else if (c == '?') {
+                placeholders.add(i);
+            }
+        }
+
+        return placeholders;
+    }
+
+    private static int end(final int index, final int length) {
+        return index < 0 ? length : index;
+    }
+
+    /**
+     * A query whose {@link InList} parameters are replaced by their values.
+     */
+    static final class Expanded {
+
+        private final String query;
+        private final Object[] params;
+
+        Expanded(final String query, final Object[] params) {
+            this.query = query;
+            this.params = params;
+        }
+
+        String getQuery() {
+            return query;
+        }
+
+        Object[] getParams() {
+            return params;
+        }
+    }
+}
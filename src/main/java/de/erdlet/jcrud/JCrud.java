@@ -21,14 +21,34 @@
  */
 package de.erdlet.jcrud;
 
+import de.erdlet.jcrud.batch.BatchOptions;
 import de.erdlet.jcrud.exception.DatabaseException;
+import de.erdlet.jcrud.paging.Keyset;
+import de.erdlet.jcrud.paging.Page;
 import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.KeySetter;
+import de.erdlet.jcrud.results.NumericColumns;
+import de.erdlet.jcrud.results.ResultIterator;
+import de.erdlet.jcrud.results.ResultSetExtractor;
+import de.erdlet.jcrud.results.RowCallbackHandler;
 import de.erdlet.jcrud.results.RowMapper;
+import de.erdlet.jcrud.scan.ScanOptions;
+import de.erdlet.jcrud.transaction.SessionCallback;
+import de.erdlet.jcrud.transaction.TransactionOptions;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 /**
  * Interface containing all CRUD operations on a database.
+ * <p>
+ * An {@link de.erdlet.jcrud.parameter.InList} passed as one of the {@code Object...} parameters of a read
+ * is expanded into a list of placeholders, e.g. for {@code WHERE ID IN (?)}. The lists are padded to a few
+ * fixed sizes, so the statements stay cacheable. Every query is still executed as one statement. Other
+ * collections are bound as they are, e.g. for {@code = ANY(?)}.
  *
  * @author Tobias Erdle
  */
@@ -45,6 +65,193 @@ public interface JCrud {
      */
     <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Object... params);
 
+    /**
+     * Select multiple entities from the database like {@link #select(String, RowMapper, Object...)}, but
+     * bind the parameters with their type-specific setters.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowMapper the {@link RowMapper} for mapping the {@link java.sql.ResultSet}'s entries to the result {@link List}
+     * @param params the typed {@link Params} for the statement
+     * @param <T> the type of the result entity
+     * @return a {@link List} containing all resolved entities. In case of no results, this {@link List} is empty.
+     */
+    <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Params params);
+
+    /**
+     * Select multiple entities from the database without loading them into memory at once. The rows are
+     * read and mapped one by one while the {@link Stream} is consumed, so the connection and the
+     * {@link java.sql.ResultSet} stay open until the {@link Stream} is closed or fully read. Therefore the
+     * returned {@link Stream} should always be used inside a try-with-resources block.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+     * @param params optional parameters for the statement
+     * @param <T> the type of the result entity
+     * @return a lazy {@link Stream} of the resolved entities
+     */
+    <T> Stream<T> stream(final String query, final RowMapper<T> rowMapper, final Object... params);
+
+    /**
+     * Select multiple entities lazily like {@link #stream(String, RowMapper, Object...)}, but with a hint
+     * for the driver how many rows shall be fetched per round trip.
+     * <p>
+     * Note that some drivers (e.g. PostgreSQL) only respect the fetch size when auto-commit is disabled.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param fetchSize the number of rows fetched per round trip or {@code 0} for the driver's default
+     * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+     * @param params optional parameters for the statement
+     * @param <T> the type of the result entity
+     * @return a lazy {@link Stream} of the resolved entities
+     */
+    <T> Stream<T> stream(final String query, final int fetchSize, final RowMapper<T> rowMapper,
+        final Object... params);
+
+    /**
+     * Select multiple entities by a parallel scan. The query is split by the key ranges of the
+     * {@link ScanOptions} into one sub-query per partition, and every sub-query streams its rows on its
+     * own connection. Once the returned {@link Stream} is consumed, every partition is read by its own task
+     * on the {@link ScanOptions#getExecutor() executor} of the options, which hands the entities over to the
+     * consuming thread. The partitions are separate statements, so they don't share a snapshot of the data.
+     * <p>
+     * In case the options are {@link ScanOptions#ordered()}, the stream keeps the key order for
+     * order-preserving operations like {@link Stream#forEachOrdered(java.util.function.Consumer)}.
+     * Otherwise the entities come in no particular order.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement which selects the key
+     * column.
+     * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+     * @param options the {@link ScanOptions} defining the key ranges
+     * @param params optional parameters for the query, which are passed to every sub-query
+     * @param <T> the type of the result entity
+     * @return a lazy {@link Stream} of the resolved entities, which has to be closed in case it is not fully
+     * consumed. Otherwise its partitions keep their threads and connections until it is garbage collected.
+     */
+    <T> Stream<T> scan(final String query, final RowMapper<T> rowMapper, final ScanOptions options,
+        final Object... params);
+
+    /**
+     * Select multiple entities lazily like {@link #stream(String, RowMapper, Object...)}, but return a
+     * {@link ResultIterator} instead of a {@link Stream}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+     * @param params optional parameters for the statement
+     * @param <T> the type of the result entity
+     * @return a {@link ResultIterator} which has to be closed after usage
+     */
+    <T> ResultIterator<T> iterate(final String query, final RowMapper<T> rowMapper, final Object... params);
+
+    /**
+     * Select multiple entities lazily like {@link #stream(String, int, RowMapper, Object...)}, but return
+     * a {@link ResultIterator} instead of a {@link Stream}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param fetchSize the number of rows fetched per round trip or {@code 0} for the driver's default
+     * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+     * @param params optional parameters for the statement
+     * @param <T> the type of the result entity
+     * @return a {@link ResultIterator} which has to be closed after usage
+     */
+    <T> ResultIterator<T> iterate(final String query, final int fetchSize, final RowMapper<T> rowMapper,
+        final Object... params);
+
+    /**
+     * Select one page of entities ordered by the key of the {@link Keyset}. The query is wrapped into
+     * {@code SELECT * FROM (query) WHERE key > ? ORDER BY key}, so every page seeks to the key of the last
+     * entity of the previous page instead of skipping all rows before the page.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement which selects the key
+     * column.
+     * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+     * @param keyset the {@link Keyset} defining the key and the page size
+     * @param after the last key of the previous page or {@code null} for the first page
+     * @param params optional parameters for the query
+     * @param <T> the type of the result entity
+     * @param <K> the type of the key
+     * @return the {@link Page} of entities following the given key
+     */
+    <T, K> Page<T, K> selectPage(final String query, final RowMapper<T> rowMapper, final Keyset<T, K> keyset,
+        final K after, final Object... params);
+
+    /**
+     * Select all entities of a query page by page like {@link #selectPage(String, RowMapper, Keyset, Object,
+     * Object...)}. Every page is only queried when the iterator is advanced to it, and no connection is
+     * held between the pages.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement which selects the key
+     * column.
+     * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+     * @param keyset the {@link Keyset} defining the key and the page size
+     * @param params optional parameters for the query
+     * @param <T> the type of the result entity
+     * @param <K> the type of the key
+     * @return a lazy {@link Iterator} over all non-empty pages
+     */
+    <T, K> Iterator<Page<T, K>> pages(final String query, final RowMapper<T> rowMapper, final Keyset<T, K> keyset,
+        final Object... params);
+
+    /**
+     * Execute a query and pass every row of the {@link java.sql.ResultSet} to the given
+     * {@link RowCallbackHandler}. In contrast to {@link #select(String, RowMapper, Object...)}, no
+     * collection is created for the results.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowCallbackHandler the {@link RowCallbackHandler} which is called once per row
+     * @param params optional parameters for the statement
+     */
+    void query(final String query, final RowCallbackHandler rowCallbackHandler, final Object... params);
+
+    /**
+     * Execute a query and let the given {@link ResultSetExtractor} compute the result from the whole
+     * {@link java.sql.ResultSet}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param resultSetExtractor the {@link ResultSetExtractor} which is called once for the whole result
+     * @param params optional parameters for the statement
+     * @param <T> the type of the extracted result
+     * @return the result of the {@link ResultSetExtractor}
+     */
+    <T> T extract(final String query, final ResultSetExtractor<T> resultSetExtractor, final Object... params);
+
+    /**
+     * Select the first column of all rows as {@code long} values without boxing them. {@code NULL} values
+     * are read as {@code 0}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param params optional parameters for the statement
+     * @return the values of all rows in the order of the result
+     */
+    long[] selectLongs(final String query, final Object... params);
+
+    /**
+     * Select the first column of all rows as {@code int} values like {@link #selectLongs(String, Object...)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param params optional parameters for the statement
+     * @return the values of all rows in the order of the result
+     */
+    int[] selectInts(final String query, final Object... params);
+
+    /**
+     * Select the first column of all rows as {@code double} values like
+     * {@link #selectLongs(String, Object...)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param params optional parameters for the statement
+     * @return the values of all rows in the order of the result
+     */
+    double[] selectDoubles(final String query, final Object... params);
+
+    /**
+     * Select all columns of a query with numeric columns only into parallel primitive arrays.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param params optional parameters for the statement
+     * @return the {@link NumericColumns} of all rows
+     */
+    NumericColumns selectColumns(final String query, final Object... params);
+
     /**
      * Select an single entity from the database. It is expected that the query either returns one or
      * no result. In case the query returns a list of results, it is an exceptional behaviour.
@@ -59,6 +266,19 @@ public interface JCrud {
     <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper,
         final Object... params);
 
+    /**
+     * Select a single entity from the database like {@link #selectSingle(String, RowMapper, Object...)}, but
+     * bind the parameters with their type-specific setters.
+     *
+     * @param query the query to execute
+     * @param rowMapper the {@link RowMapper} to map the result columns to the entity
+     * @param params the typed {@link Params} for resolving the entity
+     * @param <T> the target type of the entity
+     * @return optionally the found entity or an empty result if no entity was found
+     * @throws de.erdlet.jcrud.exception.TooManyResultsException in case there is more than one result
+     */
+    <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Params params);
+
     /**
      * Insert an entity into the database.
      *
@@ -85,6 +305,140 @@ public interface JCrud {
      */
     <T> void insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter);
 
+    /**
+     * Insert multiple entities in the database by chunked batches.
+     *
+     * @param statement the insert statement which will be executed
+     * @param entities a {@link List} of entities which shall be persisted
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entity to persist
+     * @return the update count of every entity in the order of the {@link List}
+     * @throws de.erdlet.jcrud.exception.InvalidStatementException in case the statement is no INSERT
+     * statement
+     */
+    <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options);
+
+    /**
+     * Insert the entities of an {@link Iterator} by chunked batches. The entities are pulled lazily, so only
+     * one chunk is held in memory at a time and the next chunk is pulled after the previous one was
+     * flushed.
+     *
+     * @param statement the insert statement which will be executed
+     * @param entities an {@link Iterator} over the entities which shall be persisted
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entity to persist
+     * @return the sum of the update counts of all entities
+     * @throws de.erdlet.jcrud.exception.InvalidStatementException in case the statement is no INSERT
+     * statement
+     */
+    <T> long insert(final String statement, final Iterator<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options);
+
+    /**
+     * Insert the entities of a {@link Stream} by chunked batches like
+     * {@link #insert(String, Iterator, ParamSetter, BatchOptions)}. The {@link Stream} is not closed by this
+     * method.
+     *
+     * @param statement the insert statement which will be executed
+     * @param entities a {@link Stream} of the entities which shall be persisted
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entity to persist
+     * @return the sum of the update counts of all entities
+     */
+    <T> long insert(final String statement, final Stream<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options);
+
+    /**
+     * Insert the entities of a {@link Flow.Publisher} by chunked batches. The publisher is asked for at most
+     * one chunk of entities in advance, so a fast publisher can't overrun the database. This method blocks
+     * until the publisher has completed and all entities were written.
+     *
+     * @param statement the insert statement which will be executed
+     * @param entities the {@link Flow.Publisher} of the entities which shall be persisted
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entity to persist
+     * @return the sum of the update counts of all entities
+     * @throws java.util.concurrent.CompletionException in case the publisher signals an error
+     */
+    <T> long insert(final String statement, final Flow.Publisher<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options);
+
+    /**
+     * Insert an entity and return the key generated by the database, which saves the query for the key.
+     *
+     * @param statement the statement to execute for insertion
+     * @param entity the entity to be inserted
+     * @param paramSetter the {@link ParamSetter} which sets the entity attributes into the
+     * {@link java.sql.PreparedStatement}
+     * @param keyMapper the {@link RowMapper} for the row of the generated keys
+     * @param <T> the type of the entity to be saved
+     * @param <K> the type of the key
+     * @return the mapped key
+     * @throws DatabaseException in case the driver fails or no key was generated
+     * @throws de.erdlet.jcrud.exception.InvalidStatementException in case the statement is no INSERT
+     * statement
+     */
+    <T, K> K insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper);
+
+    /**
+     * Insert an entity and write the keys generated by the database back onto it.
+     *
+     * @param statement the statement to execute for insertion
+     * @param entity the entity to be inserted
+     * @param paramSetter the {@link ParamSetter} which sets the entity attributes into the
+     * {@link java.sql.PreparedStatement}
+     * @param keySetter the {@link KeySetter} which sets the generated keys onto the entity
+     * @param <T> the type of the entity to be saved
+     * @throws DatabaseException in case the driver fails or no key was generated
+     * @throws de.erdlet.jcrud.exception.InvalidStatementException in case the statement is no INSERT
+     * statement
+     */
+    <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter);
+
+    /**
+     * Insert multiple entities by chunked batches and return the keys generated by the database. The
+     * driver has to support generated keys for batches.
+     *
+     * @param statement the insert statement which will be executed
+     * @param entities a {@link List} of entities which shall be persisted
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param keyMapper the {@link RowMapper} for the rows of the generated keys
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entity to persist
+     * @param <K> the type of the keys
+     * @return the mapped keys in the order of the {@link List}
+     * @throws DatabaseException in case the driver fails or doesn't return a key for every entity
+     * @throws de.erdlet.jcrud.exception.InvalidStatementException in case the statement is no INSERT
+     * statement
+     */
+    <T, K> List<K> insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper, final BatchOptions options);
+
+    /**
+     * Insert multiple entities by chunked batches and write the keys generated by the database back onto
+     * them. The driver has to support generated keys for batches.
+     *
+     * @param statement the insert statement which will be executed
+     * @param entities a {@link List} of entities which shall be persisted
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param keySetter the {@link KeySetter} which sets the generated keys onto every entity
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entity to persist
+     * @return the update count of every entity in the order of the {@link List}
+     * @throws DatabaseException in case the driver fails or doesn't return a key for every entity
+     * @throws de.erdlet.jcrud.exception.InvalidStatementException in case the statement is no INSERT
+     * statement
+     */
+    <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter, final BatchOptions options);
+
     /**
      * Update an existing entity within the database.
      *
@@ -96,6 +450,19 @@ public interface JCrud {
      */
     <T> void update(final String statement, final T entity, final ParamSetter<T> paramSetter);
 
+    /**
+     * Update multiple entities within the database by chunked batches.
+     *
+     * @param statement the UPDATE statement which will be executed for every entity
+     * @param entities a {@link List} of entities which shall be updated
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entities
+     * @return the update count of every entity in the order of the {@link List}
+     */
+    <T> long[] update(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options);
+
     /**
      * Delete an existing entity from the database.
      *
@@ -107,6 +474,19 @@ public interface JCrud {
      */
     <T> void delete(final String statement, final T entity, final ParamSetter<T> paramSetter);
 
+    /**
+     * Delete multiple entities from the database by chunked batches.
+     *
+     * @param statement the DELETE statement which will be executed for every entity
+     * @param entities a {@link List} of entities which shall be removed
+     * @param paramSetter the {@link ParamSetter} for the statement
+     * @param options the {@link BatchOptions} defining the chunk size and the commit behaviour
+     * @param <T> the type of the entities
+     * @return the update count of every entity in the order of the {@link List}
+     */
+    <T> long[] delete(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options);
+
     /**
      * Executes an COUNT statement. The method expects a single column result which contains a number inside.
      *
@@ -115,4 +495,48 @@ public interface JCrud {
      * @return the result of the count statement
      */
     long count(final String query, final Object... params);
+
+    /**
+     * Executes an COUNT statement like {@link #count(String, Object...)}, but binds the parameters with
+     * their type-specific setters.
+     *
+     * @param query the COUNT query to be executed.
+     * @param params the typed {@link Params} for the statement
+     * @return the result of the count statement
+     */
+    long count(final String query, final Params params);
+
+    /**
+     * Execute the callback with a {@link JCrudSession}, which runs all operations on the same connection.
+     * The connection is taken from the pool once and given back after the callback has finished. The
+     * auto-commit mode of the connection is not changed.
+     *
+     * @param callback the callback to execute
+     * @param <R> the type of the callback's result
+     * @return the result of the callback
+     */
+    <R> R inSession(final SessionCallback<R> callback);
+
+    /**
+     * Execute the callback inside of a transaction on a single connection. The transaction is committed
+     * when the callback returns and rolled back when it throws an exception. When called on a
+     * {@link JCrudSession} which is already inside of a transaction, the callback joins the running
+     * transaction.
+     *
+     * @param callback the callback to execute
+     * @param <R> the type of the callback's result
+     * @return the result of the callback
+     */
+    <R> R inTransaction(final SessionCallback<R> callback);
+
+    /**
+     * Execute the callback inside of a transaction like {@link #inTransaction(SessionCallback)}, but with
+     * the given isolation level and read-only hint.
+     *
+     * @param options the {@link TransactionOptions} applied to the connection
+     * @param callback the callback to execute
+     * @param <R> the type of the callback's result
+     * @return the result of the callback
+     */
+    <R> R inTransaction(final TransactionOptions options, final SessionCallback<R> callback);
 }
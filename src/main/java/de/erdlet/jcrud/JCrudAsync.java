@@ -0,0 +1,290 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.batch.BatchOptions;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.RowMapper;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous facade of {@link JCrud}. Every operation is run on an {@link Executor}, so independent
+ * queries can overlap instead of being executed one after another. The returned futures complete
+ * exceptionally with the {@link de.erdlet.jcrud.exception.DatabaseException} thrown by the operation.
+ *
+ * <p>Operations which need to share a connection, e.g. a transaction, must still be expressed by
+ * {@link JCrud#inTransaction(de.erdlet.jcrud.transaction.SessionCallback)} on the underlying instance.
+ *
+ * @author Tobias Erdle
+ */
+public class JCrudAsync implements AutoCloseable {
+
+    private final JCrud jcrud;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Create an instance running all operations on the given {@link Executor}. The executor is not shut
+     * down by {@link #close()}.
+     *
+     * @param jcrud the {@link JCrud} executing the operations
+     * @param executor the {@link Executor} running the operations
+     */
+    public JCrudAsync(final JCrud jcrud, final Executor executor) {
+        this.jcrud = jcrud;
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    /**
+     * Create an instance with its own executor. Virtual threads are used when the runtime supports them,
+     * otherwise a pool of at most {@code maxConnections} threads, as more threads would only wait for a
+     * connection of the {@link javax.sql.DataSource}. The executor is shut down by {@link #close()}.
+     *
+     * @param jcrud the {@link JCrud} executing the operations
+     * @param maxConnections the maximum number of connections of the underlying {@link javax.sql.DataSource}
+     * @throws IllegalArgumentException in case {@code maxConnections} is not positive
+     */
+    public JCrudAsync(final JCrud jcrud, final int maxConnections) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("The maximum number of connections must be positive");
+        }
+
+        this.jcrud = jcrud;
+        this.ownedExecutor = createDefaultExecutor(maxConnections);
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#select(String, RowMapper, Object...)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowMapper the {@link RowMapper} for mapping the {@link java.sql.ResultSet}'s entries to the result {@link List}
+     * @param params optional parameters for the statement
+     * @param <T> the type of the result entity
+     * @return a future of the resolved entities
+     */
+    public <T> CompletableFuture<List<T>> select(final String query, final RowMapper<T> rowMapper,
+        final Object... params) {
+        return CompletableFuture.supplyAsync(() -> jcrud.select(query, rowMapper, params), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#select(String, RowMapper, Params)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowMapper the {@link RowMapper} for mapping the {@link java.sql.ResultSet}'s entries to the result {@link List}
+     * @param params the typed {@link Params} for the statement
+     * @param <T> the type of the result entity
+     * @return a future of the resolved entities
+     */
+    public <T> CompletableFuture<List<T>> select(final String query, final RowMapper<T> rowMapper,
+        final Params params) {
+        return CompletableFuture.supplyAsync(() -> jcrud.select(query, rowMapper, params), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#selectSingle(String, RowMapper, Object...)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowMapper the {@link RowMapper} for mapping the {@link java.sql.ResultSet}'s entry
+     * @param params optional parameters for the statement
+     * @param <T> the type of the result entity
+     * @return a future of the resolved entity
+     */
+    public <T> CompletableFuture<Optional<T>> selectSingle(final String query, final RowMapper<T> rowMapper,
+        final Object... params) {
+        return CompletableFuture.supplyAsync(() -> jcrud.selectSingle(query, rowMapper, params), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#selectSingle(String, RowMapper, Params)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT statement.
+     * @param rowMapper the {@link RowMapper} for mapping the {@link java.sql.ResultSet}'s entry
+     * @param params the typed {@link Params} for the statement
+     * @param <T> the type of the result entity
+     * @return a future of the resolved entity
+     */
+    public <T> CompletableFuture<Optional<T>> selectSingle(final String query, final RowMapper<T> rowMapper,
+        final Params params) {
+        return CompletableFuture.supplyAsync(() -> jcrud.selectSingle(query, rowMapper, params), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#count(String, Object...)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT COUNT statement.
+     * @param params optional parameters for the statement
+     * @return a future of the amount of matching rows
+     */
+    public CompletableFuture<Long> count(final String query, final Object... params) {
+        return CompletableFuture.supplyAsync(() -> jcrud.count(query, params), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#count(String, Params)}.
+     *
+     * @param query the query to be executed. It is expected to be a SELECT COUNT statement.
+     * @param params the typed {@link Params} for the statement
+     * @return a future of the amount of matching rows
+     */
+    public CompletableFuture<Long> count(final String query, final Params params) {
+        return CompletableFuture.supplyAsync(() -> jcrud.count(query, params), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#insert(String, Object, ParamSetter)}.
+     *
+     * @param statement the INSERT statement to be executed
+     * @param entity the entity to be inserted
+     * @param paramSetter the {@link ParamSetter} for setting the entity's values
+     * @param <T> the type of the entity
+     * @return a future completing after the entity is inserted
+     */
+    public <T> CompletableFuture<Void> insert(final String statement, final T entity,
+        final ParamSetter<T> paramSetter) {
+        return CompletableFuture.runAsync(() -> jcrud.insert(statement, entity, paramSetter), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#insert(String, List, ParamSetter, BatchOptions)}.
+     *
+     * @param statement the INSERT statement to be executed
+     * @param entities the entities to be inserted
+     * @param paramSetter the {@link ParamSetter} for setting the entities' values
+     * @param options the {@link BatchOptions} controlling chunking and commits
+     * @param <T> the type of the entities
+     * @return a future of the update count per entity
+     */
+    public <T> CompletableFuture<long[]> insert(final String statement, final List<T> entities,
+        final ParamSetter<T> paramSetter, final BatchOptions options) {
+        return CompletableFuture.supplyAsync(() -> jcrud.insert(statement, entities, paramSetter, options), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#update(String, Object, ParamSetter)}.
+     *
+     * @param statement the UPDATE statement to be executed
+     * @param entity the entity to be updated
+     * @param paramSetter the {@link ParamSetter} for setting the entity's values
+     * @param <T> the type of the entity
+     * @return a future completing after the entity is updated
+     */
+    public <T> CompletableFuture<Void> update(final String statement, final T entity,
+        final ParamSetter<T> paramSetter) {
+        return CompletableFuture.runAsync(() -> jcrud.update(statement, entity, paramSetter), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#update(String, List, ParamSetter, BatchOptions)}.
+     *
+     * @param statement the UPDATE statement to be executed
+     * @param entities the entities to be updated
+     * @param paramSetter the {@link ParamSetter} for setting the entities' values
+     * @param options the {@link BatchOptions} controlling chunking and commits
+     * @param <T> the type of the entities
+     * @return a future of the update count per entity
+     */
+    public <T> CompletableFuture<long[]> update(final String statement, final List<T> entities,
+        final ParamSetter<T> paramSetter, final BatchOptions options) {
+        return CompletableFuture.supplyAsync(() -> jcrud.update(statement, entities, paramSetter, options), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#delete(String, Object, ParamSetter)}.
+     *
+     * @param statement the DELETE statement to be executed
+     * @param entity the entity to be deleted
+     * @param paramSetter the {@link ParamSetter} for setting the entity's values
+     * @param <T> the type of the entity
+     * @return a future completing after the entity is deleted
+     */
+    public <T> CompletableFuture<Void> delete(final String statement, final T entity,
+        final ParamSetter<T> paramSetter) {
+        return CompletableFuture.runAsync(() -> jcrud.delete(statement, entity, paramSetter), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link JCrud#delete(String, List, ParamSetter, BatchOptions)}.
+     *
+     * @param statement the DELETE statement to be executed
+     * @param entities the entities to be deleted
+     * @param paramSetter the {@link ParamSetter} for setting the entities' values
+     * @param options the {@link BatchOptions} controlling chunking and commits
+     * @param <T> the type of the entities
+     * @return a future of the update count per entity
+     */
+    public <T> CompletableFuture<long[]> delete(final String statement, final List<T> entities,
+        final ParamSetter<T> paramSetter, final BatchOptions options) {
+        return CompletableFuture.supplyAsync(() -> jcrud.delete(statement, entities, paramSetter, options), executor);
+    }
+
+    /**
+     * Shut down the executor in case it was created by this instance. Already submitted operations are
+     * still executed.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private static ExecutorService createDefaultExecutor(final int maxConnections) {
+        try {
+            // Looked up reflectively, as virtual threads are only available since Java 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            final var executor = new ThreadPoolExecutor(maxConnections, maxConnections, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+
+            return executor;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final var thread = new Thread(runnable, "jcrud-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -21,19 +21,47 @@
  */
 package de.erdlet.jcrud;
 
+import de.erdlet.jcrud.batch.BatchOptions;
 import de.erdlet.jcrud.exception.DatabaseException;
 import de.erdlet.jcrud.exception.InvalidStatementException;
 import de.erdlet.jcrud.exception.InvalidStatementException.Keyword;
 import de.erdlet.jcrud.exception.TooManyResultsException;
+import de.erdlet.jcrud.monitoring.ExecutionListener;
+import de.erdlet.jcrud.monitoring.Operation;
+import de.erdlet.jcrud.paging.Keyset;
+import de.erdlet.jcrud.paging.Page;
 import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.KeySetter;
+import de.erdlet.jcrud.results.NumericColumns;
+import de.erdlet.jcrud.results.ResultIterator;
+import de.erdlet.jcrud.results.ResultSetExtractor;
+import de.erdlet.jcrud.results.RowCallbackHandler;
 import de.erdlet.jcrud.results.RowMapper;
+import de.erdlet.jcrud.scan.ScanOptions;
+import de.erdlet.jcrud.transaction.SessionCallback;
+import de.erdlet.jcrud.transaction.TransactionOptions;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.sql.DataSource;
 
 /**
@@ -84,129 +112,844 @@ import javax.sql.DataSource;
     justification = "False positive warnings when using try-with-resource in Java 11")
 public class JCrudImpl implements JCrud {
 
+
+    /**
+     * Default number of {@link PreparedStatement}s which are cached per {@link JCrudSession}.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
     private final DataSource dataSource;
+    private final int statementCacheSize;
+    private final ExecutionListener listener;
 
     public JCrudImpl(final DataSource dataSource) {
+        this(dataSource, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a new instance with a custom size of the {@link PreparedStatement} cache, which is used
+     * inside of {@link #inSession(SessionCallback)} and {@link #inTransaction(SessionCallback)}. Outside
+     * of sessions every operation uses its own connection, so statements are not cached there.
+     *
+     * @param dataSource the {@link DataSource} to obtain the connections from
+     * @param statementCacheSize the maximum number of cached statements per session or {@code 0} to
+     * disable the cache
+     */
+    public JCrudImpl(final DataSource dataSource, final int statementCacheSize) {
+        this(dataSource, statementCacheSize, null);
+    }
+
+    /**
+     * Creates a new instance which reports every operation to the given {@link ExecutionListener}.
+     *
+     * @param dataSource the {@link DataSource} to obtain the connections from
+     * @param statementCacheSize the maximum number of cached statements per session or {@code 0} to
+     * disable the cache
+     * @param listener the listener to notify after every operation or {@code null} to disable the
+     * measurement
+     */
+    public JCrudImpl(final DataSource dataSource, final int statementCacheSize, final ExecutionListener listener) {
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("The statement cache size must not be negative");
+        }
+
         this.dataSource = dataSource;
+        this.statementCacheSize = statementCacheSize;
+        this.listener = listener;
     }
 
     @Override
     public <T> List<T> select(final String query, final RowMapper<T> rowMapper,
         final Object... params) {
-        try (final var connection = dataSource.getConnection();
-            final var pstmt = connection.prepareStatement(query)) {
+        if (InLists.containsInList(params)) {
+            final var expanded = InLists.expand(query, params);
+
+            return select(expanded.getQuery(), rowMapper, expanded.getParams());
+        }
+
+        final var recorder = record(Operation.SELECT, query, params.length);
+
+        return execute(recorder, query, pstmt -> {
             applyStatementParams(pstmt, params);
 
-            return executeQuery(pstmt, rowMapper);
-        } catch (final SQLException ex) {
-            throw new DatabaseException(ex);
+            return executeQuery(pstmt, rowMapper, recorder);
+        });
+    }
+
+    @Override
+    public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Params params) {
+        final var recorder = record(Operation.SELECT, query, params.size());
+
+        return execute(recorder, query, pstmt -> {
+            params.applyTo(pstmt);
+
+            return executeQuery(pstmt, rowMapper, recorder);
+        });
+    }
+
+    @Override
+    public <T> Stream<T> stream(final String query, final RowMapper<T> rowMapper, final Object... params) {
+        return stream(query, 0, rowMapper, params);
+    }
+
+    @Override
+    public <T> Stream<T> stream(final String query, final int fetchSize, final RowMapper<T> rowMapper,
+        final Object... params) {
+        final var iterator = iterate(query, fetchSize, rowMapper, params);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+            .onClose(iterator::close);
+    }
+
+    @Override
+    public <T> Stream<T> scan(final String query, final RowMapper<T> rowMapper, final ScanOptions options,
+        final Object... params) {
+        // Every partition opens its cursor on its own connection once its task runs on the executor
+        final var scan = new ScanIterator<>(scanPartitions(query, rowMapper, options, params),
+            options.getExecutor(), options.isOrdered());
+
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(scan, options.isOrdered() ? Spliterator.ORDERED : 0), false)
+            .onClose(scan::close);
+    }
+
+    /**
+     * Creates the lazy streams of all partitions of a scan, which don't touch the database before they are
+     * requested.
+     */
+    final <T> List<Supplier<Stream<T>>> scanPartitions(final String query, final RowMapper<T> rowMapper,
+        final ScanOptions options, final Object... params) {
+        final var boundaries = options.getBoundaries();
+        final var partitions = boundaries.size() + 1;
+
+        final var scans = new ArrayList<Supplier<Stream<T>>>(partitions);
+        for (var i = 0; i < partitions; i++) {
+            final var partition = i;
+            scans.add(() -> stream(partitionQuery(query, options, partition, partitions), options.getFetchSize(),
+                rowMapper, partitionParams(params, boundaries, partition)));
         }
+
+        return scans;
     }
 
     @Override
-    public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper,
+    public <T> ResultIterator<T> iterate(final String query, final RowMapper<T> rowMapper,
+        final Object... params) {
+        return iterate(query, 0, rowMapper, params);
+    }
+
+    @Override
+    @SuppressFBWarnings(
+        value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+        justification = "The resources are released by the returned ResultIterator")
+    public <T> ResultIterator<T> iterate(final String query, final int fetchSize, final RowMapper<T> rowMapper,
         final Object... params) {
-        try (final var connection = dataSource.getConnection();
-            final var pstmt = connection.prepareStatement(query)) {
+        if (InLists.containsInList(params)) {
+            final var expanded = InLists.expand(query, params);
+
+            return iterate(expanded.getQuery(), fetchSize, rowMapper, expanded.getParams());
+        }
+
+        final var recorder = record(Operation.ITERATE, query, params.length);
+
+        Connection connection = null;
+        PreparedStatement pstmt = null;
+        try {
+            connection = acquireConnection();
+            recorder.connectionAcquired();
+            pstmt = prepareStatement(connection, query, false);
+            pstmt.setFetchSize(fetchSize);
             applyStatementParams(pstmt, params);
 
-            final var results = executeQuery(pstmt, rowMapper);
+            final var rs = pstmt.executeQuery();
+            recorder.statementExecuted();
 
-            switch (results.size()) {
-                case 0:
-                    return Optional.empty();
-                case 1:
-                    return Optional.of(results.get(0));
-                default:
-                    throw new TooManyResultsException(query, params);
-            }
+            return new ResultSetIterator<>(rs, rowMapper, releasing(connection, query, pstmt), recorder);
         } catch (final SQLException ex) {
+            if (connection != null) {
+                closeOnFailure(ex, releasing(connection, query, pstmt));
+            }
+            recorder.failed(ex);
             throw new DatabaseException(ex);
         }
     }
 
     @Override
-    public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter) {
-        checkInsertStatement(statement);
+    public <T, K> Page<T, K> selectPage(final String query, final RowMapper<T> rowMapper, final Keyset<T, K> keyset,
+        final K after, final Object... params) {
+        if (InLists.containsInList(params)) {
+            final var expanded = InLists.expand(query, params);
 
-        try (final var connection = dataSource.getConnection();
-            final var pstmt = connection.prepareStatement(statement)) {
+            return selectPage(expanded.getQuery(), rowMapper, keyset, after, expanded.getParams());
+        }
 
-            paramSetter.setStatementParams(entity, pstmt);
+        final var pageQuery = pageQuery(query, keyset, after != null);
+        // The key is bound at the position of its condition, which is before the limit of the page
+        final var keyIndex = after != null ? keyParamIndex(query, params.length) : -1;
+        final var recorder = record(Operation.SELECT, pageQuery, after != null ? params.length + 2 : params.length + 1);
 
-            pstmt.executeUpdate();
-        } catch (final SQLException ex) {
-            throw new DatabaseException(ex);
+        return execute(recorder, pageQuery, pstmt -> {
+            var index = 1;
+            for (int i = 0; i <= params.length; i++) {
+                if (i == keyIndex) {
+                    pstmt.setObject(index++, after);
+                }
+                if (i < params.length) {
+                    pstmt.setObject(index++, params[i]);
+                }
+            }
+            // One row more than the page size tells whether another page follows without querying it
+            pstmt.setInt(index, keyset.getPageSize() + 1);
+
+            return executePageQuery(pstmt, rowMapper, keyset, recorder);
+        });
+    }
+
+    @Override
+    public <T, K> Iterator<Page<T, K>> pages(final String query, final RowMapper<T> rowMapper,
+        final Keyset<T, K> keyset, final Object... params) {
+        return new PageIterator<>(this, query, rowMapper, keyset, params);
+    }
+
+    @Override
+    public void query(final String query, final RowCallbackHandler rowCallbackHandler, final Object... params) {
+        if (InLists.containsInList(params)) {
+            final var expanded = InLists.expand(query, params);
+            query(expanded.getQuery(), rowCallbackHandler, expanded.getParams());
+
+            return;
+        }
+
+        final var recorder = record(Operation.QUERY, query, params.length);
+
+        execute(recorder, query, pstmt -> {
+            applyStatementParams(pstmt, params);
+
+            try (final var rs = pstmt.executeQuery()) {
+                recorder.statementExecuted();
+
+                var rows = 0L;
+                while (rs.next()) {
+                    rowCallbackHandler.processRow(rs);
+                    rows++;
+                }
+                recorder.rows(rows);
+            }
+
+            return null;
+        });
+    }
+
+    @Override
+    public <T> T extract(final String query, final ResultSetExtractor<T> resultSetExtractor,
+        final Object... params) {
+        if (InLists.containsInList(params)) {
+            final var expanded = InLists.expand(query, params);
+
+            return extract(expanded.getQuery(), resultSetExtractor, expanded.getParams());
+        }
+
+        final var recorder = record(Operation.EXTRACT, query, params.length);
+
+        return execute(recorder, query, pstmt -> {
+            applyStatementParams(pstmt, params);
+
+            try (final var rs = pstmt.executeQuery()) {
+                recorder.statementExecuted();
+                recorder.rows(-1L);
+
+                return resultSetExtractor.extract(rs);
+            }
+        });
+    }
+
+    @Override
+    public long[] selectLongs(final String query, final Object... params) {
+        // The row count isn't known in advance. The builders grow in chunks instead of copying the values on
+        // every growth, so they are copied only once, into the returned array.
+        final var values = LongStream.builder();
+        query(query, rs -> values.add(rs.getLong(1)), params);
+
+        return values.build().toArray();
+    }
+
+    @Override
+    public int[] selectInts(final String query, final Object... params) {
+        final var values = IntStream.builder();
+        query(query, rs -> values.add(rs.getInt(1)), params);
+
+        return values.build().toArray();
+    }
+
+    @Override
+    public double[] selectDoubles(final String query, final Object... params) {
+        final var values = DoubleStream.builder();
+        query(query, rs -> values.add(rs.getDouble(1)), params);
+
+        return values.build().toArray();
+    }
+
+    @Override
+    public NumericColumns selectColumns(final String query, final Object... params) {
+        return extract(query, NumericColumns::read, params);
+    }
+
+    @Override
+    public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper,
+        final Object... params) {
+        if (InLists.containsInList(params)) {
+            final var expanded = InLists.expand(query, params);
+
+            return selectSingle(expanded.getQuery(), rowMapper, expanded.getParams());
         }
+
+        final var recorder = record(Operation.SELECT_SINGLE, query, params.length);
+
+        return execute(recorder, query, pstmt -> {
+            applyStatementParams(pstmt, params);
+
+            final var result = executeSingleQuery(pstmt, rowMapper, recorder);
+            if (result == null) {
+                throw new TooManyResultsException(query, params);
+            }
+
+            return result;
+        });
+    }
+
+    @Override
+    public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Params params) {
+        final var recorder = record(Operation.SELECT_SINGLE, query, params.size());
+
+        return execute(recorder, query, pstmt -> {
+            params.applyTo(pstmt);
+
+            final var result = executeSingleQuery(pstmt, rowMapper, recorder);
+            if (result == null) {
+                throw new TooManyResultsException(query, params.toArray());
+            }
+
+            return result;
+        });
+    }
+
+    @Override
+    public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+        checkInsertStatement(statement);
+
+        executeUpdate(Operation.INSERT, statement, entity, paramSetter);
     }
 
     @Override
     public <T> void insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter) {
         checkInsertStatement(statement);
 
-        try (final var connection = dataSource.getConnection();
-            final var pstmt = connection.prepareStatement(statement)) {
+        final var recorder = recordBatch(Operation.INSERT, statement);
 
+        execute(recorder, statement, pstmt -> {
             for (final var entity : entities) {
                 paramSetter.setStatementParams(entity, pstmt);
 
                 pstmt.addBatch();
             }
 
-            pstmt.executeBatch();
-        } catch (final SQLException ex) {
-            throw new DatabaseException(ex);
-        }
+            final var counts = pstmt.executeBatch();
+            recorder.statementExecuted();
+            recorder.batched(entities.size());
+            recorder.rows(sumUpdateCounts(counts));
+
+            return counts;
+        });
     }
 
     @Override
-    public <T> void update(final String statement, final T entity, final ParamSetter<T> paramSetter) {
-        checkUpdateStatement(statement);
+    public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        checkInsertStatement(statement);
 
-        try (final var connection = dataSource.getConnection();
-            final var pstmt = connection.prepareStatement(statement)) {
+        return executeBatch(Operation.INSERT, statement, entities, paramSetter, options);
+    }
 
+    @Override
+    public <T, K> K insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper) {
+        checkInsertStatement(statement);
+
+        final var recorder = record(Operation.INSERT, statement, OperationRecorder.UNKNOWN_PARAMETER_COUNT);
+
+        return execute(recorder, statement, true, pstmt -> {
             paramSetter.setStatementParams(entity, pstmt);
 
-            pstmt.executeUpdate();
+            final var count = pstmt.executeUpdate();
+            recorder.statementExecuted();
+            recorder.rows(count);
 
-        } catch (final SQLException ex) {
-            throw new DatabaseException(ex);
+            try (final var keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw missingKeys(statement, 1, 0);
+                }
+
+                return keyMapper.prepare(keys).map(keys);
+            }
+        });
+    }
+
+    @Override
+    public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter) {
+        insert(statement, entity, paramSetter, keys -> {
+            keySetter.setKey(entity, keys);
+            return null;
+        });
+    }
+
+    @Override
+    public <T, K> List<K> insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper, final BatchOptions options) {
+        checkInsertStatement(statement);
+
+        final var keys = new ArrayList<K>(entities.size());
+        executeBatch(Operation.INSERT, statement, entities.iterator(), paramSetter, options, null,
+            (rs, offset, size) -> {
+                final var mapper = keyMapper.prepare(rs);
+                var read = 0;
+                while (rs.next()) {
+                    keys.add(mapper.map(rs));
+                    read++;
+                }
+                checkKeyCount(statement, size, read);
+            });
+
+        return keys;
+    }
+
+    @Override
+    public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter, final BatchOptions options) {
+        checkInsertStatement(statement);
+
+        final var counts = new long[entities.size()];
+        executeBatch(Operation.INSERT, statement, entities.iterator(), paramSetter, options, counts,
+            (rs, offset, size) -> {
+                var read = 0;
+                while (rs.next()) {
+                    if (read < size) {
+                        keySetter.setKey(entities.get(offset + read), rs);
+                    }
+                    read++;
+                }
+                checkKeyCount(statement, size, read);
+            });
+
+        return counts;
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Iterator<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        checkInsertStatement(statement);
+
+        return executeBatch(Operation.INSERT, statement, entities, paramSetter, options, null, null);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Stream<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        return insert(statement, entities.iterator(), paramSetter, options);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Flow.Publisher<T> entities,
+        final ParamSetter<T> paramSetter, final BatchOptions options) {
+        checkInsertStatement(statement);
+
+        // Buffering one chunk allows the publisher to produce the next chunk while the current one is flushed
+        final var subscriber = new PublisherIterator<T>(options.getChunkSize());
+        entities.subscribe(subscriber);
+
+        try {
+            return executeBatch(Operation.INSERT, statement, subscriber, paramSetter, options, null, null);
+        } catch (final RuntimeException | Error ex) {
+            subscriber.cancel();
+            throw ex;
         }
     }
 
+    @Override
+    public <T> void update(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+        checkUpdateStatement(statement);
+
+        executeUpdate(Operation.UPDATE, statement, entity, paramSetter);
+    }
+
+    @Override
+    public <T> long[] update(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        checkUpdateStatement(statement);
+
+        return executeBatch(Operation.UPDATE, statement, entities, paramSetter, options);
+    }
+
     @Override
     public <T> void delete(final String statement, final T entity, final ParamSetter<T> paramSetter) {
         checkDeleteStatement(statement);
 
-        try (final var connection = dataSource.getConnection();
-            final var pstmt = connection.prepareStatement(statement)) {
+        executeUpdate(Operation.DELETE, statement, entity, paramSetter);
+    }
 
-            paramSetter.setStatementParams(entity, pstmt);
+    @Override
+    public <T> long[] delete(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+        checkDeleteStatement(statement);
 
-            pstmt.executeUpdate();
-        } catch (final SQLException ex) {
-            throw new DatabaseException(ex);
-        }
+        return executeBatch(Operation.DELETE, statement, entities, paramSetter, options);
     }
 
     @Override
     public long count(final String query, final Object... params) {
         checkCountStatement(query);
 
-        try (final var connection = dataSource.getConnection();
-            final var pstmt = connection.prepareStatement(query)) {
+        if (InLists.containsInList(params)) {
+            final var expanded = InLists.expand(query, params);
+
+            return count(expanded.getQuery(), expanded.getParams());
+        }
+
+        final var recorder = record(Operation.COUNT, query, params.length);
 
+        return execute(recorder, query, pstmt -> {
             applyStatementParams(pstmt, params);
 
-            try (final var rs = pstmt.executeQuery()) {
-                return rs.next() ? rs.getLong(1) : 0;
+            return executeCount(pstmt, recorder);
+        });
+    }
+
+    @Override
+    public long count(final String query, final Params params) {
+        checkCountStatement(query);
+
+        final var recorder = record(Operation.COUNT, query, params.size());
+
+        return execute(recorder, query, pstmt -> {
+            params.applyTo(pstmt);
+
+            return executeCount(pstmt, recorder);
+        });
+    }
+
+    @Override
+    public <R> R inSession(final SessionCallback<R> callback) {
+        return execute(OperationRecorder.startSession(), connection -> {
+            final var session = new JCrudSessionImpl(dataSource, statementCacheSize, listener, connection);
+            try (session) {
+                return callback.doInSession(session);
             }
+        });
+    }
+
+    @Override
+    public <R> R inTransaction(final SessionCallback<R> callback) {
+        return inTransaction(TransactionOptions.defaults(), callback);
+    }
+
+    @Override
+    public <R> R inTransaction(final TransactionOptions options, final SessionCallback<R> callback) {
+        return inSession(session -> session.inTransaction(options, callback));
+    }
+
+    /**
+     * Whether the operations run inside of a transaction of a session, which decides about commit and
+     * rollback. The auto-commit flag of the connection can't tell, because pools may hand out connections
+     * with auto-commit disabled.
+     */
+    boolean isTransactionActive() {
+        return false;
+    }
+
+    /**
+     * Provides the connection for the next operation. Every connection acquired by this method is given
+     * back by {@link #releaseConnection(Connection)}.
+     */
+    Connection acquireConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Gives back a connection which was provided by {@link #acquireConnection()}.
+     */
+    void releaseConnection(final Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Provides a {@link PreparedStatement} for the SQL, which returns the generated keys if requested.
+     * Every statement prepared by this method is given back by
+     * {@link #releaseStatement(String, boolean, PreparedStatement)}.
+     */
+    PreparedStatement prepareStatement(final Connection connection, final String sql, final boolean returnKeys)
+        throws SQLException {
+        return returnKeys
+            ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+            : connection.prepareStatement(sql);
+    }
+
+    /**
+     * Gives back a statement which was provided by {@link #prepareStatement(Connection, String, boolean)}.
+     */
+    void releaseStatement(final String sql, final boolean returnKeys, final PreparedStatement pstmt)
+        throws SQLException {
+        pstmt.close();
+    }
+
+    /**
+     * Gives back a statement whose operation failed instead of
+     * {@link #releaseStatement(String, boolean, PreparedStatement)}. The statement may still hold a
+     * partially filled batch, so it is closed and never reused.
+     */
+    void discardStatement(final PreparedStatement pstmt) throws SQLException {
+        pstmt.close();
+    }
+
+    private OperationRecorder record(final Operation operation, final String sql, final int parameterCount) {
+        return OperationRecorder.start(listener, operation, sql, parameterCount);
+    }
+
+    private OperationRecorder recordBatch(final Operation operation, final String sql) {
+        return OperationRecorder.startBatch(listener, operation, sql);
+    }
+
+    private <R> R execute(final OperationRecorder recorder, final ConnectionCallback<R> action) {
+        try {
+            final var connection = acquireConnection();
+            recorder.connectionAcquired();
+
+            final R result;
+            try {
+                result = action.doInConnection(connection);
+            } finally {
+                releaseConnection(connection);
+            }
+
+            recorder.succeeded();
+            return result;
         } catch (final SQLException ex) {
+            recorder.failed(ex);
             throw new DatabaseException(ex);
+        } catch (final RuntimeException | Error ex) {
+            recorder.failed(ex);
+            throw ex;
+        }
+    }
+
+    private <R> R execute(final OperationRecorder recorder, final String sql, final StatementCallback<R> action) {
+        return execute(recorder, sql, false, action);
+    }
+
+    private <R> R execute(final OperationRecorder recorder, final String sql, final boolean returnKeys,
+        final StatementCallback<R> action) {
+        return execute(recorder, connection -> {
+            final var pstmt = prepareStatement(connection, sql, returnKeys);
+            final R result;
+            try {
+                result = action.doInStatement(pstmt);
+            } catch (final SQLException | RuntimeException | Error ex) {
+                discardOnFailure(pstmt, ex);
+                throw ex;
+            }
+            releaseStatement(sql, returnKeys, pstmt);
+
+            return result;
+        });
+    }
+
+    private <T> void executeUpdate(final Operation operation, final String statement, final T entity,
+        final ParamSetter<T> paramSetter) {
+        final var recorder = record(operation, statement, OperationRecorder.UNKNOWN_PARAMETER_COUNT);
+
+        execute(recorder, statement, pstmt -> {
+            paramSetter.setStatementParams(entity, pstmt);
+
+            final var count = pstmt.executeUpdate();
+            recorder.statementExecuted();
+            recorder.rows(count);
+
+            return count;
+        });
+    }
+
+    private <T> long[] executeBatch(final Operation operation, final String statement, final List<T> entities,
+        final ParamSetter<T> paramSetter, final BatchOptions options) {
+        final var counts = new long[entities.size()];
+
+        executeBatch(operation, statement, entities.iterator(), paramSetter, options, counts, null);
+
+        return counts;
+    }
+
+    /**
+     * Executes the statement for all entities in chunks and returns the sum of all update counts. In case
+     * an array is passed, the update count of every single entity is stored into it. In case a
+     * {@link ChunkKeysHandler} is passed, the statement returns the generated keys, which are handed to it
+     * after every chunk.
+     */
+    private <T> long executeBatch(final Operation operation, final String statement, final Iterator<T> entities,
+        final ParamSetter<T> paramSetter, final BatchOptions options, final long[] counts,
+        final ChunkKeysHandler keysHandler) {
+        final var recorder = recordBatch(operation, statement);
+        final var returnKeys = keysHandler != null;
+
+        return execute(recorder, connection -> {
+            final var pstmt = prepareStatement(connection, statement, returnKeys);
+            final long total;
+            try {
+                total = executeChunksInTransaction(connection, pstmt, entities, paramSetter, options, counts,
+                    keysHandler, recorder);
+            } catch (final SQLException | RuntimeException | Error ex) {
+                // A failed chunk may leave its rows queued, so the statement is not reused by the next batch
+                discardOnFailure(pstmt, ex);
+                throw ex;
+            }
+            releaseStatement(statement, returnKeys, pstmt);
+
+            return total;
+        });
+    }
+
+    private <T> long executeChunksInTransaction(final Connection connection, final PreparedStatement pstmt,
+        final Iterator<T> entities, final ParamSetter<T> paramSetter, final BatchOptions options,
+        final long[] counts, final ChunkKeysHandler keysHandler, final OperationRecorder recorder)
+        throws SQLException {
+        if (isTransactionActive()) {
+            // The surrounding transaction decides about commit and rollback
+            return executeChunks(pstmt, entities, paramSetter, options.getChunkSize(), null, counts, keysHandler,
+                recorder);
+        }
+
+        final var autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            final var total = executeChunks(pstmt, entities, paramSetter, options.getChunkSize(),
+                options.isCommitPerChunk() ? connection : null, counts, keysHandler, recorder);
+            connection.commit();
+
+            return total;
+        } catch (final SQLException | RuntimeException | Error ex) {
+            rollbackOnFailure(connection, ex);
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static <T> long executeChunks(final PreparedStatement pstmt, final Iterator<T> entities,
+        final ParamSetter<T> paramSetter, final int chunkSize, final Connection commitPerChunk,
+        final long[] counts, final ChunkKeysHandler keysHandler, final OperationRecorder recorder)
+        throws SQLException {
+        var total = 0L;
+        var flushed = 0;
+        var pending = 0;
+
+        // The next entity is only pulled after the current chunk was flushed
+        while (entities.hasNext()) {
+            paramSetter.setStatementParams(entities.next(), pstmt);
+            pstmt.addBatch();
+
+            if (++pending == chunkSize) {
+                total += flushChunk(pstmt, counts, flushed, commitPerChunk, keysHandler, recorder);
+                flushed += pending;
+                pending = 0;
+            }
+        }
+
+        if (pending > 0) {
+            total += flushChunk(pstmt, counts, flushed, commitPerChunk, keysHandler, recorder);
+        }
+
+        recorder.statementExecuted();
+        recorder.rows(total);
+
+        return total;
+    }
+
+    private static long flushChunk(final PreparedStatement pstmt, final long[] counts, final int offset,
+        final Connection commitPerChunk, final ChunkKeysHandler keysHandler, final OperationRecorder recorder)
+        throws SQLException {
+        final var chunkCounts = executeLargeBatch(pstmt);
+        recorder.batched(chunkCounts.length);
+        if (counts != null) {
+            System.arraycopy(chunkCounts, 0, counts, offset, chunkCounts.length);
+        }
+        if (keysHandler != null) {
+            // The keys are read before the commit, as some drivers close the key result set on commit
+            try (final var keys = pstmt.getGeneratedKeys()) {
+                keysHandler.handleKeys(keys, offset, chunkCounts.length);
+            }
+        }
+
+        if (commitPerChunk != null) {
+            commitPerChunk.commit();
+        }
+
+        return sumUpdateCounts(chunkCounts);
+    }
+
+    private static long sumUpdateCounts(final int[] counts) {
+        var total = 0L;
+        for (final var count : counts) {
+            if (count > 0) {
+                total += count;
+            }
+        }
+
+        return total;
+    }
+
+    private static long sumUpdateCounts(final long[] counts) {
+        var total = 0L;
+        for (final var count : counts) {
+            // Statement.SUCCESS_NO_INFO is negative and therefore not counted
+            if (count > 0) {
+                total += count;
+            }
+        }
+
+        return total;
+    }
+
+    private static long[] executeLargeBatch(final PreparedStatement pstmt) throws SQLException {
+        try {
+            return pstmt.executeLargeBatch();
+        } catch (final UnsupportedOperationException | SQLFeatureNotSupportedException ex) {
+            // Drivers built against older JDBC versions only support int update counts
+            return Arrays.stream(pstmt.executeBatch()).asLongStream().toArray();
+        }
+    }
+
+    private Releasable releasing(final Connection connection, final String sql, final PreparedStatement pstmt) {
+        return () -> {
+            // closes the statement first and gives back the connection afterwards
+            try {
+                if (pstmt != null) {
+                    releaseStatement(sql, false, pstmt);
+                }
+            } finally {
+                releaseConnection(connection);
+            }
+        };
+    }
+
+    private static void checkKeyCount(final String statement, final int expected, final int actual)
+        throws SQLException {
+        if (actual != expected) {
+            throw missingKeys(statement, expected, actual);
         }
     }
 
+    private static SQLException missingKeys(final String statement, final int expected, final int actual) {
+        return new SQLException(
+            String.format("Expected %d generated keys but got %d for statement '%s'", expected, actual, statement));
+    }
+
     private void checkInsertStatement(final String statement) {
         checkStatementType(statement, Keyword.INSERT);
     }
@@ -224,8 +967,10 @@ public class JCrudImpl implements JCrud {
     }
 
     private void checkStatementType(final String statement, final Keyword keyword) {
-        // As SQL keywords are english everytime, we can set the ENGLISH locale by default
-        if (!statement.toLowerCase(Locale.ENGLISH).startsWith(keyword.asStatementFragment())) {
+        // Only the beginning is compared, so the statement isn't copied. SQL keywords are plain ASCII, so the
+        // comparison doesn't depend on the locale
+        final var fragment = keyword.asStatementFragment();
+        if (!statement.regionMatches(true, 0, fragment, 0, fragment.length())) {
             throw new InvalidStatementException(keyword, statement);
         }
     }
@@ -237,16 +982,195 @@ public class JCrudImpl implements JCrud {
         }
     }
 
-    private <T> List<T> executeQuery(final PreparedStatement pstmt, final RowMapper<T> rowMapper)
-        throws SQLException {
+    private static void closeOnFailure(final SQLException cause, final Releasable resource) {
+        try {
+            resource.close();
+        } catch (final SQLException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    private void discardOnFailure(final PreparedStatement pstmt, final Throwable cause) {
+        try {
+            discardStatement(pstmt);
+        } catch (final SQLException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    static void rollbackOnFailure(final Connection connection, final Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (final SQLException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    private static <T> List<T> executeQuery(final PreparedStatement pstmt, final RowMapper<T> rowMapper,
+        final OperationRecorder recorder) throws SQLException {
         try (final var rs = pstmt.executeQuery()) {
+            recorder.statementExecuted();
 
             final var result = new ArrayList<T>();
+            final var preparedMapper = rowMapper.prepare(rs);
             while (rs.next()) {
-                result.add(rowMapper.map(rs));
+                result.add(preparedMapper.map(rs));
             }
+            recorder.rows(result.size());
 
             return result;
         }
     }
+
+    private static String pageQuery(final String query, final Keyset<?, ?> keyset, final boolean continued) {
+        final var column = keyset.getKeyColumn();
+        final var marker = query.indexOf(Keyset.CONDITION);
+
+        final String filtered;
+        if (marker >= 0) {
+            filtered = query.substring(0, marker) + (continued ? column + " > ? AND " : "")
+                + query.substring(marker + Keyset.CONDITION.length());
+        } else {
+            // The derived table leaves the conditions and parameters of the query untouched, and databases
+            // merge it into the outer query, so the key condition still seeks by the index of the key
+            filtered = "SELECT * FROM (" + query + ") jcrud_page" + (continued ? " WHERE " + column + " > ?" : "");
+        }
+
+        // The limit is part of the statement, so the database only reads the rows of the page
+        return filtered + " ORDER BY " + column + " " + keyset.getLimitSyntax().asClause();
+    }
+
+    private static int keyParamIndex(final String query, final int paramCount) {
+        final var marker = query.indexOf(Keyset.CONDITION);
+        if (marker < 0) {
+            return paramCount;
+        }
+
+        var index = 0;
+        for (final int placeholder : InLists.placeholders(query)) {
+            if (placeholder < marker) {
+                index++;
+            }
+        }
+
+        return index;
+    }
+
+    private static String partitionQuery(final String query, final ScanOptions options, final int partition,
+        final int partitions) {
+        final var column = options.getKeyColumn();
+        final var sql = new StringBuilder("SELECT * FROM (").append(query).append(") jcrud_scan");
+
+        // The outer partitions are open-ended, so keys outside of the estimated range are still read
+        if (partitions > 1) {
+            sql.append(" WHERE ");
+            if (partition > 0) {
+                sql.append(column).append(" >= ?");
+            }
+            if (partition > 0 && partition < partitions - 1) {
+                sql.append(" AND ");
+            }
+            if (partition < partitions - 1) {
+                sql.append(column).append(" < ?");
+            }
+        }
+        if (options.isOrdered()) {
+            sql.append(" ORDER BY ").append(column);
+        }
+
+        return sql.toString();
+    }
+
+    private static Object[] partitionParams(final Object[] params, final List<Object> boundaries,
+        final int partition) {
+        final var partitionParams = new ArrayList<>(Arrays.asList(params));
+        if (partition > 0) {
+            partitionParams.add(boundaries.get(partition - 1));
+        }
+        if (partition < boundaries.size()) {
+            partitionParams.add(boundaries.get(partition));
+        }
+
+        return partitionParams.toArray();
+    }
+
+    private static <T, K> Page<T, K> executePageQuery(final PreparedStatement pstmt, final RowMapper<T> rowMapper,
+        final Keyset<T, K> keyset, final OperationRecorder recorder) throws SQLException {
+        final var pageSize = keyset.getPageSize();
+        pstmt.setFetchSize(pageSize + 1);
+
+        try (final var rs = pstmt.executeQuery()) {
+            recorder.statementExecuted();
+
+            final var items = new ArrayList<T>();
+            final var preparedMapper = rowMapper.prepare(rs);
+            while (items.size() < pageSize && rs.next()) {
+                items.add(preparedMapper.map(rs));
+            }
+            final var hasNext = items.size() == pageSize && rs.next();
+            recorder.rows(hasNext ? pageSize + 1L : items.size());
+
+            final var lastKey = items.isEmpty() ? null : keyset.keyOf(items.get(items.size() - 1));
+            return new Page<>(items, lastKey, hasNext);
+        }
+    }
+
+    /**
+     * Reads the single row of the query. Instead of throwing the {@link TooManyResultsException} itself, this
+     * method returns {@code null} for more than one row, so callers don't have to allocate a supplier for
+     * the parameters of the exception on every call.
+     */
+    private static <T> Optional<T> executeSingleQuery(final PreparedStatement pstmt, final RowMapper<T> rowMapper,
+        final OperationRecorder recorder) throws SQLException {
+        // A second row is enough to detect an ambiguous result, so the driver never has to fetch more
+        pstmt.setMaxRows(2);
+        pstmt.setFetchSize(2);
+
+        try (final var rs = pstmt.executeQuery()) {
+            recorder.statementExecuted();
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+
+            final var result = rowMapper.prepare(rs).map(rs);
+            if (rs.next()) {
+                recorder.rows(2L);
+                return null;
+            }
+            recorder.rows(1L);
+
+            return Optional.of(result);
+        }
+    }
+
+    private static long executeCount(final PreparedStatement pstmt, final OperationRecorder recorder)
+        throws SQLException {
+        try (final var rs = pstmt.executeQuery()) {
+            recorder.statementExecuted();
+            if (!rs.next()) {
+                return 0L;
+            }
+
+            recorder.rows(1L);
+            return rs.getLong(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<R> {
+
+        R doInConnection(final Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ChunkKeysHandler {
+
+        void handleKeys(final ResultSet keys, final int offset, final int size) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface StatementCallback<R> {
+
+        R doInStatement(final PreparedStatement pstmt) throws SQLException;
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+/**
+ * View of {@link JCrud} whose operations are all executed on the same connection. A session is only
+ * valid inside the {@link de.erdlet.jcrud.transaction.SessionCallback} it was passed to and must not
+ * be shared between threads.
+ *
+ * @author Tobias Erdle
+ */
+public interface JCrudSession extends JCrud {
+
+    /**
+     * Commit the current transaction of the session. Afterwards, all following operations run in a new
+     * transaction. This method may only be called inside of
+     * {@link JCrud#inTransaction(de.erdlet.jcrud.transaction.SessionCallback)}.
+     *
+     * @throws de.erdlet.jcrud.exception.DatabaseException in case the driver fails to commit
+     */
+    void commit();
+
+    /**
+     * Roll back the current transaction of the session. Afterwards, all following operations run in a
+     * new transaction. This method may only be called inside of
+     * {@link JCrud#inTransaction(de.erdlet.jcrud.transaction.SessionCallback)}.
+     *
+     * @throws de.erdlet.jcrud.exception.DatabaseException in case the driver fails to roll back
+     */
+    void rollback();
+
+    /**
+     * Returns the counters of the {@link java.sql.PreparedStatement} cache of this session. Statements
+     * are cached per session, as they belong to the session's connection.
+     *
+     * @return a snapshot of the cache counters
+     */
+    StatementCacheStatistics getStatementCacheStatistics();
+}
@@ -0,0 +1,199 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.exception.DatabaseException;
+import de.erdlet.jcrud.monitoring.ExecutionListener;
+import de.erdlet.jcrud.results.RowMapper;
+import de.erdlet.jcrud.scan.ScanOptions;
+import de.erdlet.jcrud.transaction.SessionCallback;
+import de.erdlet.jcrud.transaction.TransactionOptions;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+/**
+ * {@link JCrudSession} which executes all operations on the connection it was created with. The
+ * connection is owned by the {@link JCrudImpl} which opened the session, so it is never closed here.
+ * Prepared statements are kept in a {@link StatementCache} until the session is closed.
+ *
+ * @author Tobias Erdle
+ */
+final class JCrudSessionImpl extends JCrudImpl implements JCrudSession, Releasable {
+
+    private final Connection connection;
+    private final StatementCache statementCache;
+    private boolean transactionActive;
+    private boolean closed;
+
+    JCrudSessionImpl(final DataSource dataSource, final int statementCacheSize, final ExecutionListener listener,
+        final Connection connection) {
+        super(dataSource, statementCacheSize, listener);
+        this.connection = connection;
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(connection, statementCacheSize) : null;
+    }
+
+    @Override
+    public void commit() {
+        try {
+            connection.commit();
+        } catch (final SQLException ex) {
+            throw new DatabaseException(ex);
+        }
+    }
+
+    @Override
+    public void rollback() {
+        try {
+            connection.rollback();
+        } catch (final SQLException ex) {
+            throw new DatabaseException(ex);
+        }
+    }
+
+    @Override
+    public StatementCacheStatistics getStatementCacheStatistics() {
+        return statementCache != null ? statementCache.statistics() : new StatementCacheStatistics(0, 0, 0, 0);
+    }
+
+    @Override
+    public <T> Stream<T> scan(final String query, final RowMapper<T> rowMapper, final ScanOptions options,
+        final Object... params) {
+        // The connection must not be shared between threads, so the caller reads the partitions one after another
+        return scanPartitions(query, rowMapper, options, params).stream().flatMap(Supplier::get);
+    }
+
+    @Override
+    public <R> R inSession(final SessionCallback<R> callback) {
+        return callback.doInSession(this);
+    }
+
+    @Override
+    public <R> R inTransaction(final TransactionOptions options, final SessionCallback<R> callback) {
+        try {
+            if (transactionActive) {
+                // A transaction is already running in this session, so the callback simply joins it
+                return callback.doInSession(this);
+            }
+
+            // Pools may hand out connections with auto-commit disabled, so the state is restored as it was
+            final var previousAutoCommit = connection.getAutoCommit();
+            final var previousReadOnly = connection.isReadOnly();
+            final var previousIsolation = connection.getTransactionIsolation();
+
+            begin(options);
+            try {
+                final var result = callback.doInSession(this);
+                connection.commit();
+
+                return result;
+            } catch (final SQLException | RuntimeException | Error ex) {
+                rollbackOnFailure(connection, ex);
+                throw ex;
+            } finally {
+                restore(previousAutoCommit, previousReadOnly, previousIsolation);
+            }
+        } catch (final SQLException ex) {
+            throw new DatabaseException(ex);
+        }
+    }
+
+    @Override
+    boolean isTransactionActive() {
+        return transactionActive;
+    }
+
+    @Override
+    Connection acquireConnection() {
+        if (closed) {
+            throw new IllegalStateException("The session must not be used after its callback has finished");
+        }
+
+        return connection;
+    }
+
+    @Override
+    void releaseConnection(final Connection connection) {
+        // The connection stays open until the session is closed
+    }
+
+    @Override
+    PreparedStatement prepareStatement(final Connection connection, final String sql, final boolean returnKeys)
+        throws SQLException {
+        return statementCache != null
+            ? statementCache.acquire(sql, returnKeys)
+            : super.prepareStatement(connection, sql, returnKeys);
+    }
+
+    @Override
+    void releaseStatement(final String sql, final boolean returnKeys, final PreparedStatement pstmt)
+        throws SQLException {
+        if (statementCache != null && !closed) {
+            statementCache.release(sql, returnKeys, pstmt);
+        } else {
+            super.releaseStatement(sql, returnKeys, pstmt);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+
+        if (statementCache != null) {
+            statementCache.close();
+        }
+    }
+
+    private void begin(final TransactionOptions options) throws SQLException {
+        // Some drivers reject these settings while a transaction is running, so they are set beforehand
+        if (options.isReadOnly()) {
+            connection.setReadOnly(true);
+        }
+        if (options.getIsolationLevel().isPresent()) {
+            connection.setTransactionIsolation(options.getIsolationLevel().get().asJdbcLevel());
+        }
+
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+        }
+        transactionActive = true;
+    }
+
+    private void restore(final boolean autoCommit, final boolean readOnly, final int isolation)
+        throws SQLException {
+        transactionActive = false;
+
+        if (connection.getAutoCommit() != autoCommit) {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        if (connection.isReadOnly() != readOnly) {
+            connection.setReadOnly(readOnly);
+        }
+        if (connection.getTransactionIsolation() != isolation) {
+            connection.setTransactionIsolation(isolation);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.monitoring.Execution;
+import de.erdlet.jcrud.monitoring.ExecutionListener;
+import de.erdlet.jcrud.monitoring.Operation;
+
+/**
+ * Measures the phases of a single operation and reports them to the {@link ExecutionListener} and the
+ * JDK Flight Recorder when the operation has finished. Without a listener and without enabled flight
+ * recorder events, the shared {@link #DISABLED} instance is used, which neither reads the clock nor
+ * allocates anything.
+ *
+ * @author Tobias Erdle
+ */
+final class OperationRecorder {
+
+    /**
+     * Parameter count of statements whose parameters are bound by a {@link de.erdlet.jcrud.parameter.ParamSetter}.
+     */
+    static final int UNKNOWN_PARAMETER_COUNT = -1;
+
+    static final OperationRecorder DISABLED = new OperationRecorder(null, null, null, null, 0L);
+
+    // The flight recorder is optional, e.g. it is missing in runtime images built without jdk.jfr
+    private static final boolean FLIGHT_RECORDER_AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private final ExecutionListener listener;
+    private final FlightRecording flightRecording;
+    private final Operation operation;
+    private final String sql;
+    private final long startedAt;
+
+    private long acquiredAt;
+    private long executedAt;
+    private long rowCount;
+    private long batchSize;
+    private boolean finished;
+
+    private OperationRecorder(final ExecutionListener listener, final FlightRecording flightRecording,
+        final Operation operation, final String sql, final long startedAt) {
+        this.listener = listener;
+        this.flightRecording = flightRecording;
+        this.operation = operation;
+        this.sql = sql;
+        this.startedAt = startedAt;
+    }
+
+    static OperationRecorder start(final ExecutionListener listener, final Operation operation, final String sql,
+        final int parameterCount) {
+        final var flightRecording = FLIGHT_RECORDER_AVAILABLE
+            ? FlightRecording.startQuery(operation, sql, parameterCount) : null;
+
+        return start(listener, flightRecording, operation, sql);
+    }
+
+    static OperationRecorder startBatch(final ExecutionListener listener, final Operation operation,
+        final String sql) {
+        final var flightRecording = FLIGHT_RECORDER_AVAILABLE ? FlightRecording.startBatch(operation, sql) : null;
+
+        return start(listener, flightRecording, operation, sql);
+    }
+
+    /**
+     * Starts the recording of a session, which only reports the acquisition of its connection.
+     */
+    static OperationRecorder startSession() {
+        final var flightRecording = FLIGHT_RECORDER_AVAILABLE ? FlightRecording.startSession() : null;
+
+        return start(null, flightRecording, null, null);
+    }
+
+    private static OperationRecorder start(final ExecutionListener listener, final FlightRecording flightRecording,
+        final Operation operation, final String sql) {
+        if (listener == null && flightRecording == null) {
+            return DISABLED;
+        }
+
+        return new OperationRecorder(listener, flightRecording, operation, sql, System.nanoTime());
+    }
+
+    void connectionAcquired() {
+        if (isEnabled()) {
+            acquiredAt = System.nanoTime();
+
+            if (flightRecording != null) {
+                flightRecording.connectionAcquired();
+            }
+        }
+    }
+
+    void statementExecuted() {
+        if (isEnabled()) {
+            executedAt = System.nanoTime();
+        }
+    }
+
+    void rows(final long rowCount) {
+        if (isEnabled()) {
+            this.rowCount = rowCount;
+        }
+    }
+
+    void batched(final long entities) {
+        if (isEnabled()) {
+            this.batchSize += entities;
+        }
+    }
+
+    void succeeded() {
+        finish(null);
+    }
+
+    void failed(final Throwable failure) {
+        finish(failure);
+    }
+
+    private boolean isEnabled() {
+        return this != DISABLED;
+    }
+
+    private void finish(final Throwable failure) {
+        if (!isEnabled() || finished || operation == null) {
+            return;
+        }
+
+        finished = true;
+
+        // Phases which weren't reached take no time, the remaining time belongs to the last reached phase
+        final var finishedAt = System.nanoTime();
+        final var acquired = acquiredAt != 0L ? acquiredAt : finishedAt;
+        final var executed = executedAt != 0L ? executedAt : finishedAt;
+
+        final var execution = new Execution(operation, sql, acquired - startedAt, executed - acquired,
+            finishedAt - executed, rowCount, batchSize, failure);
+
+        if (flightRecording != null) {
+            flightRecording.finished(execution);
+        }
+        if (listener != null) {
+            listener.executed(execution);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.paging.Keyset;
+import de.erdlet.jcrud.paging.Page;
+import de.erdlet.jcrud.results.RowMapper;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link Iterator} which queries the next {@link Page} of a {@link Keyset} only when it is requested. Each
+ * page is selected by its own operation, so no connection is held while the caller processes a page.
+ *
+ * @param <T> the type of the mapped rows
+ * @param <K> the type of the key
+ * @author Tobias Erdle
+ */
+final class PageIterator<T, K> implements Iterator<Page<T, K>> {
+
+    private final JCrud jcrud;
+    private final String query;
+    private final RowMapper<T> rowMapper;
+    private final Keyset<T, K> keyset;
+    private final Object[] params;
+
+    private Page<T, K> nextPage;
+    private K lastKey;
+    private boolean exhausted;
+
+    PageIterator(final JCrud jcrud, final String query, final RowMapper<T> rowMapper, final Keyset<T, K> keyset,
+        final Object[] params) {
+        this.jcrud = jcrud;
+        this.query = query;
+        this.rowMapper = rowMapper;
+        this.keyset = keyset;
+        this.params = params;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextPage == null && !exhausted) {
+            final var page = jcrud.selectPage(query, rowMapper, keyset, lastKey, params);
+
+            // Pages are only empty for an empty result or when the remaining rows were deleted meanwhile
+            if (page.getItems().isEmpty()) {
+                exhausted = true;
+            } else if (page.hasNext() && page.getLastKey().isEmpty()) {
+                throw new IllegalStateException(String.format(
+                    "The key column %s of the last entity of a page is NULL, so the next page can't continue "
+                        + "after it", keyset.getKeyColumn()));
+            } else {
+                nextPage = page;
+                lastKey = page.getLastKey().orElse(null);
+                exhausted = !page.hasNext();
+            }
+        }
+
+        return nextPage != null;
+    }
+
+    @Override
+    public Page<T, K> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final var page = nextPage;
+        nextPage = null;
+
+        return page;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link Flow.Subscriber} which provides the received items as a blocking {@link Iterator}. The
+ * subscriber never requests more items than fit into its buffer, so the publisher can't run ahead of
+ * the consumer.
+ *
+ * @param <T> the type of the published items
+ * @author Tobias Erdle
+ */
+final class PublisherIterator<T> implements Flow.Subscriber<T>, Iterator<T> {
+
+    private static final Object COMPLETE = new Object();
+
+    private final BlockingQueue<Object> signals;
+    private final int bufferSize;
+    private final int requestThreshold;
+
+    private volatile Flow.Subscription subscription;
+    private Object next;
+    private int consumed;
+
+    PublisherIterator(final int bufferSize) {
+        this.bufferSize = bufferSize;
+        this.requestThreshold = Math.max(1, bufferSize / 2);
+        // One additional slot for the terminal signal
+        this.signals = new ArrayBlockingQueue<>(bufferSize + 1);
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(bufferSize);
+    }
+
+    @Override
+    public void onNext(final T item) {
+        signals.add(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        signals.add(new Failure(throwable));
+    }
+
+    @Override
+    public void onComplete() {
+        signals.add(COMPLETE);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = signals.take();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CompletionException(ex);
+            }
+        }
+
+        if (next instanceof Failure) {
+            throw new CompletionException(((Failure) next).cause);
+        }
+
+        return next != COMPLETE;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final var item = (T) next;
+        next = null;
+
+        if (++consumed == requestThreshold) {
+            consumed = 0;
+            subscription.request(requestThreshold);
+        }
+
+        return item;
+    }
+
+    void cancel() {
+        final var current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private static final class Failure {
+
+        private final Throwable cause;
+
+        private Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
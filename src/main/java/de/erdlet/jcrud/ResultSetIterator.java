@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import de.erdlet.jcrud.exception.DatabaseException;
+import de.erdlet.jcrud.results.ResultIterator;
+import de.erdlet.jcrud.results.RowMapper;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link ResultIterator} which reads and maps one row of the {@link ResultSet} per call of {@link
+ * #next()}. When the last row was read, the {@link ResultSet} and all resources belonging to it are
+ * released automatically.
+ *
+ * @param <T> the type of the mapped rows
+ * @author Tobias Erdle
+ */
+final class ResultSetIterator<T> implements ResultIterator<T> {
+
+    private final ResultSet rs;
+    private final RowMapper<T> rowMapper;
+    private final Releasable release;
+    private final OperationRecorder recorder;
+
+    private RowMapper<T> preparedMapper;
+    private long rowCount;
+    private boolean rowAvailable;
+    private boolean closed;
+
+    ResultSetIterator(final ResultSet rs, final RowMapper<T> rowMapper, final Releasable release,
+        final OperationRecorder recorder) {
+        this.rs = rs;
+        this.rowMapper = rowMapper;
+        this.release = release;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+
+        if (!rowAvailable) {
+            try {
+                rowAvailable = rs.next();
+            } catch (final SQLException ex) {
+                throw closeOnFailure(ex);
+            }
+
+            if (!rowAvailable) {
+                close();
+            }
+        }
+
+        return rowAvailable;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        rowAvailable = false;
+        rowCount++;
+
+        try {
+            if (preparedMapper == null) {
+                preparedMapper = rowMapper.prepare(rs);
+            }
+
+            return preparedMapper.map(rs);
+        } catch (final SQLException ex) {
+            throw closeOnFailure(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        recorder.rows(rowCount);
+
+        try {
+            try (release; rs) {
+                // closes the ResultSet first and releases the remaining resources afterwards
+            }
+            recorder.succeeded();
+        } catch (final SQLException ex) {
+            recorder.failed(ex);
+            throw new DatabaseException(ex);
+        }
+    }
+
+    private DatabaseException closeOnFailure(final SQLException cause) {
+        recorder.failed(cause);
+
+        try {
+            close();
+        } catch (final DatabaseException ex) {
+            cause.addSuppressed(ex.getCause());
+        }
+
+        return new DatabaseException(cause);
+    }
+}
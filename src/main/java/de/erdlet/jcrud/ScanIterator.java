@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import java.lang.ref.Cleaner;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link Iterator} over the rows of all partitions of a scan. Every partition is read by its own task of
+ * the {@link Executor}, which hands the rows over through a bounded queue, so no partition can run far
+ * ahead of the consumer. Ordered scans give every partition its own queue and drain them one after
+ * another, unordered scans share one queue between all partitions.
+ * <p>
+ * The tasks only reference the {@link Partitions}, not the iterator. An iterator which is neither fully
+ * read nor closed therefore becomes unreachable and stops its partitions once it is garbage collected,
+ * so an abandoned scan doesn't hold its threads and connections forever.
+ *
+ * @param <T> the type of the scanned entities
+ * @author Tobias Erdle
+ */
+final class ScanIterator<T> implements Iterator<T> {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Partitions<T> partitions;
+    private final Cleaner.Cleanable cleanable;
+
+    private boolean started;
+    private int current;
+    private Object next;
+
+    ScanIterator(final List<Supplier<Stream<T>>> partitions, final Executor executor, final boolean ordered) {
+        this.partitions = new Partitions<>(partitions, executor, ordered);
+        this.cleanable = CLEANER.register(this, this.partitions::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            partitions.start();
+        }
+
+        // Unordered scans take from the shared queue until every partition has put its end into it
+        while (next == null && current < partitions.queues.length) {
+            final var signal = partitions.take(current);
+            if (signal == Partitions.END) {
+                current++;
+            } else {
+                next = signal;
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final var item = next == Partitions.NULL ? null : (T) next;
+        next = null;
+
+        return item;
+    }
+
+    /**
+     * Stops all partitions. The tasks notice it at their next row and release their connections on their
+     * own, so this method doesn't wait for them.
+     */
+    void close() {
+        cleanable.clean();
+    }
+
+    /**
+     * The state shared between the consumer and the tasks reading the partitions.
+     */
+    private static final class Partitions<T> {
+
+        private static final int BUFFER_SIZE = 1024;
+        private static final long POLL_MILLIS = 10L;
+
+        private static final Object END = new Object();
+        private static final Object NULL = new Object();
+
+        private final List<Supplier<Stream<T>>> partitions;
+        private final Executor executor;
+        private final BlockingQueue<?>[] queues;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private volatile boolean closed;
+
+        Partitions(final List<Supplier<Stream<T>>> partitions, final Executor executor, final boolean ordered) {
+            this.partitions = partitions;
+            this.executor = executor;
+            this.queues = new BlockingQueue<?>[partitions.size()];
+
+            final var shared = new ArrayBlockingQueue<>(BUFFER_SIZE);
+            for (var i = 0; i < queues.length; i++) {
+                queues[i] = ordered ? new ArrayBlockingQueue<>(BUFFER_SIZE) : shared;
+            }
+        }
+
+        void start() {
+            for (var i = 0; i < queues.length; i++) {
+                final var partition = i;
+                try {
+                    executor.execute(() -> read(partition));
+                } catch (final RuntimeException ex) {
+                    close();
+                    throw ex;
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        Object take(final int partition) {
+            final var queue = queues[partition];
+            try {
+                Object signal = null;
+                while (signal == null) {
+                    rethrowFailure();
+                    signal = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                return signal;
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new CompletionException(ex);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void read(final int partition) {
+            final var queue = (BlockingQueue<Object>) queues[partition];
+            try {
+                if (closed) {
+                    return;
+                }
+                try (final var rows = partitions.get(partition).get()) {
+                    final var iterator = rows.iterator();
+                    while (!closed && iterator.hasNext()) {
+                        final var row = iterator.next();
+                        put(queue, row == null ? NULL : row);
+                    }
+                }
+                put(queue, END);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            } catch (final RuntimeException | Error ex) {
+                fail(ex);
+            }
+        }
+
+        private void put(final BlockingQueue<Object> queue, final Object signal) throws InterruptedException {
+            // A full queue is only waited for as long as the consumer hasn't given up on the scan
+            while (!closed) {
+                if (queue.offer(signal, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        }
+
+        private void fail(final Throwable cause) {
+            failure.compareAndSet(null, cause);
+            close();
+        }
+
+        private void rethrowFailure() {
+            final var cause = failure.get();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause != null) {
+                throw new CompletionException(cause);
+            }
+        }
+    }
+}
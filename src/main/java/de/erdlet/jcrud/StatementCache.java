@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache for the {@link PreparedStatement}s of a single connection. A statement is removed
+ * from the cache while it is in use, so nested operations with the same SQL never share an open
+ * statement. When the cache is full, the least recently used statement is closed. Before a statement is
+ * put back, its queued batch rows and parameters as well as the fetch size and row limit set by an
+ * operation are reset.
+ * Statements which return generated keys are cached separately from the plain ones with the same SQL.
+ * <p>
+ * This class is not thread-safe, as a connection must not be shared between threads anyway.
+ *
+ * @author Tobias Erdle
+ */
+final class StatementCache {
+
+    private final Connection connection;
+    // Plain statements are keyed by their SQL, those returning generated keys by a KeysReturning
+    private final Map<Object, PreparedStatement> statements;
+
+    private boolean defaultsResolved;
+    private int defaultFetchSize;
+    private int defaultMaxRows;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private SQLException evictionFailure;
+
+    StatementCache(final Connection connection, final int maxSize) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Object, PreparedStatement> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Takes the cached statement for the SQL out of the cache or prepares a new one.
+     */
+    PreparedStatement acquire(final String sql, final boolean returnKeys) throws SQLException {
+        final var cached = statements.remove(key(sql, returnKeys));
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+
+        misses++;
+        final var pstmt = returnKeys
+            ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+            : connection.prepareStatement(sql);
+        if (!defaultsResolved) {
+            defaultFetchSize = pstmt.getFetchSize();
+            defaultMaxRows = pstmt.getMaxRows();
+            defaultsResolved = true;
+        }
+
+        return pstmt;
+    }
+
+    /**
+     * Puts a statement returned by {@link #acquire(String, boolean)} back into the cache after resetting it.
+     */
+    void release(final String sql, final boolean returnKeys, final PreparedStatement pstmt) throws SQLException {
+        // A failed batch may have left rows behind, which would be executed again by the next batch
+        pstmt.clearBatch();
+        pstmt.clearParameters();
+        // Some drivers reject fetch sizes above the row limit, so the limit is reset first
+        if (pstmt.getMaxRows() != defaultMaxRows) {
+            pstmt.setMaxRows(defaultMaxRows);
+        }
+        if (pstmt.getFetchSize() != defaultFetchSize) {
+            pstmt.setFetchSize(defaultFetchSize);
+        }
+
+        final var replaced = statements.put(key(sql, returnKeys), pstmt);
+        if (replaced != null && replaced != pstmt) {
+            evict(replaced);
+        }
+
+        if (evictionFailure != null) {
+            final var failure = evictionFailure;
+            evictionFailure = null;
+            throw failure;
+        }
+    }
+
+    /**
+     * Closes all cached statements.
+     */
+    void close() throws SQLException {
+        SQLException failure = null;
+        for (final var pstmt : statements.values()) {
+            try {
+                pstmt.close();
+            } catch (final SQLException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        statements.clear();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    StatementCacheStatistics statistics() {
+        return new StatementCacheStatistics(hits, misses, evictions, statements.size());
+    }
+
+    private static Object key(final String sql, final boolean returnKeys) {
+        return returnKeys ? new KeysReturning(sql) : sql;
+    }
+
+    private void evict(final PreparedStatement pstmt) {
+        evictions++;
+
+        try {
+            pstmt.close();
+        } catch (final SQLException ex) {
+            // removeEldestEntry can't throw checked exceptions, so the failure is reported on release
+            evictionFailure = ex;
+        }
+    }
+
+    private static final class KeysReturning {
+
+        private final String sql;
+
+        KeysReturning(final String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof KeysReturning && sql.equals(((KeysReturning) other).sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return sql.hashCode();
+        }
+    }
+}
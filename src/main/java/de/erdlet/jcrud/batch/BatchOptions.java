@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.batch;
+
+/**
+ * Immutable settings for batch writes. The entities are sent to the database in chunks of the given
+ * size, so the driver only has to buffer one chunk at a time.
+ * <p>
+ * By default, all chunks are written in one transaction, which is rolled back completely on failure.
+ * With {@link #commitPerChunk()}, every chunk is committed on its own. In this case, chunks which were
+ * committed before a failure stay in the database. When the batch is executed inside of a running
+ * transaction, it always joins this transaction and never commits on its own.
+ *
+ * @author Tobias Erdle
+ */
+public final class BatchOptions {
+
+  /**
+   * The default number of entities which are sent to the database per chunk.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+  private static final BatchOptions DEFAULTS = new BatchOptions(DEFAULT_CHUNK_SIZE, false);
+
+  private final int chunkSize;
+  private final boolean commitPerChunk;
+
+  private BatchOptions(final int chunkSize, final boolean commitPerChunk) {
+    this.chunkSize = chunkSize;
+    this.commitPerChunk = commitPerChunk;
+  }
+
+  /**
+   * Options which write chunks of {@link #DEFAULT_CHUNK_SIZE} entities in a single transaction.
+   *
+   * @return the default options
+   */
+  public static BatchOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Creates a copy of these options with the given chunk size.
+   *
+   * @param chunkSize the number of entities per chunk, which has to be positive
+   * @return the new options
+   */
+  public BatchOptions withChunkSize(final int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("The chunk size must be positive but was " + chunkSize);
+    }
+
+    return new BatchOptions(chunkSize, commitPerChunk);
+  }
+
+  /**
+   * Creates a copy of these options, which commits every chunk on its own.
+   *
+   * @return the new options
+   */
+  public BatchOptions commitPerChunk() {
+    return new BatchOptions(chunkSize, true);
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public boolean isCommitPerChunk() {
+    return commitPerChunk;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.batch;
+
+import java.time.Duration;
+
+/**
+ * Immutable settings for a {@link WriteBehindWriter}. Queued writes are flushed when the flush interval
+ * has passed or when the maximum batch size is queued, whatever comes first. The capacity bounds the
+ * number of queued writes; once it is reached, callers have to wait until the next flush.
+ *
+ * @author Tobias Erdle
+ */
+public final class WriteBehindOptions {
+
+  /**
+   * The default maximum time a write stays in the queue.
+   */
+  public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(50L);
+
+  /**
+   * The default number of queued writes which triggers a flush.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = BatchOptions.DEFAULT_CHUNK_SIZE;
+
+  /**
+   * The default maximum number of queued writes.
+   */
+  public static final int DEFAULT_CAPACITY = 10_000;
+
+  private static final WriteBehindOptions DEFAULTS =
+      new WriteBehindOptions(DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_BATCH_SIZE, DEFAULT_CAPACITY);
+
+  private final Duration flushInterval;
+  private final int maxBatchSize;
+  private final int capacity;
+
+  private WriteBehindOptions(final Duration flushInterval, final int maxBatchSize, final int capacity) {
+    this.flushInterval = flushInterval;
+    this.maxBatchSize = maxBatchSize;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Options which flush every {@link #DEFAULT_FLUSH_INTERVAL} or {@link #DEFAULT_MAX_BATCH_SIZE} writes
+   * and queue at most {@link #DEFAULT_CAPACITY} writes.
+   *
+   * @return the default options
+   */
+  public static WriteBehindOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Creates a copy of these options with the given flush interval.
+   *
+   * @param flushInterval the maximum time a write stays in the queue, which has to be positive
+   * @return the new options
+   */
+  public WriteBehindOptions withFlushInterval(final Duration flushInterval) {
+    if (flushInterval.isNegative() || flushInterval.isZero()) {
+      throw new IllegalArgumentException("The flush interval must be positive but was " + flushInterval);
+    }
+
+    return new WriteBehindOptions(flushInterval, maxBatchSize, capacity);
+  }
+
+  /**
+   * Creates a copy of these options with the given maximum batch size.
+   *
+   * @param maxBatchSize the number of queued writes which triggers a flush, which has to be positive
+   * @return the new options
+   */
+  public WriteBehindOptions withMaxBatchSize(final int maxBatchSize) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("The maximum batch size must be positive but was " + maxBatchSize);
+    }
+
+    return new WriteBehindOptions(flushInterval, maxBatchSize, capacity);
+  }
+
+  /**
+   * Creates a copy of these options with the given capacity.
+   *
+   * @param capacity the maximum number of queued writes, which has to be positive
+   * @return the new options
+   */
+  public WriteBehindOptions withCapacity(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity must be positive but was " + capacity);
+    }
+
+    return new WriteBehindOptions(flushInterval, maxBatchSize, capacity);
+  }
+
+  public Duration getFlushInterval() {
+    return flushInterval;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.batch;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.exception.InvalidStatementException;
+import de.erdlet.jcrud.exception.InvalidStatementException.Keyword;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous writer, which collects single inserts of many threads and writes them as batches. Callers
+ * only put their write into a lock-free queue and receive a future, which completes once the write is
+ * committed. A background thread flushes the queue every {@link WriteBehindOptions#getFlushInterval()}
+ * or as soon as {@link WriteBehindOptions#getMaxBatchSize()} writes are queued. All writes of one flush
+ * are grouped by statement and written as batches in a single transaction, so a failing write fails all
+ * writes of its flush. The futures are completed by the flushing thread, so actions depending on them
+ * should run asynchronously to not delay the next flush.
+ * <p>
+ * The queue holds at most {@link WriteBehindOptions#getCapacity()} writes. When it is full,
+ * {@link #insert(String, Object, ParamSetter)} waits for the next flush, while
+ * {@link #offer(String, Object, ParamSetter)} rejects the write. {@link #close()} writes all queued writes
+ * before it returns.
+ *
+ * @author Tobias Erdle
+ */
+public final class WriteBehindWriter implements AutoCloseable {
+
+  private static final ParamSetter<Write<?>> WRITE_PARAMS = Write::setStatementParams;
+
+  private final JCrud jcrud;
+  private final long flushIntervalNanos;
+  private final int flushThreshold;
+  private final BatchOptions batchOptions;
+
+  private final ConcurrentLinkedQueue<Write<?>> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final Semaphore capacity;
+  // Serializes the flushes, so writes of one statement reach the database in the order they were queued
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final Thread flusher;
+
+  private volatile boolean closed;
+
+  /**
+   * Create a writer and start its background thread.
+   *
+   * @param jcrud the {@link JCrud} executing the batches
+   * @param options the {@link WriteBehindOptions} defining when the queue is flushed
+   */
+  @SuppressFBWarnings(value = "SC_START_IN_CTOR", justification = "The class is final, so it is fully constructed")
+  public WriteBehindWriter(final JCrud jcrud, final WriteBehindOptions options) {
+    this.jcrud = jcrud;
+    this.flushIntervalNanos = options.getFlushInterval().toNanos();
+    this.flushThreshold = Math.min(options.getMaxBatchSize(), options.getCapacity());
+    this.batchOptions = BatchOptions.defaults().withChunkSize(options.getMaxBatchSize());
+    this.capacity = new Semaphore(options.getCapacity());
+
+    this.flusher = new Thread(this::flushPeriodically, "jcrud-write-behind");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  /**
+   * Queue an insert of the entity. In case the queue is full, the caller waits until a flush frees
+   * capacity.
+   *
+   * @param statement the statement to execute for insertion
+   * @param entity the entity to be inserted
+   * @param paramSetter the {@link ParamSetter} which sets the entity attributes into the
+   *     {@link PreparedStatement}
+   * @param <T> the type of the entity to be saved
+   * @return a future which completes once the insert is committed or completes exceptionally when the
+   *     flush failed or the caller was interrupted while waiting
+   * @throws InvalidStatementException in case the statement is no INSERT statement
+   * @throws IllegalStateException in case the writer is closed
+   */
+  public <T> CompletableFuture<Void> insert(final String statement, final T entity,
+      final ParamSetter<T> paramSetter) {
+    checkInsertStatement(statement);
+    checkOpen();
+
+    try {
+      capacity.acquire();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(ex);
+    }
+
+    return enqueue(new Write<>(statement, entity, paramSetter));
+  }
+
+  /**
+   * Queue an insert of the entity in case the queue has capacity left.
+   *
+   * @param statement the statement to execute for insertion
+   * @param entity the entity to be inserted
+   * @param paramSetter the {@link ParamSetter} which sets the entity attributes into the
+   *     {@link PreparedStatement}
+   * @param <T> the type of the entity to be saved
+   * @return a future which completes once the insert is committed or an empty {@link Optional} in case
+   *     the queue is full
+   * @throws InvalidStatementException in case the statement is no INSERT statement
+   * @throws IllegalStateException in case the writer is closed
+   */
+  public <T> Optional<CompletableFuture<Void>> offer(final String statement, final T entity,
+      final ParamSetter<T> paramSetter) {
+    checkInsertStatement(statement);
+    checkOpen();
+
+    if (!capacity.tryAcquire()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(enqueue(new Write<>(statement, entity, paramSetter)));
+  }
+
+  /**
+   * Write all queued writes on the calling thread. Failures are reported by the futures of the writes.
+   */
+  public void flush() {
+    flushLock.lock();
+    try {
+      final var drained = drain();
+      if (!drained.isEmpty()) {
+        write(drained);
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Stop accepting writes, write all queued writes and stop the background thread.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(flusher);
+
+    try {
+      flusher.join();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    flush();
+  }
+
+  private CompletableFuture<Void> enqueue(final Write<?> write) {
+    queue.add(write);
+    if (queued.incrementAndGet() == flushThreshold) {
+      LockSupport.unpark(flusher);
+    }
+
+    // A writer closing concurrently may have drained the queue for the last time before this write was added
+    if (closed) {
+      flush();
+    }
+
+    return write.written;
+  }
+
+  private void flushPeriodically() {
+    while (!closed) {
+      LockSupport.parkNanos(this, flushIntervalNanos);
+      flush();
+    }
+  }
+
+  private List<Write<?>> drain() {
+    final var drained = new ArrayList<Write<?>>();
+    Write<?> write;
+    while ((write = queue.poll()) != null) {
+      drained.add(write);
+    }
+
+    queued.addAndGet(-drained.size());
+    return drained;
+  }
+
+  private void write(final List<Write<?>> writes) {
+    final Map<String, List<Write<?>>> byStatement = new LinkedHashMap<>();
+    for (final var write : writes) {
+      byStatement.computeIfAbsent(write.statement, statement -> new ArrayList<>()).add(write);
+    }
+
+    try {
+      jcrud.inTransaction(session -> {
+        for (final var batch : byStatement.entrySet()) {
+          session.insert(batch.getKey(), batch.getValue(), WRITE_PARAMS, batchOptions);
+        }
+
+        return null;
+      });
+
+      writes.forEach(write -> write.written.complete(null));
+    } catch (final RuntimeException | Error ex) {
+      writes.forEach(write -> write.written.completeExceptionally(ex));
+    } finally {
+      capacity.release(writes.size());
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("The writer is closed");
+    }
+  }
+
+  private static void checkInsertStatement(final String statement) {
+    final var fragment = Keyword.INSERT.asStatementFragment();
+    if (!statement.regionMatches(true, 0, fragment, 0, fragment.length())) {
+      throw new InvalidStatementException(Keyword.INSERT, statement);
+    }
+  }
+
+  private static final class Write<T> {
+
+    private final String statement;
+    private final T entity;
+    private final ParamSetter<T> paramSetter;
+    private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+    Write(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+      this.statement = statement;
+      this.entity = entity;
+      this.paramSetter = paramSetter;
+    }
+
+    void setStatementParams(final PreparedStatement pstmt) throws SQLException {
+      paramSetter.setStatementParams(entity, pstmt);
+    }
+  }
+}
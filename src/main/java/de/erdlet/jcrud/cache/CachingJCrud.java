@@ -0,0 +1,610 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import de.erdlet.jcrud.DelegatingJCrud;
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudSession;
+import de.erdlet.jcrud.StatementCacheStatistics;
+import de.erdlet.jcrud.batch.BatchOptions;
+import de.erdlet.jcrud.monitoring.Operation;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.KeySetter;
+import de.erdlet.jcrud.results.RowMapper;
+import de.erdlet.jcrud.transaction.SessionCallback;
+import de.erdlet.jcrud.transaction.TransactionOptions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorator of {@link JCrud}, which caches the results of {@code select}, {@code selectSingle} and
+ * {@code count}. Results are cached per statement, {@link RowMapper} and parameters, so the mappers
+ * should be kept in constants instead of being created per call.
+ * <p>
+ * Every write done through this instance invalidates the results of all queries reading from the
+ * written table. The table is taken from the statement; for statements of an unknown form, all results
+ * are invalidated. Writes inside of sessions invalidate the results again after the session has
+ * finished, so no result read before the commit survives. Writes which bypass this instance are not
+ * noticed, so either call {@link #invalidate(String)} or bound the staleness by
+ * {@link QueryCacheOptions#withTimeToLive(java.time.Duration)}.
+ * <p>
+ * Cached lists are unmodifiable, but the mapped entities are shared between all callers and must not
+ * be modified. Streaming reads and reads inside of sessions are never cached.
+ *
+ * @author Tobias Erdle
+ */
+public class CachingJCrud extends DelegatingJCrud {
+
+  private final int maximumSize;
+  private final long timeToLiveNanos;
+
+  private final Map<QueryKey, CacheEntry> entries = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+  private final AtomicLong globalVersion = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public CachingJCrud(final JCrud delegate) {
+    this(delegate, QueryCacheOptions.defaults());
+  }
+
+  public CachingJCrud(final JCrud delegate, final QueryCacheOptions options) {
+    super(delegate);
+    this.maximumSize = options.getMaximumSize();
+    this.timeToLiveNanos = options.getTimeToLive().map(ttl -> ttl.toNanos()).orElse(0L);
+  }
+
+  @Override
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return cached(new QueryKey(Operation.SELECT, query, rowMapper, params),
+        () -> Collections.unmodifiableList(super.select(query, rowMapper, params)));
+  }
+
+  @Override
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Params params) {
+    return cached(new QueryKey(Operation.SELECT, query, rowMapper, params.toArray()),
+        () -> Collections.unmodifiableList(super.select(query, rowMapper, params)));
+  }
+
+  @Override
+  public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return cached(new QueryKey(Operation.SELECT_SINGLE, query, rowMapper, params),
+        () -> super.selectSingle(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Params params) {
+    return cached(new QueryKey(Operation.SELECT_SINGLE, query, rowMapper, params.toArray()),
+        () -> super.selectSingle(query, rowMapper, params));
+  }
+
+  @Override
+  public long count(final String query, final Object... params) {
+    return cached(new QueryKey(Operation.COUNT, query, null, params), () -> super.count(query, params));
+  }
+
+  @Override
+  public long count(final String query, final Params params) {
+    return cached(new QueryKey(Operation.COUNT, query, null, params.toArray()), () -> super.count(query, params));
+  }
+
+  @Override
+  public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+    try {
+      super.insert(statement, entity, paramSetter);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> void insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter) {
+    try {
+      super.insert(statement, entities, paramSetter);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T, K> K insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+      final RowMapper<K> keyMapper) {
+    try {
+      return super.insert(statement, entity, paramSetter, keyMapper);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+      final KeySetter<T> keySetter) {
+    try {
+      super.insert(statement, entity, paramSetter, keySetter);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T, K> List<K> insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final RowMapper<K> keyMapper, final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, keyMapper, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final KeySetter<T> keySetter, final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, keySetter, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> long insert(final String statement, final Iterator<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> long insert(final String statement, final Stream<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> long insert(final String statement, final Flow.Publisher<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> void update(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+    try {
+      super.update(statement, entity, paramSetter);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> long[] update(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.update(statement, entities, paramSetter, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> void delete(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+    try {
+      super.delete(statement, entity, paramSetter);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <T> long[] delete(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.delete(statement, entities, paramSetter, options);
+    } finally {
+      invalidateWrittenTable(statement);
+    }
+  }
+
+  @Override
+  public <R> R inSession(final SessionCallback<R> callback) {
+    final var writes = new SessionWrites();
+    try {
+      return super.inSession(session -> callback.doInSession(new InvalidatingSession(session, writes)));
+    } finally {
+      writes.invalidateAgain();
+    }
+  }
+
+  @Override
+  public <R> R inTransaction(final SessionCallback<R> callback) {
+    return inTransaction(TransactionOptions.defaults(), callback);
+  }
+
+  @Override
+  public <R> R inTransaction(final TransactionOptions options, final SessionCallback<R> callback) {
+    final var writes = new SessionWrites();
+    try {
+      return super.inTransaction(options, session -> callback.doInSession(new InvalidatingSession(session, writes)));
+    } finally {
+      writes.invalidateAgain();
+    }
+  }
+
+  /**
+   * Invalidate all cached results which read from the given table, e.g. after it was changed outside
+   * of this instance.
+   *
+   * @param table the name of the table, optionally qualified by its schema
+   */
+  public void invalidate(final String table) {
+    final var name = table.substring(table.lastIndexOf('.') + 1).toUpperCase(Locale.ROOT);
+    tableVersions.computeIfAbsent(name, key -> new AtomicLong()).incrementAndGet();
+  }
+
+  /**
+   * Invalidate all cached results.
+   */
+  public void invalidateAll() {
+    globalVersion.incrementAndGet();
+  }
+
+  /**
+   * @return a snapshot of the cache counters
+   */
+  public QueryCacheStatistics getStatistics() {
+    return new QueryCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <V> V cached(final QueryKey key, final Supplier<V> loader) {
+    final var now = System.nanoTime();
+
+    // Hits only read the map and stamp the entry, so concurrent readers never wait for each other
+    final var entry = entries.get(key);
+    if (entry != null) {
+      if (entry.isCurrent(now)) {
+        entry.lastAccess = now;
+        hits.increment();
+        return (V) entry.value;
+      }
+
+      if (entries.remove(key, entry) && entry.isExpired(now)) {
+        evictions.increment();
+      }
+    }
+
+    misses.increment();
+
+    // The versions are taken before the query runs, so a concurrent write always outdates the result
+    final var tables = entry != null ? entry.tables : TableNames.readTables(key.getQuery()).toArray(new String[0]);
+    final var versions = currentVersions(tables);
+    final var global = globalVersion.get();
+
+    final var value = loader.get();
+    final var expiresAt = timeToLiveNanos > 0 ? System.nanoTime() + timeToLiveNanos : 0L;
+
+    if (entries.put(key, new CacheEntry(value, tables, versions, global, expiresAt, System.nanoTime())) == null) {
+      evictIfFull();
+    }
+
+    return value;
+  }
+
+  /**
+   * Evicts the least recently used entries once the cache has grown beyond its maximum size. A tenth of
+   * the maximum size is evicted in addition, so the scan over all entries only runs every few misses.
+   * While one thread evicts, other threads don't wait for it, so the size may exceed the maximum briefly.
+   */
+  private void evictIfFull() {
+    if (entries.size() <= maximumSize || !evictionLock.tryLock()) {
+      return;
+    }
+
+    try {
+      final var excess = entries.size() - maximumSize;
+      if (excess <= 0) {
+        return;
+      }
+
+      // The stamps are copied first, as hits keep changing them during the eviction
+      final var stamps = new long[entries.size()];
+      var count = 0;
+      for (final var entry : entries.values()) {
+        if (count == stamps.length) {
+          break;
+        }
+        stamps[count++] = entry.lastAccess;
+      }
+      Arrays.sort(stamps, 0, count);
+
+      final var victims = Math.min(count, excess + maximumSize / 10);
+      final var threshold = stamps[victims - 1];
+      var evicted = 0;
+      for (final var iterator = entries.entrySet().iterator(); iterator.hasNext() && evicted < victims; ) {
+        final var candidate = iterator.next();
+        if (candidate.getValue().lastAccess <= threshold
+            && entries.remove(candidate.getKey(), candidate.getValue())) {
+          evictions.increment();
+          evicted++;
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private long[] currentVersions(final String[] tables) {
+    final var versions = new long[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      versions[i] = tableVersions.computeIfAbsent(tables[i], key -> new AtomicLong()).get();
+    }
+
+    return versions;
+  }
+
+  private void invalidateWrittenTable(final String statement) {
+    TableNames.writtenTable(statement).ifPresentOrElse(this::invalidate, this::invalidateAll);
+  }
+
+  private final class CacheEntry {
+
+    private final Object value;
+    private final String[] tables;
+    private final long[] versions;
+    private final long globalVersion;
+    private final long expiresAt;
+    private volatile long lastAccess;
+
+    CacheEntry(final Object value, final String[] tables, final long[] versions, final long globalVersion,
+        final long expiresAt, final long lastAccess) {
+      this.value = value;
+      this.tables = tables;
+      this.versions = versions;
+      this.globalVersion = globalVersion;
+      this.expiresAt = expiresAt;
+      this.lastAccess = lastAccess;
+    }
+
+    boolean isExpired(final long now) {
+      return expiresAt != 0L && now - expiresAt >= 0;
+    }
+
+    boolean isCurrent(final long now) {
+      if (isExpired(now) || globalVersion != CachingJCrud.this.globalVersion.get()) {
+        return false;
+      }
+
+      for (int i = 0; i < tables.length; i++) {
+        if (versions[i] != tableVersions.get(tables[i]).get()) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+
+  /**
+   * The tables written inside of a session, which are invalidated again after the session has finished
+   * and therefore after its transaction was committed.
+   */
+  private final class SessionWrites {
+
+    private final Set<String> tables = new HashSet<>();
+    private boolean all;
+
+    void record(final String statement) {
+      final var table = TableNames.writtenTable(statement);
+      if (table.isPresent()) {
+        tables.add(table.get());
+        CachingJCrud.this.invalidate(table.get());
+      } else {
+        all = true;
+        invalidateAll();
+      }
+    }
+
+    void invalidateAgain() {
+      if (all) {
+        invalidateAll();
+      }
+      tables.forEach(CachingJCrud.this::invalidate);
+    }
+  }
+
+  private static final class InvalidatingSession extends DelegatingJCrud implements JCrudSession {
+
+    private final JCrudSession session;
+    private final SessionWrites writes;
+
+    InvalidatingSession(final JCrudSession session, final SessionWrites writes) {
+      super(session);
+      this.session = session;
+      this.writes = writes;
+    }
+
+    @Override
+    public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+      writes.record(statement);
+      super.insert(statement, entity, paramSetter);
+    }
+
+    @Override
+    public <T> void insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter) {
+      writes.record(statement);
+      super.insert(statement, entities, paramSetter);
+    }
+
+    @Override
+    public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+      writes.record(statement);
+      return super.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T, K> K insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper) {
+      writes.record(statement);
+      return super.insert(statement, entity, paramSetter, keyMapper);
+    }
+
+    @Override
+    public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter) {
+      writes.record(statement);
+      super.insert(statement, entity, paramSetter, keySetter);
+    }
+
+    @Override
+    public <T, K> List<K> insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final RowMapper<K> keyMapper, final BatchOptions options) {
+      writes.record(statement);
+      return super.insert(statement, entities, paramSetter, keyMapper, options);
+    }
+
+    @Override
+    public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final KeySetter<T> keySetter, final BatchOptions options) {
+      writes.record(statement);
+      return super.insert(statement, entities, paramSetter, keySetter, options);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Iterator<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+      writes.record(statement);
+      return super.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Stream<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+      writes.record(statement);
+      return super.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> long insert(final String statement, final Flow.Publisher<T> entities,
+        final ParamSetter<T> paramSetter, final BatchOptions options) {
+      writes.record(statement);
+      return super.insert(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> void update(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+      writes.record(statement);
+      super.update(statement, entity, paramSetter);
+    }
+
+    @Override
+    public <T> long[] update(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+      writes.record(statement);
+      return super.update(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <T> void delete(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+      writes.record(statement);
+      super.delete(statement, entity, paramSetter);
+    }
+
+    @Override
+    public <T> long[] delete(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+        final BatchOptions options) {
+      writes.record(statement);
+      return super.delete(statement, entities, paramSetter, options);
+    }
+
+    @Override
+    public <R> R inSession(final SessionCallback<R> callback) {
+      return session.inSession(ignored -> callback.doInSession(this));
+    }
+
+    @Override
+    public <R> R inTransaction(final SessionCallback<R> callback) {
+      return session.inTransaction(ignored -> callback.doInSession(this));
+    }
+
+    @Override
+    public <R> R inTransaction(final TransactionOptions options, final SessionCallback<R> callback) {
+      return session.inTransaction(options, ignored -> callback.doInSession(this));
+    }
+
+    @Override
+    public void commit() {
+      session.commit();
+      writes.invalidateAgain();
+    }
+
+    @Override
+    public void rollback() {
+      session.rollback();
+    }
+
+    @Override
+    public StatementCacheStatistics getStatementCacheStatistics() {
+      return session.getStatementCacheStatistics();
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import de.erdlet.jcrud.DelegatingJCrud;
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.monitoring.Operation;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.RowMapper;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Decorator of {@link JCrud}, which lets concurrent identical calls of {@code select}, {@code selectSingle}
+ * and {@code count} share one execution. A call is identical when the statement, the
+ * {@link RowMapper} and the parameters are equal, so the mappers should be kept in constants instead of
+ * being created per call. The first call executes the query, all calls arriving while it runs wait for
+ * it and receive the same result or the same exception.
+ * <p>
+ * Nothing is retained after the execution finished, so in contrast to {@link CachingJCrud}, writes need
+ * no invalidation. A result can still be older than the call receiving it: a call joining a running
+ * execution gets what that execution read, which may have been before a write the caller committed just
+ * now. Callers which have to read their own writes should therefore read inside of a session, where reads
+ * are never coalesced, or through the undecorated {@link JCrud}. Returned lists are unmodifiable, as they
+ * are shared between all waiting callers.
+ *
+ * @author Tobias Erdle
+ */
+public class CoalescingJCrud extends DelegatingJCrud {
+
+  private final ConcurrentMap<QueryKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder coalesced = new LongAdder();
+
+  public CoalescingJCrud(final JCrud delegate) {
+    super(delegate);
+  }
+
+  @Override
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return coalesced(new QueryKey(Operation.SELECT, query, rowMapper, params),
+        () -> Collections.unmodifiableList(super.select(query, rowMapper, params)));
+  }
+
+  @Override
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Params params) {
+    return coalesced(new QueryKey(Operation.SELECT, query, rowMapper, params.toArray()),
+        () -> Collections.unmodifiableList(super.select(query, rowMapper, params)));
+  }
+
+  @Override
+  public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return coalesced(new QueryKey(Operation.SELECT_SINGLE, query, rowMapper, params),
+        () -> super.selectSingle(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Params params) {
+    return coalesced(new QueryKey(Operation.SELECT_SINGLE, query, rowMapper, params.toArray()),
+        () -> super.selectSingle(query, rowMapper, params));
+  }
+
+  @Override
+  public long count(final String query, final Object... params) {
+    return coalesced(new QueryKey(Operation.COUNT, query, null, params), () -> super.count(query, params));
+  }
+
+  @Override
+  public long count(final String query, final Params params) {
+    return coalesced(new QueryKey(Operation.COUNT, query, null, params.toArray()), () -> super.count(query, params));
+  }
+
+  /**
+   * @return the number of calls which received the result of another call's execution
+   */
+  public long getCoalescedCalls() {
+    return coalesced.sum();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <V> V coalesced(final QueryKey key, final Supplier<V> loader) {
+    final var execution = new CompletableFuture<Object>();
+    final var running = inFlight.putIfAbsent(key, execution);
+    if (running != null) {
+      coalesced.increment();
+      return (V) await(running);
+    }
+
+    try {
+      final var value = loader.get();
+      execution.complete(value);
+
+      return value;
+    } catch (final RuntimeException | Error ex) {
+      execution.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, execution);
+    }
+  }
+
+  private static Object await(final CompletableFuture<Object> execution) {
+    try {
+      return execution.join();
+    } catch (final CompletionException ex) {
+      // Rethrows the exception of the shared execution, e.g. a DatabaseException, like a local call would
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+}
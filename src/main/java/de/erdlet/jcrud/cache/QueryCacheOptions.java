@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Immutable settings of the {@link CachingJCrud} result cache. By default, at most
+ * {@link #DEFAULT_MAXIMUM_SIZE} results are cached, which only expire when a write invalidates them.
+ *
+ * @author Tobias Erdle
+ */
+public final class QueryCacheOptions {
+
+  /**
+   * The default number of results which are kept in the cache.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+  private static final QueryCacheOptions DEFAULTS = new QueryCacheOptions(DEFAULT_MAXIMUM_SIZE, null);
+
+  private final int maximumSize;
+  private final Duration timeToLive;
+
+  private QueryCacheOptions(final int maximumSize, final Duration timeToLive) {
+    this.maximumSize = maximumSize;
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * Options which keep up to {@link #DEFAULT_MAXIMUM_SIZE} results without time-based expiry.
+   *
+   * @return the default options
+   */
+  public static QueryCacheOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Creates a copy of these options with the given maximum size. When the cache is full, the least
+   * recently used results are evicted, together with a tenth of the maximum size to make room for the
+   * next results.
+   *
+   * @param maximumSize the maximum number of cached results, which has to be positive
+   * @return the new options
+   */
+  public QueryCacheOptions withMaximumSize(final int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("The maximum size must be positive but was " + maximumSize);
+    }
+
+    return new QueryCacheOptions(maximumSize, timeToLive);
+  }
+
+  /**
+   * Creates a copy of these options, which expires results after the given time. This bounds the
+   * staleness of results whose tables are changed outside of the {@link CachingJCrud}.
+   *
+   * @param timeToLive the time a result stays valid after it was loaded, which has to be positive
+   * @return the new options
+   */
+  public QueryCacheOptions withTimeToLive(final Duration timeToLive) {
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("The time to live must be positive but was " + timeToLive);
+    }
+
+    return new QueryCacheOptions(maximumSize, timeToLive);
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public Optional<Duration> getTimeToLive() {
+    return Optional.ofNullable(timeToLive);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+/**
+ * Snapshot of the counters of the result cache of a {@link CachingJCrud}.
+ *
+ * @author Tobias Erdle
+ */
+public final class QueryCacheStatistics {
+
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final int size;
+
+  public QueryCacheStatistics(final long hits, final long misses, final long evictions, final int size) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.size = size;
+  }
+
+  /**
+   * @return the number of reads which were answered from the cache
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * @return the number of reads which had to be executed against the database
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the number of results which were removed because the cache was full or they expired
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return the number of results currently inside the cache
+   */
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "QueryCacheStatistics{" +
+        "hits=" + hits +
+        ", misses=" + misses +
+        ", evictions=" + evictions +
+        ", size=" + size +
+        '}';
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import de.erdlet.jcrud.monitoring.Operation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Identifies a read by its operation, statement, {@link de.erdlet.jcrud.results.RowMapper} and
+ * parameters. Mappers are compared by identity unless they implement {@code equals}.
+ *
+ * @author Tobias Erdle
+ */
+final class QueryKey {
+
+  private final Operation operation;
+  private final String query;
+  private final Object rowMapper;
+  private final Object[] params;
+  private final int hash;
+
+  /**
+   * @param params the parameters, which are copied together with contained collections and arrays, so
+   *     callers may modify them afterwards
+   */
+  QueryKey(final Operation operation, final String query, final Object rowMapper, final Object[] params) {
+    this.operation = operation;
+    this.query = query;
+    this.rowMapper = rowMapper;
+    this.params = (Object[]) copy(params);
+    this.hash = Objects.hash(operation, query, rowMapper, Arrays.deepHashCode(this.params));
+  }
+
+  String getQuery() {
+    return query;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof QueryKey)) {
+      return false;
+    }
+
+    final var other = (QueryKey) o;
+    return hash == other.hash && operation == other.operation && query.equals(other.query)
+        && Objects.equals(rowMapper, other.rowMapper) && Arrays.deepEquals(params, other.params);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  private static Object copy(final Object param) {
+    if (param instanceof Set) {
+      return Collections.unmodifiableSet(new LinkedHashSet<>((Set<?>) param));
+    }
+    if (param instanceof Collection) {
+      return Collections.unmodifiableList(new ArrayList<>((Collection<?>) param));
+    }
+    if (param instanceof Object[]) {
+      final var values = ((Object[]) param).clone();
+      for (int i = 0; i < values.length; i++) {
+        values[i] = copy(values[i]);
+      }
+
+      return values;
+    }
+    if (param != null && param.getClass().isArray()) {
+      final var length = Array.getLength(param);
+      final var values = Array.newInstance(param.getClass().getComponentType(), length);
+      System.arraycopy(param, 0, values, 0, length);
+
+      return values;
+    }
+
+    return param;
+  }
+}
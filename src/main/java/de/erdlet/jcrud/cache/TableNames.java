@@ -0,0 +1,234 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lightweight extraction of table names from SQL statements. It does not validate the statements,
+ * it only looks for the names following {@code FROM}, {@code JOIN} and the write keywords. The names
+ * are returned without schema and in upper case, so different spellings of a table match. Finding too
+ * many tables only leads to more invalidations, so the extraction errs on this side.
+ *
+ * @author Tobias Erdle
+ */
+final class TableNames {
+
+  private static final String LITERAL = "'";
+
+  private static final Set<String> KEYWORDS = Set.of("WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "FULL",
+      "OUTER", "CROSS", "NATURAL", "ON", "USING", "GROUP", "ORDER", "HAVING", "LIMIT", "OFFSET", "FETCH",
+      "FOR", "UNION", "EXCEPT", "INTERSECT", "MINUS", "WINDOW", "QUALIFY", "SET", "VALUES", "SELECT",
+      "DEFAULT", "RETURNING");
+
+  private TableNames() {
+  }
+
+  /**
+   * Returns the tables a query reads from, including the tables of sub-queries.
+   *
+   * @param query the SELECT statement
+   * @return the upper case names of all referenced tables
+   */
+  static Set<String> readTables(final String query) {
+    final var tokens = tokenize(query);
+    final var tables = new HashSet<String>();
+
+    for (int i = 0; i < tokens.size(); i++) {
+      final var token = tokens.get(i);
+      if ("FROM".equals(token)) {
+        readTableList(tokens, i + 1, tables);
+      } else if ("JOIN".equals(token) && i + 1 < tokens.size() && isName(tokens.get(i + 1))) {
+        tables.add(tokens.get(i + 1));
+      }
+    }
+
+    return tables;
+  }
+
+  /**
+   * Returns the table an INSERT, UPDATE, DELETE or MERGE statement writes to.
+   *
+   * @param statement the writing statement
+   * @return the upper case name of the table, or an empty {@link Optional} in case the statement has
+   *     an unknown form
+   */
+  static Optional<String> writtenTable(final String statement) {
+    final var tokens = tokenize(statement);
+    if (tokens.isEmpty()) {
+      return Optional.empty();
+    }
+
+    int index;
+    switch (tokens.get(0)) {
+      case "INSERT":
+      case "MERGE":
+      case "REPLACE":
+      case "UPSERT":
+        index = skip(tokens, 1, "INTO");
+        break;
+      case "UPDATE":
+        index = 1;
+        break;
+      case "DELETE":
+        index = skip(tokens, 1, "FROM");
+        break;
+      default:
+        return Optional.empty();
+    }
+
+    return index < tokens.size() && isName(tokens.get(index)) ? Optional.of(tokens.get(index)) : Optional.empty();
+  }
+
+  private static void readTableList(final List<String> tokens, final int start, final Set<String> tables) {
+    int index = start;
+    while (index < tokens.size()) {
+      final var token = tokens.get(index);
+      if ("(".equals(token)) {
+        // The tables of the sub-query are found by the outer scan, only skip to the alias
+        index = skipParentheses(tokens, index);
+      } else if (isName(token)) {
+        tables.add(token);
+      } else {
+        return;
+      }
+
+      index = skip(tokens, index + 1, "AS");
+      if (index < tokens.size() && isName(tokens.get(index))) {
+        index++;
+      }
+
+      if (index >= tokens.size() || !",".equals(tokens.get(index))) {
+        return;
+      }
+
+      index++;
+    }
+  }
+
+  private static int skipParentheses(final List<String> tokens, final int start) {
+    int depth = 0;
+    for (int i = start; i < tokens.size(); i++) {
+      if ("(".equals(tokens.get(i))) {
+        depth++;
+      } else if (")".equals(tokens.get(i)) && --depth == 0) {
+        return i;
+      }
+    }
+
+    return tokens.size();
+  }
+
+  private static int skip(final List<String> tokens, final int index, final String keyword) {
+    return index < tokens.size() && keyword.equals(tokens.get(index)) ? index + 1 : index;
+  }
+
+  private static boolean isName(final String token) {
+    if (token.isEmpty()) {
+      return false;
+    }
+
+    final var first = token.charAt(0);
+    return (Character.isLetter(first) || first == '_') && !KEYWORDS.contains(token);
+  }
+
+  /**
+   * Splits the statement into upper case names and single character symbols. Qualified names are
+   * reduced to their last part, literals are replaced by a placeholder and comments are dropped.
+   */
+  private static List<String> tokenize(final String sql) {
+    final var tokens = new ArrayList<String>();
+    final var length = sql.length();
+
+    int i = 0;
+    while (i < length) {
+      final var c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+        i = indexAfter(sql, "\n", i + 2);
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        i = indexAfter(sql, "*/", i + 2);
+      } else if (c == '\'') {
+        i = indexAfter(sql, "'", i + 1);
+        tokens.add(LITERAL);
+      } else if (isNameStart(c)) {
+        var end = nameEnd(sql, i);
+        while (end + 1 < length && sql.charAt(end) == '.' && isNameStart(sql.charAt(end + 1))) {
+          i = end + 1;
+          end = nameEnd(sql, i);
+        }
+        tokens.add(unquote(sql.substring(i, end)).toUpperCase(Locale.ROOT));
+        i = end;
+      } else {
+        tokens.add(String.valueOf(c));
+        i++;
+      }
+    }
+
+    return tokens;
+  }
+
+  private static boolean isNameStart(final char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '"' || c == '`' || c == '[';
+  }
+
+  private static int nameEnd(final String sql, final int start) {
+    final var c = sql.charAt(start);
+    if (c == '"' || c == '`') {
+      return indexAfter(sql, String.valueOf(c), start + 1);
+    }
+    if (c == '[') {
+      return indexAfter(sql, "]", start + 1);
+    }
+
+    int end = start;
+    while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_'
+        || sql.charAt(end) == '$')) {
+      end++;
+    }
+
+    return end;
+  }
+
+  private static String unquote(final String name) {
+    final var first = name.charAt(0);
+    if ((first == '"' || first == '`' || first == '[') && name.length() > 1) {
+      return name.substring(1, name.length() - 1);
+    }
+
+    return name;
+  }
+
+  private static int indexAfter(final String sql, final String terminator, final int from) {
+    final var index = sql.indexOf(terminator, from);
+    return index < 0 ? sql.length() : index + terminator.length();
+  }
+}
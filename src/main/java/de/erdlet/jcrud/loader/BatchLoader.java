@@ -0,0 +1,291 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.loader;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.exception.TooManyResultsException;
+import de.erdlet.jcrud.parameter.InList;
+import de.erdlet.jcrud.results.RowMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Loads entities by their keys in batches. Instead of one {@code selectSingle} per key, all keys requested
+ * within the window of the {@link BatchLoaderOptions} are collected, deduplicated and loaded by one
+ * {@code WHERE key IN (...)} query. Every caller receives the entity of its own key.
+ * <p>
+ * Batches are dispatched once the window has passed or the maximum batch size is reached. A single timer
+ * thread only takes the batches of passed windows, their queries run on the executor of the
+ * {@link BatchLoaderOptions}, so slow batches don't delay the following ones. {@link #dispatch()} loads the collected keys immediately on the calling thread, so callers
+ * can also collect keys in a scope and dispatch them at its end. Nothing is cached, so every batch
+ * reads the current entities.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded entities
+ * @author Tobias Erdle
+ */
+public final class BatchLoader<K, V> implements AutoCloseable {
+
+  // The column is put into the statement as it is, so only plain identifiers are accepted
+  private static final Pattern COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+  private final JCrud jcrud;
+  private final String query;
+  private final String batchQuery;
+  private final RowMapper<V> rowMapper;
+  private final Function<? super V, ? extends K> keyExtractor;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService timer;
+  private final Executor executor;
+  private final ExecutorService ownExecutor;
+
+  private final Object lock = new Object();
+  private Map<K, CompletableFuture<Optional<V>>> pending = new LinkedHashMap<>();
+  private ScheduledFuture<?> scheduledDispatch;
+  private boolean closed;
+
+  /**
+   * Create a loader for the entities of the query. The query is wrapped into
+   * {@code SELECT * FROM (query) WHERE keyColumn IN (...)}, so it may contain conditions of its own, but
+   * no parameters.
+   *
+   * @param jcrud the {@link JCrud} executing the queries
+   * @param query the query selecting the entities including the key column
+   * @param keyColumn the label of the selected key column
+   * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+   * @param keyExtractor the function which reads the key from a mapped entity
+   * @param options the {@link BatchLoaderOptions} defining when the batches are dispatched
+   */
+  public BatchLoader(final JCrud jcrud, final String query, final String keyColumn, final RowMapper<V> rowMapper,
+      final Function<? super V, ? extends K> keyExtractor, final BatchLoaderOptions options) {
+    if (!COLUMN.matcher(keyColumn).matches()) {
+      throw new IllegalArgumentException("The key column must be a plain column label but was " + keyColumn);
+    }
+
+    this.jcrud = jcrud;
+    this.query = query;
+    this.batchQuery = "SELECT * FROM (" + query + ") jcrud_batch WHERE " + keyColumn + " IN (?)";
+    this.rowMapper = rowMapper;
+    this.keyExtractor = keyExtractor;
+    this.windowNanos = options.getWindow().toNanos();
+    this.maxBatchSize = options.getMaxBatchSize();
+    this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "jcrud-batch-timer"));
+    this.ownExecutor = options.getExecutor().isPresent()
+        ? null
+        : Executors.newCachedThreadPool(runnable -> daemon(runnable, "jcrud-batch-loader"));
+    this.executor = options.getExecutor().orElse(ownExecutor);
+  }
+
+  /**
+   * Request the entity of the key. The key is loaded together with all other keys of its batch.
+   *
+   * @param key the key of the entity
+   * @return a future of the entity or an empty {@link Optional} in case no entity has the key. The future
+   *     completes exceptionally with the exception of the batch query or with a
+   *     {@link TooManyResultsException} in case several entities have the key.
+   * @throws IllegalStateException in case the loader is closed
+   */
+  public CompletableFuture<Optional<V>> load(final K key) {
+    Objects.requireNonNull(key, "The key must not be null");
+
+    final CompletableFuture<Optional<V>> result;
+    final Map<K, CompletableFuture<Optional<V>>> fullBatch;
+    synchronized (lock) {
+      if (closed) {
+        throw new IllegalStateException("The loader is closed");
+      }
+
+      final var requested = pending.get(key);
+      if (requested != null) {
+        return requested;
+      }
+
+      result = new CompletableFuture<>();
+      pending.put(key, result);
+
+      if (pending.size() >= maxBatchSize) {
+        fullBatch = takePending();
+      } else {
+        fullBatch = null;
+        if (scheduledDispatch == null) {
+          final var batch = pending;
+          scheduledDispatch = timer.schedule(() -> dispatchWindow(batch), windowNanos, TimeUnit.NANOSECONDS);
+        }
+      }
+    }
+
+    if (fullBatch != null) {
+      submit(fullBatch);
+    }
+
+    return result;
+  }
+
+  /**
+   * Load the entities of all keys, using as few queries as the maximum batch size allows.
+   *
+   * @param keys the keys of the entities
+   * @return the found entities by their keys
+   */
+  public Map<K, V> loadAll(final Collection<? extends K> keys) {
+    final var requested = new LinkedHashMap<K, CompletableFuture<Optional<V>>>();
+    for (final var key : keys) {
+      requested.put(key, load(key));
+    }
+
+    dispatch();
+
+    final var found = new LinkedHashMap<K, V>();
+    requested.forEach((key, result) -> join(result).ifPresent(value -> found.put(key, value)));
+
+    return found;
+  }
+
+  /**
+   * Load all collected keys immediately on the calling thread.
+   */
+  public void dispatch() {
+    final Map<K, CompletableFuture<Optional<V>>> batch;
+    synchronized (lock) {
+      batch = takePending();
+    }
+
+    if (!batch.isEmpty()) {
+      execute(batch);
+    }
+  }
+
+  /**
+   * Stop accepting keys, load all collected keys and stop the background threads. Batches which are
+   * already running are completed.
+   */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      closed = true;
+    }
+
+    dispatch();
+    timer.shutdown();
+    if (ownExecutor != null) {
+      ownExecutor.shutdown();
+    }
+  }
+
+  private void dispatchWindow(final Map<K, CompletableFuture<Optional<V>>> batch) {
+    synchronized (lock) {
+      // The batch of the window may have been taken before the timer fired, e.g. because it was full
+      if (pending != batch) {
+        return;
+      }
+      takePending();
+    }
+
+    if (!batch.isEmpty()) {
+      submit(batch);
+    }
+  }
+
+  private Map<K, CompletableFuture<Optional<V>>> takePending() {
+    final var batch = pending;
+    pending = new LinkedHashMap<>();
+    if (scheduledDispatch != null) {
+      scheduledDispatch.cancel(false);
+      scheduledDispatch = null;
+    }
+
+    return batch;
+  }
+
+  private void submit(final Map<K, CompletableFuture<Optional<V>>> batch) {
+    try {
+      executor.execute(() -> execute(batch));
+    } catch (final RejectedExecutionException ex) {
+      batch.values().forEach(result -> result.completeExceptionally(ex));
+    }
+  }
+
+  private void execute(final Map<K, CompletableFuture<Optional<V>>> batch) {
+    try {
+      // The keys are expanded by JCrud into a placeholder list of a few fixed sizes
+      final var found = new HashMap<K, V>();
+      final var ambiguous = new ArrayList<K>();
+      for (final var value : jcrud.select(batchQuery, rowMapper, InList.of(batch.keySet()))) {
+        final K key = keyExtractor.apply(value);
+        if (found.putIfAbsent(key, value) != null) {
+          ambiguous.add(key);
+        }
+      }
+
+      for (final var key : ambiguous) {
+        final var result = batch.remove(key);
+        if (result != null) {
+          result.completeExceptionally(new TooManyResultsException(query, key));
+        }
+      }
+      batch.forEach((key, result) -> result.complete(Optional.ofNullable(found.get(key))));
+    } catch (final RuntimeException | Error ex) {
+      batch.values().forEach(result -> result.completeExceptionally(ex));
+    }
+  }
+
+  private static Thread daemon(final Runnable runnable, final String name) {
+    final var thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private static <R> R join(final CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException ex) {
+      // Rethrows the exception of the batch, e.g. a DatabaseException, like a local call would
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.loader;
+
+import de.erdlet.jcrud.parameter.InList;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Immutable settings for a {@link BatchLoader}. The keys requested within the window are loaded by one
+ * query. A batch is dispatched earlier once it holds the maximum batch size of keys.
+ * <p>
+ * Without an {@link Executor} of its own, every loader runs its batches on a cached pool of daemon threads,
+ * which it shuts down when it is closed. Batches therefore don't wait for each other.
+ *
+ * @author Tobias Erdle
+ */
+public final class BatchLoaderOptions {
+
+  /**
+   * The default time keys are collected before they are loaded.
+   */
+  public static final Duration DEFAULT_WINDOW = Duration.ofMillis(2L);
+
+  /**
+   * The default maximum number of keys loaded by one query. It equals a placeholder bucket of the IN list
+   * expansion, so full batches are not padded with repeated keys.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+  private static final BatchLoaderOptions DEFAULTS = new BatchLoaderOptions(DEFAULT_WINDOW, DEFAULT_MAX_BATCH_SIZE,
+      null);
+
+  private final Duration window;
+  private final int maxBatchSize;
+  private final Executor executor;
+
+  private BatchLoaderOptions(final Duration window, final int maxBatchSize, final Executor executor) {
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.executor = executor;
+  }
+
+  /**
+   * Options which collect keys for {@link #DEFAULT_WINDOW} and load at most {@link #DEFAULT_MAX_BATCH_SIZE}
+   * keys per query.
+   *
+   * @return the default options
+   */
+  public static BatchLoaderOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Creates a copy of these options with the given window.
+   *
+   * @param window the time keys are collected before they are loaded, which must not be negative
+   * @return the new options
+   */
+  public BatchLoaderOptions withWindow(final Duration window) {
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("The window must not be negative but was " + window);
+    }
+
+    return new BatchLoaderOptions(window, maxBatchSize, executor);
+  }
+
+  /**
+   * Creates a copy of these options with the given maximum batch size.
+   *
+   * @param maxBatchSize the maximum number of keys loaded by one query, which has to be positive and at most
+   * {@link InList#MAX_SIZE}
+   * @return the new options
+   */
+  public BatchLoaderOptions withMaxBatchSize(final int maxBatchSize) {
+    if (maxBatchSize < 1 || maxBatchSize > InList.MAX_SIZE) {
+      throw new IllegalArgumentException(String.format(
+          "The maximum batch size must be between 1 and %d but was %d", InList.MAX_SIZE, maxBatchSize));
+    }
+
+    return new BatchLoaderOptions(window, maxBatchSize, executor);
+  }
+
+  /**
+   * Creates a copy of these options, which runs the batches on the given executor. Every batch blocks a
+   * thread of the executor until its query is read, so it shouldn't be a pool for short tasks like the
+   * common {@link java.util.concurrent.ForkJoinPool}. The executor is not shut down by the loader.
+   *
+   * @param executor the executor running one task per batch
+   * @return the new options
+   */
+  public BatchLoaderOptions withExecutor(final Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("The executor must not be null");
+    }
+
+    return new BatchLoaderOptions(window, maxBatchSize, executor);
+  }
+
+  public Duration getWindow() {
+    return window;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public Optional<Executor> getExecutor() {
+    return Optional.ofNullable(executor);
+  }
+}
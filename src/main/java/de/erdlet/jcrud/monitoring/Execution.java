@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.monitoring;
+
+import java.util.Optional;
+
+/**
+ * Immutable report of a single finished {@link de.erdlet.jcrud.JCrud} operation. The total duration
+ * is split into three consecutive phases: acquiring the connection, preparing and executing the
+ * statement, and processing the results afterwards, which is mainly the mapping of the rows.
+ *
+ * @author Tobias Erdle
+ */
+public final class Execution {
+
+  private final Operation operation;
+  private final String sql;
+  private final long acquireNanos;
+  private final long executeNanos;
+  private final long mappingNanos;
+  private final long rowCount;
+  private final long batchSize;
+  private final Throwable failure;
+
+  public Execution(final Operation operation, final String sql, final long acquireNanos, final long executeNanos,
+      final long mappingNanos, final long rowCount, final long batchSize, final Throwable failure) {
+    this.operation = operation;
+    this.sql = sql;
+    this.acquireNanos = acquireNanos;
+    this.executeNanos = executeNanos;
+    this.mappingNanos = mappingNanos;
+    this.rowCount = rowCount;
+    this.batchSize = batchSize;
+    this.failure = failure;
+  }
+
+  public Operation getOperation() {
+    return operation;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * @return the nanoseconds spent on acquiring the connection
+   */
+  public long getAcquireNanos() {
+    return acquireNanos;
+  }
+
+  /**
+   * @return the nanoseconds spent on preparing, binding and executing the statement
+   */
+  public long getExecuteNanos() {
+    return executeNanos;
+  }
+
+  /**
+   * @return the nanoseconds spent after the execution, mainly on mapping rows and releasing resources
+   */
+  public long getMappingNanos() {
+    return mappingNanos;
+  }
+
+  /**
+   * @return the sum of all phases
+   */
+  public long getTotalNanos() {
+    return acquireNanos + executeNanos + mappingNanos;
+  }
+
+  /**
+   * @return the number of read rows for queries, the update count for writes, or {@code -1} in case
+   *     the rows are processed by a {@link de.erdlet.jcrud.results.ResultSetExtractor}
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return the number of entities written by a batch, or {@code 0} for operations without batch
+   */
+  public long getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return the exception the operation failed with, or an empty {@link Optional} on success
+   */
+  public Optional<Throwable> getFailure() {
+    return Optional.ofNullable(failure);
+  }
+
+  @Override
+  public String toString() {
+    return "Execution{" +
+        "operation=" + operation +
+        ", sql='" + sql + '\'' +
+        ", acquireNanos=" + acquireNanos +
+        ", executeNanos=" + executeNanos +
+        ", mappingNanos=" + mappingNanos +
+        ", rowCount=" + rowCount +
+        ", batchSize=" + batchSize +
+        ", failure=" + failure +
+        '}';
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.monitoring;
+
+import java.util.List;
+
+/**
+ * Listener which is notified after every operation of a {@link de.erdlet.jcrud.JCrudImpl}, including
+ * the operations of its sessions. It is called synchronously on the thread which executed the
+ * operation, so implementations have to be thread-safe, fast and must not throw exceptions. When no
+ * listener is registered, the operations aren't timed at all.
+ *
+ * @author Tobias Erdle
+ */
+@FunctionalInterface
+public interface ExecutionListener {
+
+  /**
+   * Called once after an operation has finished, successfully or not. For streams and iterators, this
+   * happens when they are closed or fully read.
+   *
+   * @param execution the report of the finished operation
+   */
+  void executed(final Execution execution);
+
+  /**
+   * Combines multiple listeners into one, which notifies them in the given order.
+   *
+   * @param listeners the listeners to notify
+   * @return the combined listener
+   */
+  static ExecutionListener composite(final ExecutionListener... listeners) {
+    final var copy = List.of(listeners);
+
+    return execution -> {
+      for (final var listener : copy) {
+        listener.executed(execution);
+      }
+    };
+  }
+}
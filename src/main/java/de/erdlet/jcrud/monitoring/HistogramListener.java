@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.monitoring;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ExecutionListener} which keeps a latency histogram and counters per SQL statement. Recording
+ * is lock-free, so the listener can stay registered in production. Statements are kept until
+ * {@link #reset()} is called, so it should only be used with a bounded set of statements, e.g. with
+ * bind parameters instead of inlined values.
+ *
+ * @author Tobias Erdle
+ */
+public final class HistogramListener implements ExecutionListener {
+
+  private final Map<String, StatementRecorder> statements = new ConcurrentHashMap<>();
+
+  @Override
+  public void executed(final Execution execution) {
+    var recorder = statements.get(execution.getSql());
+    if (recorder == null) {
+      recorder = statements.computeIfAbsent(execution.getSql(), sql -> new StatementRecorder());
+    }
+
+    recorder.record(execution);
+  }
+
+  /**
+   * Returns the statistics of a single statement.
+   *
+   * @param sql the SQL of the statement
+   * @return the statistics, or an empty {@link Optional} in case the statement wasn't executed yet
+   */
+  public Optional<StatementStatistics> getStatistics(final String sql) {
+    return Optional.ofNullable(statements.get(sql)).map(recorder -> recorder.snapshot(sql));
+  }
+
+  /**
+   * @return the statistics of all executed statements, keyed by their SQL
+   */
+  public Map<String, StatementStatistics> getStatistics() {
+    return statements.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().snapshot(entry.getKey())));
+  }
+
+  /**
+   * Removes all recorded statements.
+   */
+  public void reset() {
+    statements.clear();
+  }
+
+  private static final class StatementRecorder {
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    void record(final Execution execution) {
+      latencies.record(execution.getTotalNanos());
+
+      if (execution.getFailure().isPresent()) {
+        failures.increment();
+      }
+      if (execution.getRowCount() > 0) {
+        rows.add(execution.getRowCount());
+      }
+    }
+
+    StatementStatistics snapshot(final String sql) {
+      return new StatementStatistics(sql, latencies.count(), failures.sum(), rows.sum(),
+          latencies.percentile(50.0), latencies.percentile(99.0), latencies.max());
+    }
+  }
+}
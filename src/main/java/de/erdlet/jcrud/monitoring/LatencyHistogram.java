@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.monitoring;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds. Values are counted in log-linear buckets with eight
+ * buckets per power of two, so every reported percentile is at most 12.5% above the recorded value,
+ * while the memory stays constant. All counters are striped {@link LongAdder}s to keep concurrent recording
+ * cheap, as recordings of similar durations hit the same bucket. A bucket's counter is only created with its
+ * first value, since most durations fall into a few buckets.
+ *
+ * @author Tobias Erdle
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+  void record(final long nanos) {
+    final var value = Math.max(0L, nanos);
+
+    bucket(bucketOf(value)).increment();
+    count.increment();
+    max.accumulate(value);
+  }
+
+  long count() {
+    return count.sum();
+  }
+
+  long max() {
+    return max.get();
+  }
+
+  /**
+   * Returns the upper bound of the bucket containing the given percentile, capped by the maximum.
+   */
+  long percentile(final double percentile) {
+    final var counts = new long[BUCKETS];
+    var total = 0L;
+    for (int i = 0; i < BUCKETS; i++) {
+      final var bucket = buckets.get(i);
+      counts[i] = bucket == null ? 0L : bucket.sum();
+      total += counts[i];
+    }
+
+    if (total == 0) {
+      return 0L;
+    }
+
+    final var rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+    var seen = 0L;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(i), max());
+      }
+    }
+
+    return max();
+  }
+
+  private LongAdder bucket(final int index) {
+    final var bucket = buckets.get(index);
+    if (bucket != null) {
+      return bucket;
+    }
+
+    final var created = new LongAdder();
+    return buckets.compareAndSet(index, null, created) ? created : buckets.get(index);
+  }
+
+  static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    final var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBoundOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    final var shift = bucket / SUB_BUCKETS - 1;
+    final var lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+    return lowerBound + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.monitoring;
+
+/**
+ * Snapshot of the latencies and counters of a single statement recorded by a {@link HistogramListener}.
+ * All latencies are the total durations of the operations in nanoseconds.
+ *
+ * @author Tobias Erdle
+ */
+public final class StatementStatistics {
+
+  private final String sql;
+  private final long executions;
+  private final long failures;
+  private final long rows;
+  private final long p50Nanos;
+  private final long p99Nanos;
+  private final long maxNanos;
+
+  public StatementStatistics(final String sql, final long executions, final long failures, final long rows,
+      final long p50Nanos, final long p99Nanos, final long maxNanos) {
+    this.sql = sql;
+    this.executions = executions;
+    this.failures = failures;
+    this.rows = rows;
+    this.p50Nanos = p50Nanos;
+    this.p99Nanos = p99Nanos;
+    this.maxNanos = maxNanos;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * @return the number of finished operations, including the failed ones
+   */
+  public long getExecutions() {
+    return executions;
+  }
+
+  /**
+   * @return the number of operations which failed
+   */
+  public long getFailures() {
+    return failures;
+  }
+
+  /**
+   * @return the sum of the row counts of all operations
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  public long getP50Nanos() {
+    return p50Nanos;
+  }
+
+  public long getP99Nanos() {
+    return p99Nanos;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "StatementStatistics{" +
+        "sql='" + sql + '\'' +
+        ", executions=" + executions +
+        ", failures=" + failures +
+        ", rows=" + rows +
+        ", p50Nanos=" + p50Nanos +
+        ", p99Nanos=" + p99Nanos +
+        ", maxNanos=" + maxNanos +
+        '}';
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.paging;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable description of how the results of a query are paged by their key. Instead of skipping rows
+ * by an offset, every page continues after the key of the last entity of the previous page. Therefore
+ * the database can seek to the first row of a page by an index, so deep pages are as cheap as the
+ * first one.
+ * <p>
+ * The key column has to be part of the selected columns and its values have to be unique and not
+ * {@code NULL}, as rows with the same key as the last entity of a page would be skipped otherwise.
+ * <p>
+ * By default the query is wrapped into a derived table, which is filtered by the key, sorted and limited
+ * to the page by the {@link LimitSyntax}. Derived tables reject duplicate column names on some databases,
+ * e.g. for a join selecting {@code *}. Such queries contain the {@link #CONDITION} marker in their
+ * {@code WHERE} clause instead, which is replaced by the key condition followed by {@code AND}. They are
+ * sorted and limited without being wrapped.
+ *
+ * @param <T> the type of the mapped entities
+ * @param <K> the type of the key
+ * @author Tobias Erdle
+ */
+public final class Keyset<T, K> {
+
+  /**
+   * The default number of entities per page.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 100;
+
+  /**
+   * The marker for the key condition in the {@code WHERE} clause of queries, which are not wrapped into a
+   * derived table.
+   */
+  public static final String CONDITION = "/*keyset*/";
+
+  // The column is put into the statement as it is, so only plain and qualified identifiers are accepted
+  private static final Pattern COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+  private final String keyColumn;
+  private final Function<? super T, ? extends K> keyExtractor;
+  private final int pageSize;
+  private final LimitSyntax limitSyntax;
+
+  private Keyset(final String keyColumn, final Function<? super T, ? extends K> keyExtractor,
+      final int pageSize, final LimitSyntax limitSyntax) {
+    this.keyColumn = keyColumn;
+    this.keyExtractor = keyExtractor;
+    this.pageSize = pageSize;
+    this.limitSyntax = limitSyntax;
+  }
+
+  /**
+   * Pages by the given key column with pages of {@link #DEFAULT_PAGE_SIZE} entities, which are limited by
+   * {@link LimitSyntax#FETCH_FIRST}.
+   *
+   * @param keyColumn the key column, which is qualified by its table for queries with the {@link #CONDITION}
+   * marker
+   * @param keyExtractor the function which reads the key from a mapped entity
+   * @param <T> the type of the mapped entities
+   * @param <K> the type of the key
+   * @return the new keyset
+   */
+  public static <T, K> Keyset<T, K> of(final String keyColumn, final Function<? super T, ? extends K> keyExtractor) {
+    if (!COLUMN.matcher(keyColumn).matches()) {
+      throw new IllegalArgumentException("The key column must be a plain column label but was " + keyColumn);
+    }
+
+    return new Keyset<>(keyColumn, Objects.requireNonNull(keyExtractor), DEFAULT_PAGE_SIZE,
+        LimitSyntax.FETCH_FIRST);
+  }
+
+  /**
+   * Creates a copy of this keyset with the given page size.
+   *
+   * @param pageSize the maximum number of entities per page, which has to be positive
+   * @return the new keyset
+   */
+  public Keyset<T, K> withPageSize(final int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("The page size must be positive but was " + pageSize);
+    }
+
+    return new Keyset<>(keyColumn, keyExtractor, pageSize, limitSyntax);
+  }
+
+  /**
+   * Creates a copy of this keyset, which limits the pages by the given syntax of the database.
+   *
+   * @param limitSyntax the clause limiting the rows of a page
+   * @return the new keyset
+   */
+  public Keyset<T, K> withLimitSyntax(final LimitSyntax limitSyntax) {
+    return new Keyset<>(keyColumn, keyExtractor, pageSize, Objects.requireNonNull(limitSyntax));
+  }
+
+  public String getKeyColumn() {
+    return keyColumn;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  public LimitSyntax getLimitSyntax() {
+    return limitSyntax;
+  }
+
+  /**
+   * Reads the key of a mapped entity.
+   *
+   * @param entity the mapped entity
+   * @return the key of the entity
+   */
+  public K keyOf(final T entity) {
+    return keyExtractor.apply(entity);
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.paging;
+
+/**
+ * The clause which limits a page query to the rows of one page. The limit is bound as a parameter, so
+ * the statement text is the same for every page.
+ *
+ * @author Tobias Erdle
+ */
+public enum LimitSyntax {
+  /**
+   * The standard {@code FETCH FIRST ? ROWS ONLY}, e.g. for PostgreSQL, Oracle, DB2 and H2.
+   */
+  FETCH_FIRST("FETCH FIRST ? ROWS ONLY"),
+  /**
+   * {@code LIMIT ?}, e.g. for MySQL, MariaDB and SQLite.
+   */
+  LIMIT("LIMIT ?"),
+  /**
+   * {@code OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY}, e.g. for SQL Server, which requires an offset.
+   */
+  OFFSET_FETCH("OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+
+  final String clause;
+
+  LimitSyntax(final String clause) {
+    this.clause = clause;
+  }
+
+  public String asClause() {
+    return clause;
+  }
+}
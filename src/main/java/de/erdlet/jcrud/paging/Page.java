@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.paging;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of entities read by a {@link Keyset}.
+ *
+ * @param <T> the type of the mapped entities
+ * @param <K> the type of the key
+ * @author Tobias Erdle
+ */
+public final class Page<T, K> {
+
+  private final List<T> items;
+  private final K lastKey;
+  private final boolean hasNext;
+
+  /**
+   * Creates a page.
+   *
+   * @param items the entities of the page in key order
+   * @param lastKey the key of the last entity or {@code null} in case the page is empty
+   * @param hasNext whether further entities follow this page
+   */
+  public Page(final List<T> items, final K lastKey, final boolean hasNext) {
+    this.items = Collections.unmodifiableList(items);
+    this.lastKey = lastKey;
+    this.hasNext = hasNext;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * The key to continue with the next page.
+   *
+   * @return the key of the last entity or an empty {@link Optional} in case the page is empty
+   */
+  public Optional<K> getLastKey() {
+    return Optional.ofNullable(lastKey);
+  }
+
+  public boolean hasNext() {
+    return hasNext;
+  }
+
+  @Override
+  public String toString() {
+    return "Page{" +
+        "items=" + items.size() +
+        ", lastKey=" + lastKey +
+        ", hasNext=" + hasNext +
+        '}';
+  }
+}
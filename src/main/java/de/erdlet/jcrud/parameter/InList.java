@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.parameter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Marks a query parameter as a list of values, which is expanded into a list of placeholders, e.g. for
+ * {@code WHERE ID IN (?)}:
+ *
+ * <pre>
+ * {@code
+ * jcrud.select("SELECT * FROM TODOS WHERE ID IN (?)", mapper, InList.of(ids));
+ * }
+ * </pre>
+ *
+ * Only parameters wrapped into an {@code InList} are expanded, any other {@link Collection} is bound as it
+ * is. The values are deduplicated and have to fit into a single statement, so a list must neither be empty
+ * nor hold more than {@link #MAX_SIZE} values. {@code null} values are rejected as well, because they
+ * would match no rows in a {@code NOT IN} condition. Instances are immutable.
+ *
+ * @author Tobias Erdle
+ */
+public final class InList {
+
+  /**
+   * The maximum number of distinct values, which stays within the limit of 1000 values for IN lists of
+   * some databases.
+   */
+  public static final int MAX_SIZE = 1000;
+
+  private final List<Object> values;
+
+  private InList(final List<Object> values) {
+    this.values = values;
+  }
+
+  /**
+   * Creates a list of the distinct values in their iteration order.
+   *
+   * @param values the values, which must not be empty and must not contain {@code null}
+   * @return the new instance
+   */
+  public static InList of(final Collection<?> values) {
+    if (values == null) {
+      throw new IllegalArgumentException("The values of an IN list must not be null");
+    }
+
+    final var distinct = new LinkedHashSet<>(values.size());
+    for (final var value : values) {
+      if (value == null) {
+        throw new IllegalArgumentException("The values of an IN list must not contain null");
+      }
+      distinct.add(value);
+    }
+
+    if (distinct.isEmpty()) {
+      throw new IllegalArgumentException("An IN list must contain at least one value");
+    }
+    if (distinct.size() > MAX_SIZE) {
+      throw new IllegalArgumentException(String.format(
+          "An IN list must not contain more than %d values but contained %d", MAX_SIZE, distinct.size()));
+    }
+
+    return new InList(Collections.unmodifiableList(new ArrayList<>(distinct)));
+  }
+
+  /**
+   * @return the distinct values as an unmodifiable list
+   */
+  public List<Object> getValues() {
+    return values;
+  }
+
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof InList)) {
+      return false;
+    }
+
+    return values.equals(((InList) other).values);
+  }
+
+  @Override
+  public int hashCode() {
+    return values.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "InList" + values;
+  }
+}
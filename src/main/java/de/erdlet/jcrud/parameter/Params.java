@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.parameter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+/**
+ * Positional query parameters which are bound with the type-specific setters of the {@link
+ * PreparedStatement}. In contrast to passing an {@code Object...} array, primitive values are stored
+ * without boxing and the driver doesn't have to infer the SQL type of each value.
+ * <p>
+ * The parameters are bound in the order they were added:
+ *
+ * <pre>
+ * {@code
+ * jcrud.selectSingle("SELECT * FROM TODOS WHERE ID = ? AND TITLE = ?", mapper,
+ *     Params.of().setLong(id).setString(title));
+ * }
+ * </pre>
+ *
+ * Instances are mutable and not thread-safe, so they should be created per call. Only the value arrays for
+ * the kinds of values which are added are allocated, so hot lookups by a few keys bind them without boxing.
+ *
+ * @author Tobias Erdle
+ */
+public final class Params {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private static final byte LONG = 0;
+  private static final byte INT = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte BOOLEAN = 3;
+  private static final byte STRING = 4;
+  private static final byte TIMESTAMP = 5;
+  private static final byte OBJECT = 6;
+  private static final byte NULL = 7;
+
+  // The value arrays are only allocated for the kinds of values which are added
+  private byte[] types = new byte[INITIAL_CAPACITY];
+  private long[] primitives;
+  private Object[] references;
+  private int size;
+
+  private Params() {
+  }
+
+  /**
+   * Creates an empty parameter list.
+   *
+   * @return the new instance
+   */
+  public static Params of() {
+    return new Params();
+  }
+
+  public Params setLong(final long value) {
+    return addPrimitive(LONG, value);
+  }
+
+  public Params setInt(final int value) {
+    return addPrimitive(INT, value);
+  }
+
+  public Params setDouble(final double value) {
+    return addPrimitive(DOUBLE, Double.doubleToRawLongBits(value));
+  }
+
+  public Params setBoolean(final boolean value) {
+    return addPrimitive(BOOLEAN, value ? 1 : 0);
+  }
+
+  public Params setString(final String value) {
+    return addReference(STRING, value);
+  }
+
+  public Params setTimestamp(final Timestamp value) {
+    return addReference(TIMESTAMP, value);
+  }
+
+  /**
+   * Adds a value which is bound by {@link PreparedStatement#setObject(int, Object)}.
+   *
+   * @param value the value to bind
+   * @return this instance
+   */
+  public Params setObject(final Object value) {
+    return addReference(OBJECT, value);
+  }
+
+  /**
+   * Adds an SQL {@code NULL} value.
+   *
+   * @param sqlType the SQL type code from {@link java.sql.Types}
+   * @return this instance
+   */
+  public Params setNull(final int sqlType) {
+    return addPrimitive(NULL, sqlType);
+  }
+
+  /**
+   * @return the number of parameters
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Binds all parameters to the statement, starting at index 1.
+   *
+   * @param pstmt the statement to bind the parameters to
+   * @throws SQLException in case the driver rejects a value
+   */
+  public void applyTo(final PreparedStatement pstmt) throws SQLException {
+    for (int i = 0; i < size; i++) {
+      final var index = i + 1;
+
+      switch (types[i]) {
+        case LONG:
+          pstmt.setLong(index, primitives[i]);
+          break;
+        case INT:
+          pstmt.setInt(index, (int) primitives[i]);
+          break;
+        case DOUBLE:
+          pstmt.setDouble(index, Double.longBitsToDouble(primitives[i]));
+          break;
+        case BOOLEAN:
+          pstmt.setBoolean(index, primitives[i] != 0);
+          break;
+        case STRING:
+          pstmt.setString(index, (String) references[i]);
+          break;
+        case TIMESTAMP:
+          pstmt.setTimestamp(index, (Timestamp) references[i]);
+          break;
+        case NULL:
+          pstmt.setNull(index, (int) primitives[i]);
+          break;
+        default:
+          pstmt.setObject(index, references[i]);
+      }
+    }
+  }
+
+  /**
+   * Returns the parameters as boxed values, e.g. for logging or exception messages.
+   *
+   * @return a new array containing all parameter values
+   */
+  public Object[] toArray() {
+    final var values = new Object[size];
+    for (int i = 0; i < size; i++) {
+      switch (types[i]) {
+        case LONG:
+          values[i] = primitives[i];
+          break;
+        case INT:
+          values[i] = (int) primitives[i];
+          break;
+        case DOUBLE:
+          values[i] = Double.longBitsToDouble(primitives[i]);
+          break;
+        case BOOLEAN:
+          values[i] = primitives[i] != 0;
+          break;
+        case NULL:
+          values[i] = null;
+          break;
+        default:
+          values[i] = references[i];
+      }
+    }
+
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private Params addPrimitive(final byte type, final long value) {
+    ensureCapacity();
+    if (primitives == null) {
+      primitives = new long[types.length];
+    }
+
+    types[size] = type;
+    primitives[size] = value;
+    size++;
+
+    return this;
+  }
+
+  private Params addReference(final byte type, final Object value) {
+    ensureCapacity();
+    if (references == null) {
+      references = new Object[types.length];
+    }
+
+    types[size] = type;
+    references[size] = value;
+    size++;
+
+    return this;
+  }
+
+  private void ensureCapacity() {
+    if (size == types.length) {
+      final var capacity = size * 2;
+      types = Arrays.copyOf(types, capacity);
+      primitives = primitives != null ? Arrays.copyOf(primitives, capacity) : null;
+      references = references != null ? Arrays.copyOf(references, capacity) : null;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.results;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the keys generated by the database for an inserted entity back onto the entity.
+ *
+ * @param <T> the type of the inserted entity
+ * @author Tobias Erdle
+ */
+@FunctionalInterface
+public interface KeySetter<T> {
+
+  /**
+   * Reads the generated keys of the entity from the current row and sets them onto the entity.
+   *
+   * @param entity the inserted entity
+   * @param keys the {@link ResultSet} of the generated keys, which is positioned on the entity's row and
+   *     must not be moved by this method
+   * @throws SQLException in case problems occur while accessing the {@link ResultSet}
+   */
+  void setKey(final T entity, final ResultSet keys) throws SQLException;
+
+}
@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.results;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * The numeric columns of a query result as parallel primitive arrays, so the values are neither boxed nor
+ * wrapped into one object per row. Integral columns are read as {@code long} values, all other numeric
+ * columns as {@code double} values. {@code NULL} values are read as {@code 0}.
+ * <p>
+ * The arrays are returned without copying, so callers should not modify them when the instance is
+ * shared.
+ *
+ * @author Tobias Erdle
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+    justification = "The arrays are handed out without copying to avoid doubling the memory of large results")
+public final class NumericColumns {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final String[] labels;
+  private final Object[] columns;
+  private final int size;
+
+  private NumericColumns(final String[] labels, final Object[] columns, final int size) {
+    this.labels = labels;
+    this.columns = columns;
+    this.size = size;
+  }
+
+  /**
+   * Reads all rows of the {@link ResultSet}. This method can be used as a {@link ResultSetExtractor}.
+   *
+   * @param rs the not closed {@link ResultSet}, which is positioned before the first row
+   * @return the columns of all rows
+   * @throws SQLException in case a column is not numeric or the {@link ResultSet} can't be read
+   */
+  public static NumericColumns read(final ResultSet rs) throws SQLException {
+    final var metaData = rs.getMetaData();
+    final var columnCount = metaData.getColumnCount();
+    final var labels = new String[columnCount];
+    final var integral = new boolean[columnCount];
+    final var columns = new Object[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      labels[i] = metaData.getColumnLabel(i + 1);
+      integral[i] = isIntegral(metaData, i + 1);
+      columns[i] = integral[i] ? new long[INITIAL_CAPACITY] : new double[INITIAL_CAPACITY];
+    }
+
+    var size = 0;
+    var capacity = INITIAL_CAPACITY;
+    while (rs.next()) {
+      if (size == capacity) {
+        capacity *= 2;
+        resize(columns, integral, capacity);
+      }
+
+      for (int i = 0; i < columnCount; i++) {
+        if (integral[i]) {
+          ((long[]) columns[i])[size] = rs.getLong(i + 1);
+        } else {
+          ((double[]) columns[i])[size] = rs.getDouble(i + 1);
+        }
+      }
+      size++;
+    }
+    if (size < capacity) {
+      resize(columns, integral, size);
+    }
+
+    return new NumericColumns(labels, columns, size);
+  }
+
+  /**
+   * @return the number of rows
+   */
+  public int size() {
+    return size;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  /**
+   * @param column the index of the column, starting at 1
+   * @return the label of the column
+   */
+  public String getLabel(final int column) {
+    return labels[index(column)];
+  }
+
+  /**
+   * Returns the values of an integral column.
+   *
+   * @param column the index of the column, starting at 1
+   * @return the values of all rows
+   * @throws IllegalArgumentException in case the column is not integral
+   */
+  public long[] getLongs(final int column) {
+    final var values = columns[index(column)];
+    if (!(values instanceof long[])) {
+      throw new IllegalArgumentException(
+          String.format("The column '%s' is not integral, so it can only be read as doubles", getLabel(column)));
+    }
+
+    return (long[]) values;
+  }
+
+  /**
+   * Returns the values of an integral column.
+   *
+   * @param label the label of the column, which is compared case insensitive
+   * @return the values of all rows
+   * @throws IllegalArgumentException in case there is no such column or it is not integral
+   */
+  public long[] getLongs(final String label) {
+    return getLongs(findColumn(label));
+  }
+
+  /**
+   * Returns the values of a column as {@code double} values. Integral columns are converted into a new
+   * array.
+   *
+   * @param column the index of the column, starting at 1
+   * @return the values of all rows
+   */
+  public double[] getDoubles(final int column) {
+    final var values = columns[index(column)];
+    if (values instanceof double[]) {
+      return (double[]) values;
+    }
+
+    final var longs = (long[]) values;
+    final var doubles = new double[longs.length];
+    for (int i = 0; i < longs.length; i++) {
+      doubles[i] = longs[i];
+    }
+
+    return doubles;
+  }
+
+  /**
+   * Returns the values of a column as {@code double} values like {@link #getDoubles(int)}.
+   *
+   * @param label the label of the column, which is compared case insensitive
+   * @return the values of all rows
+   * @throws IllegalArgumentException in case there is no such column
+   */
+  public double[] getDoubles(final String label) {
+    return getDoubles(findColumn(label));
+  }
+
+  private int index(final int column) {
+    if (column < 1 || column > columns.length) {
+      throw new IllegalArgumentException(
+          String.format("The column index must be between 1 and %d but was %d", columns.length, column));
+    }
+
+    return column - 1;
+  }
+
+  private int findColumn(final String label) {
+    for (int i = 0; i < labels.length; i++) {
+      if (labels[i].equalsIgnoreCase(label)) {
+        return i + 1;
+      }
+    }
+
+    throw new IllegalArgumentException("There is no column with the label " + label);
+  }
+
+  private static boolean isIntegral(final ResultSetMetaData metaData, final int column) throws SQLException {
+    switch (metaData.getColumnType(column)) {
+      case Types.BIGINT:
+      case Types.INTEGER:
+      case Types.SMALLINT:
+      case Types.TINYINT:
+      case Types.BIT:
+      case Types.BOOLEAN:
+        return true;
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        return metaData.getScale(column) == 0;
+      case Types.REAL:
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        return false;
+      default:
+        throw new SQLException(String.format("The column '%s' of type %s is not numeric",
+            metaData.getColumnLabel(column), metaData.getColumnTypeName(column)));
+    }
+  }
+
+  private static void resize(final Object[] columns, final boolean[] integral, final int capacity) {
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = integral[i]
+          ? Arrays.copyOf((long[]) columns[i], capacity)
+          : Arrays.copyOf((double[]) columns[i], capacity);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.results;
+
+import java.util.Iterator;
+
+/**
+ * {@link Iterator} which maps the rows of an open {@link java.sql.ResultSet} on demand. The
+ * underlying JDBC resources stay open until the iterator is either fully consumed or closed, so it
+ * should always be used inside a try-with-resources block.
+ *
+ * @param <T> the type of the mapped rows
+ * @author Tobias Erdle
+ */
+public interface ResultIterator<T> extends Iterator<T>, AutoCloseable {
+
+  /**
+   * Closes the {@link java.sql.ResultSet}, its statement and the connection. Calling this method
+   * more than once has no effect.
+   *
+   * @throws de.erdlet.jcrud.exception.DatabaseException in case the driver fails to release a resource
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,50 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.results;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Extractor which processes a complete {@link ResultSet} at once and computes a single result
+ * from it.
+ *
+ * @param <T> the type of the extracted result
+ * @author Tobias Erdle
+ */
+@FunctionalInterface
+public interface ResultSetExtractor<T> {
+
+  /**
+   * Extracts the result from the {@link ResultSet}. The {@link ResultSet} is positioned before
+   * the first row, so implementations are responsible for calling {@link ResultSet#next()}.
+   *
+   * @param rs the not closed {@link ResultSet}
+   * @return the extracted result
+   * @throws SQLException in case problems occur during the {@link ResultSet} processing
+   */
+  T extract(final ResultSet rs) throws SQLException;
+
+}
@@ -44,4 +44,51 @@ public interface RowMapper<T> {
    */
   T map(final ResultSet rs) throws SQLException;
 
+  /**
+   * Called once per {@link ResultSet} before the first row is mapped. The returned mapper is used for
+   * all rows of this {@link ResultSet}, so it can resolve column labels to indexes once instead of on
+   * every row. By default, this mapper itself is returned.
+   *
+   * @param rs the not closed {@link ResultSet} which is about to be mapped
+   * @return the mapper for all rows of the {@link ResultSet}
+   * @throws SQLException in case problems occur while accessing the {@link ResultSet}
+   */
+  default RowMapper<T> prepare(final ResultSet rs) throws SQLException {
+    return this;
+  }
+
+  /**
+   * Creates a mapper which runs the {@link RowMapperSetup} once per {@link ResultSet}. This allows
+   * readable label-based mappers which read the columns by index:
+   *
+   * <pre>
+   * {@code
+   * RowMapper.withSetup(rs -> {
+   *   final int title = rs.findColumn("title");
+   *   final int body = rs.findColumn("body");
+   *
+   *   return row -> new Todo(row.getString(title), row.getString(body));
+   * });
+   * }
+   * </pre>
+   *
+   * @param setup the setup which resolves the columns and creates the index-based mapper
+   * @param <T> the type of the expected result class
+   * @return the new mapper
+   */
+  static <T> RowMapper<T> withSetup(final RowMapperSetup<T> setup) {
+    return new RowMapper<>() {
+
+      @Override
+      public T map(final ResultSet rs) throws SQLException {
+        // Only reached when the mapper is used without preparation, e.g. by custom code
+        return setup.setUp(rs).map(rs);
+      }
+
+      @Override
+      public RowMapper<T> prepare(final ResultSet rs) throws SQLException {
+        return setup.setUp(rs);
+      }
+    };
+  }
 }
@@ -0,0 +1,50 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.results;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Creates the {@link RowMapper} for all rows of a single {@link ResultSet}.
+ *
+ * @param <T> the type of the expected result class
+ * @author Tobias Erdle
+ * @see RowMapper#withSetup(RowMapperSetup)
+ */
+@FunctionalInterface
+public interface RowMapperSetup<T> {
+
+  /**
+   * Resolves everything which is needed for mapping the rows, e.g. the column indexes by {@link
+   * ResultSet#findColumn(String)}, and creates the mapper.
+   *
+   * @param rs the not closed {@link ResultSet}, which must not be moved by this method
+   * @return the mapper for all rows of the {@link ResultSet}
+   * @throws SQLException in case problems occur while accessing the {@link ResultSet}
+   */
+  RowMapper<T> setUp(final ResultSet rs) throws SQLException;
+
+}
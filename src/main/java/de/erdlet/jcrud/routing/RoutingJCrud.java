@@ -0,0 +1,416 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.routing;
+
+import de.erdlet.jcrud.DelegatingJCrud;
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.batch.BatchOptions;
+import de.erdlet.jcrud.paging.Keyset;
+import de.erdlet.jcrud.paging.Page;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.KeySetter;
+import de.erdlet.jcrud.results.NumericColumns;
+import de.erdlet.jcrud.results.ResultIterator;
+import de.erdlet.jcrud.results.ResultSetExtractor;
+import de.erdlet.jcrud.results.RowCallbackHandler;
+import de.erdlet.jcrud.results.RowMapper;
+import de.erdlet.jcrud.scan.ScanOptions;
+import de.erdlet.jcrud.transaction.SessionCallback;
+import de.erdlet.jcrud.transaction.TransactionOptions;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+/**
+ * {@link JCrud} which sends writes to a primary database and reads to its replicas. Sessions and
+ * transactions always run on the primary, so all reads inside of them see the writes before. After a
+ * write, the reads of the writing thread stay on the primary for the sticky window of the
+ * {@link RoutingOptions}.
+ * <p>
+ * For {@link LoadBalancing#LEAST_IN_FLIGHT}, a read counts as running while the operation is executed.
+ * Lazy reads like {@code stream}, {@code iterate}, {@code scan} and {@code pages} only count until their
+ * results are returned, although they keep reading from the chosen replica afterwards.
+ *
+ * @author Tobias Erdle
+ */
+public class RoutingJCrud extends DelegatingJCrud {
+
+  private final List<JCrud> replicas;
+  private final LoadBalancing loadBalancing;
+  private final long stickyWindowNanos;
+
+  private final AtomicLong nextReplica = new AtomicLong();
+  private final AtomicIntegerArray inFlight;
+  // Holds the time of the thread's last write, an array avoids boxing on every write
+  private final ThreadLocal<long[]> lastWrite = ThreadLocal.withInitial(() -> new long[] {Long.MIN_VALUE});
+
+  /**
+   * Create a routing instance for the given data sources. Each of them is wrapped into a {@link JCrudImpl}.
+   *
+   * @param primary the {@link DataSource} of the primary database
+   * @param replicas the {@link DataSource}s of the replicas, which may be empty to read from the primary
+   * @param options the {@link RoutingOptions} defining how the reads are routed
+   */
+  public RoutingJCrud(final DataSource primary, final List<DataSource> replicas, final RoutingOptions options) {
+    this(new JCrudImpl(primary), replicas.stream().map(JCrudImpl::new).collect(Collectors.toList()), options);
+  }
+
+  /**
+   * Create a routing instance for the given {@link JCrud}s.
+   *
+   * @param primary the {@link JCrud} of the primary database
+   * @param replicas the {@link JCrud}s of the replicas, which may be empty to read from the primary
+   * @param options the {@link RoutingOptions} defining how the reads are routed
+   */
+  public RoutingJCrud(final JCrud primary, final List<? extends JCrud> replicas, final RoutingOptions options) {
+    super(primary);
+    this.replicas = List.copyOf(replicas);
+    this.loadBalancing = options.getLoadBalancing();
+    this.stickyWindowNanos = options.getStickyWindow().toNanos();
+    this.inFlight = new AtomicIntegerArray(replicas.size());
+  }
+
+  @Override
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return read(replica -> replica.select(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Params params) {
+    return read(replica -> replica.select(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> Stream<T> stream(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return read(replica -> replica.stream(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> Stream<T> stream(final String query, final int fetchSize, final RowMapper<T> rowMapper,
+      final Object... params) {
+    return read(replica -> replica.stream(query, fetchSize, rowMapper, params));
+  }
+
+  @Override
+  public <T> Stream<T> scan(final String query, final RowMapper<T> rowMapper, final ScanOptions options,
+      final Object... params) {
+    return read(replica -> replica.scan(query, rowMapper, options, params));
+  }
+
+  @Override
+  public <T> ResultIterator<T> iterate(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return read(replica -> replica.iterate(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> ResultIterator<T> iterate(final String query, final int fetchSize, final RowMapper<T> rowMapper,
+      final Object... params) {
+    return read(replica -> replica.iterate(query, fetchSize, rowMapper, params));
+  }
+
+  @Override
+  public <T, K> Page<T, K> selectPage(final String query, final RowMapper<T> rowMapper, final Keyset<T, K> keyset,
+      final K after, final Object... params) {
+    return read(replica -> replica.selectPage(query, rowMapper, keyset, after, params));
+  }
+
+  @Override
+  public <T, K> Iterator<Page<T, K>> pages(final String query, final RowMapper<T> rowMapper,
+      final Keyset<T, K> keyset, final Object... params) {
+    return read(replica -> replica.pages(query, rowMapper, keyset, params));
+  }
+
+  @Override
+  public void query(final String query, final RowCallbackHandler rowCallbackHandler, final Object... params) {
+    read(replica -> {
+      replica.query(query, rowCallbackHandler, params);
+      return null;
+    });
+  }
+
+  @Override
+  public <T> T extract(final String query, final ResultSetExtractor<T> resultSetExtractor, final Object... params) {
+    return read(replica -> replica.extract(query, resultSetExtractor, params));
+  }
+
+  @Override
+  public long[] selectLongs(final String query, final Object... params) {
+    return read(replica -> replica.selectLongs(query, params));
+  }
+
+  @Override
+  public int[] selectInts(final String query, final Object... params) {
+    return read(replica -> replica.selectInts(query, params));
+  }
+
+  @Override
+  public double[] selectDoubles(final String query, final Object... params) {
+    return read(replica -> replica.selectDoubles(query, params));
+  }
+
+  @Override
+  public NumericColumns selectColumns(final String query, final Object... params) {
+    return read(replica -> replica.selectColumns(query, params));
+  }
+
+  @Override
+  public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return read(replica -> replica.selectSingle(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Params params) {
+    return read(replica -> replica.selectSingle(query, rowMapper, params));
+  }
+
+  @Override
+  public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+    try {
+      super.insert(statement, entity, paramSetter);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> void insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter) {
+    try {
+      super.insert(statement, entities, paramSetter);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T, K> K insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+      final RowMapper<K> keyMapper) {
+    try {
+      return super.insert(statement, entity, paramSetter, keyMapper);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> void insert(final String statement, final T entity, final ParamSetter<T> paramSetter,
+      final KeySetter<T> keySetter) {
+    try {
+      super.insert(statement, entity, paramSetter, keySetter);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T, K> List<K> insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final RowMapper<K> keyMapper, final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, keyMapper, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> long[] insert(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final KeySetter<T> keySetter, final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, keySetter, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> long insert(final String statement, final Iterator<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> long insert(final String statement, final Stream<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> long insert(final String statement, final Flow.Publisher<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.insert(statement, entities, paramSetter, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> void update(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+    try {
+      super.update(statement, entity, paramSetter);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> long[] update(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.update(statement, entities, paramSetter, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> void delete(final String statement, final T entity, final ParamSetter<T> paramSetter) {
+    try {
+      super.delete(statement, entity, paramSetter);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <T> long[] delete(final String statement, final List<T> entities, final ParamSetter<T> paramSetter,
+      final BatchOptions options) {
+    try {
+      return super.delete(statement, entities, paramSetter, options);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public long count(final String query, final Object... params) {
+    return read(replica -> replica.count(query, params));
+  }
+
+  @Override
+  public long count(final String query, final Params params) {
+    return read(replica -> replica.count(query, params));
+  }
+
+  @Override
+  public <R> R inSession(final SessionCallback<R> callback) {
+    try {
+      return super.inSession(callback);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <R> R inTransaction(final SessionCallback<R> callback) {
+    try {
+      return super.inTransaction(callback);
+    } finally {
+      markWrite();
+    }
+  }
+
+  @Override
+  public <R> R inTransaction(final TransactionOptions options, final SessionCallback<R> callback) {
+    try {
+      return super.inTransaction(options, callback);
+    } finally {
+      markWrite();
+    }
+  }
+
+  private <R> R read(final Function<JCrud, R> operation) {
+    if (replicas.isEmpty() || wroteRecently()) {
+      return operation.apply(getDelegate());
+    }
+
+    final var replica = chooseReplica();
+    inFlight.incrementAndGet(replica);
+    try {
+      return operation.apply(replicas.get(replica));
+    } finally {
+      inFlight.decrementAndGet(replica);
+    }
+  }
+
+  private int chooseReplica() {
+    // The rotating start spreads the reads over all replicas, which are equally loaded
+    final var start = (int) Math.floorMod(nextReplica.getAndIncrement(), (long) replicas.size());
+    if (loadBalancing == LoadBalancing.ROUND_ROBIN) {
+      return start;
+    }
+
+    var chosen = start;
+    var fewest = inFlight.get(start);
+    for (var i = 1; i < replicas.size() && fewest > 0; i++) {
+      final var candidate = (start + i) % replicas.size();
+      final var running = inFlight.get(candidate);
+      if (running < fewest) {
+        chosen = candidate;
+        fewest = running;
+      }
+    }
+
+    return chosen;
+  }
+
+  private boolean wroteRecently() {
+    final var lastWriteNanos = lastWrite.get()[0];
+
+    return lastWriteNanos != Long.MIN_VALUE && System.nanoTime() - lastWriteNanos < stickyWindowNanos;
+  }
+
+  private void markWrite() {
+    if (stickyWindowNanos > 0) {
+      lastWrite.get()[0] = System.nanoTime();
+    }
+  }
+}
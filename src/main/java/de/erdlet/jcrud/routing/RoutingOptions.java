@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.routing;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Immutable settings for a {@link RoutingJCrud}.
+ * <p>
+ * Replicas usually lag behind the primary, so a thread which has just written wouldn't find its own
+ * writes on a replica. Therefore, the reads of a thread stay on the primary for the sticky window after
+ * its last write.
+ *
+ * @author Tobias Erdle
+ */
+public final class RoutingOptions {
+
+  /**
+   * The default time the reads of a thread stay on the primary after its last write.
+   */
+  public static final Duration DEFAULT_STICKY_WINDOW = Duration.ofSeconds(1L);
+
+  private static final RoutingOptions DEFAULTS = new RoutingOptions(LoadBalancing.ROUND_ROBIN, DEFAULT_STICKY_WINDOW);
+
+  private final LoadBalancing loadBalancing;
+  private final Duration stickyWindow;
+
+  private RoutingOptions(final LoadBalancing loadBalancing, final Duration stickyWindow) {
+    this.loadBalancing = loadBalancing;
+    this.stickyWindow = stickyWindow;
+  }
+
+  /**
+   * Options which balance the reads round-robin and keep them on the primary for
+   * {@link #DEFAULT_STICKY_WINDOW} after a write.
+   *
+   * @return the default options
+   */
+  public static RoutingOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Creates a copy of these options with the given strategy to choose a replica.
+   *
+   * @param loadBalancing the {@link LoadBalancing} strategy
+   * @return the new options
+   */
+  public RoutingOptions withLoadBalancing(final LoadBalancing loadBalancing) {
+    return new RoutingOptions(Objects.requireNonNull(loadBalancing), stickyWindow);
+  }
+
+  /**
+   * Creates a copy of these options with the given sticky window.
+   *
+   * @param stickyWindow the time the reads of a thread stay on the primary after its last write or
+   *     {@link Duration#ZERO} to always read from the replicas
+   * @return the new options
+   */
+  public RoutingOptions withStickyWindow(final Duration stickyWindow) {
+    if (stickyWindow.isNegative()) {
+      throw new IllegalArgumentException("The sticky window must not be negative but was " + stickyWindow);
+    }
+
+    return new RoutingOptions(loadBalancing, stickyWindow);
+  }
+
+  public LoadBalancing getLoadBalancing() {
+    return loadBalancing;
+  }
+
+  public Duration getStickyWindow() {
+    return stickyWindow;
+  }
+}
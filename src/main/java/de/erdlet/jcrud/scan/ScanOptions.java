@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.scan;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable settings for a parallel scan, which splits a query into range sub-queries over a numeric or
+ * timestamp key. Every partition is read on its own connection, so the pool of the
+ * {@link javax.sql.DataSource} should provide at least as many connections as there are partitions.
+ * <p>
+ * The bounds only decide where the partitions are split. The first partition includes all keys below
+ * and the last partition all keys above the range, so no row is lost when the bounds are estimated.
+ * Rows with a {@code NULL} key are skipped when more than one partition is used.
+ * <p>
+ * Every partition is a statement of its own, so the partitions are not read from a shared snapshot.
+ * Rows which are changed while the scan runs may be missed or read twice when their key moves between
+ * partitions, and the partitions may see each other's concurrent changes differently.
+ * <p>
+ * By default the partitions of all scans are read by a shared pool of at most {@link #DEFAULT_MAX_THREADS}
+ * daemon threads, so concurrent scans can't open an unbounded number of threads and connections. Partitions
+ * beyond that wait until a thread is free, so a scan started while consuming another one should be given an
+ * {@link Executor} of its own. A caller-supplied executor sets the concurrency instead.
+ * <p>
+ * A partition holds its thread and connection until the consumer has read it or closed the stream, so
+ * scan streams have to be closed in case they aren't fully read.
+ *
+ * @author Tobias Erdle
+ */
+public final class ScanOptions {
+
+  // The column is put into the statement as it is, so only plain identifiers are accepted
+  private static final Pattern COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+  /**
+   * The number of threads of the default executor, which read the partitions of all scans.
+   */
+  public static final int DEFAULT_MAX_THREADS = 16;
+
+  private static final Executor SHARED_POOL = createSharedPool();
+
+  private final String keyColumn;
+  private final long lowerBound;
+  private final long upperBound;
+  private final LongFunction<Object> boundaryValue;
+  private final int partitions;
+  private final boolean ordered;
+  private final int fetchSize;
+  private final Executor executor;
+
+  private ScanOptions(final String keyColumn, final long lowerBound, final long upperBound,
+      final LongFunction<Object> boundaryValue, final int partitions, final boolean ordered, final int fetchSize,
+      final Executor executor) {
+    this.keyColumn = keyColumn;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    this.boundaryValue = boundaryValue;
+    this.partitions = partitions;
+    this.ordered = ordered;
+    this.fetchSize = fetchSize;
+    this.executor = executor;
+  }
+
+  /**
+   * Options which split the numeric key range into one partition per available processor.
+   *
+   * @param keyColumn the label of the selected key column
+   * @param lowerBound the expected smallest key
+   * @param upperBound the expected largest key
+   * @return the new options
+   */
+  public static ScanOptions byRange(final String keyColumn, final long lowerBound, final long upperBound) {
+    return byRange(keyColumn, lowerBound, upperBound, Long::valueOf);
+  }
+
+  /**
+   * Options which split the timestamp key range into one partition per available processor. The
+   * partitions are split at full milliseconds.
+   *
+   * @param keyColumn the label of the selected key column
+   * @param lowerBound the expected earliest key
+   * @param upperBound the expected latest key
+   * @return the new options
+   */
+  public static ScanOptions byRange(final String keyColumn, final Instant lowerBound, final Instant upperBound) {
+    return byRange(keyColumn, lowerBound.toEpochMilli(), upperBound.toEpochMilli(), Timestamp::new);
+  }
+
+  private static ScanOptions byRange(final String keyColumn, final long lowerBound, final long upperBound,
+      final LongFunction<Object> boundaryValue) {
+    if (!COLUMN.matcher(keyColumn).matches()) {
+      throw new IllegalArgumentException("The key column must be a plain column label but was " + keyColumn);
+    }
+    if (lowerBound > upperBound) {
+      throw new IllegalArgumentException(
+          String.format("The lower bound %d must not be greater than the upper bound %d", lowerBound, upperBound));
+    }
+    if (upperBound - lowerBound < 0) {
+      throw new IllegalArgumentException("The key range is too wide to be partitioned");
+    }
+
+    return new ScanOptions(keyColumn, lowerBound, upperBound, boundaryValue,
+        Runtime.getRuntime().availableProcessors(), false, 0, SHARED_POOL);
+  }
+
+  /**
+   * Creates a copy of these options with the given number of partitions.
+   *
+   * @param partitions the number of sub-queries, which has to be positive
+   * @return the new options
+   */
+  public ScanOptions withPartitions(final int partitions) {
+    if (partitions < 1) {
+      throw new IllegalArgumentException("The number of partitions must be positive but was " + partitions);
+    }
+
+    return new ScanOptions(keyColumn, lowerBound, upperBound, boundaryValue, partitions, ordered, fetchSize, executor);
+  }
+
+  /**
+   * Creates a copy of these options, which returns the entities in key order. The partitions are still
+   * read in parallel, but every sub-query is sorted by the key.
+   *
+   * @return the new options
+   */
+  public ScanOptions ordered() {
+    return new ScanOptions(keyColumn, lowerBound, upperBound, boundaryValue, partitions, true, fetchSize, executor);
+  }
+
+  /**
+   * Creates a copy of these options with the given fetch size for every sub-query.
+   *
+   * @param fetchSize the number of rows fetched per round trip or {@code 0} for the driver's default
+   * @return the new options
+   */
+  public ScanOptions withFetchSize(final int fetchSize) {
+    if (fetchSize < 0) {
+      throw new IllegalArgumentException("The fetch size must not be negative but was " + fetchSize);
+    }
+
+    return new ScanOptions(keyColumn, lowerBound, upperBound, boundaryValue, partitions, ordered, fetchSize, executor);
+  }
+
+  /**
+   * Creates a copy of these options, which reads the partitions on the given executor. Every partition
+   * blocks a thread of the executor as long as its cursor is open, so it shouldn't be a pool for short
+   * tasks like the common {@link java.util.concurrent.ForkJoinPool}.
+   *
+   * @param executor the executor running one task per partition
+   * @return the new options
+   */
+  public ScanOptions withExecutor(final Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("The executor must not be null");
+    }
+
+    return new ScanOptions(keyColumn, lowerBound, upperBound, boundaryValue, partitions, ordered, fetchSize, executor);
+  }
+
+  public String getKeyColumn() {
+    return keyColumn;
+  }
+
+  public int getPartitions() {
+    return partitions;
+  }
+
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Splits the range into equally wide partitions. Narrow ranges yield fewer partitions, so no
+   * partition is empty by definition.
+   *
+   * @return the ascending keys at which the partitions are split, as parameters for the sub-queries
+   */
+  public List<Object> getBoundaries() {
+    // The range includes both bounds, only the widest range lacks one key to avoid the overflow
+    final var width = upperBound - lowerBound == Long.MAX_VALUE ? Long.MAX_VALUE : upperBound - lowerBound + 1;
+
+    // lowerBound + i * width / partitions without overflowing the multiplication
+    final var quotient = width / partitions;
+    final var remainder = width % partitions;
+
+    final var boundaries = new ArrayList<>();
+    var previous = lowerBound;
+    for (var i = 1; i < partitions; i++) {
+      final var boundary = lowerBound + i * quotient + i * remainder / partitions;
+      if (boundary > previous) {
+        boundaries.add(boundaryValue.apply(boundary));
+        previous = boundary;
+      }
+    }
+
+    return Collections.unmodifiableList(boundaries);
+  }
+
+  private static Executor createSharedPool() {
+    final var threadNumber = new AtomicInteger();
+    final var pool = new ThreadPoolExecutor(DEFAULT_MAX_THREADS, DEFAULT_MAX_THREADS, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+          final var thread = new Thread(runnable, "jcrud-scan-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    // Idle threads end, so the pool costs nothing while no scan runs
+    pool.allowCoreThreadTimeOut(true);
+
+    return pool;
+  }
+}
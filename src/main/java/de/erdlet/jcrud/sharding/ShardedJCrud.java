@@ -0,0 +1,337 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.sharding;
+
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.exception.TooManyResultsException;
+import de.erdlet.jcrud.parameter.Params;
+import de.erdlet.jcrud.results.RowMapper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.sql.DataSource;
+
+/**
+ * Access to data which is partitioned over several databases by a shard key. Operations concerning a
+ * single key, including sessions and transactions, are executed by the {@link JCrud} of the owning shard,
+ * which is returned by {@link #onShard(Object)}. Cross-shard queries are sent to all shards at the same
+ * time, so they take about as long as the slowest shard. Their results are merged in the order of the
+ * shards, counts are summed up.
+ * <p>
+ * Every cross-shard query occupies one thread per shard but the first one until its results are read,
+ * and concurrent queries don't wait for each other. The own thread pool therefore grows with the number
+ * of concurrent callers and is only bounded by the connection pools of the shards. Under load, an
+ * {@link Executor} of a fixed size, e.g. the concurrent callers times the shards, should be supplied.
+ * <p>
+ * Writes without a shard key aren't offered, as the owning shard of an entity can't be told in general.
+ * They can be sent to single shards by {@link #getShards()}.
+ *
+ * @param <K> the type of the shard key
+ * @author Tobias Erdle
+ */
+public final class ShardedJCrud<K> implements AutoCloseable {
+
+  private final Map<String, JCrud> shards;
+  private final List<JCrud> shardList;
+  private final ShardResolver<K> resolver;
+  private final Executor executor;
+  private final ExecutorService ownedExecutor;
+
+  /**
+   * Create an instance with a {@link JCrudImpl} per {@link DataSource} and an own cached thread pool for
+   * the cross-shard queries, which is shut down by {@link #close()}.
+   *
+   * @param shards the {@link DataSource}s by the names of their shards
+   * @param resolver the {@link ShardResolver} which resolves the names of the owning shards
+   */
+  public ShardedJCrud(final Map<String, DataSource> shards, final ShardResolver<K> resolver) {
+    this(toJCruds(shards), resolver, createExecutor(), true);
+  }
+
+  /**
+   * Create an instance for the given {@link JCrud}s. The {@link Executor} runs the cross-shard queries
+   * and is not shut down by {@link #close()}.
+   *
+   * @param shards the {@link JCrud}s by the names of their shards
+   * @param resolver the {@link ShardResolver} which resolves the names of the owning shards
+   * @param executor the {@link Executor} running the queries of all shards but one, which should have a
+   * thread per shard and concurrent cross-shard query
+   */
+  public ShardedJCrud(final Map<String, ? extends JCrud> shards, final ShardResolver<K> resolver,
+      final Executor executor) {
+    this(new LinkedHashMap<>(shards), resolver, executor, false);
+  }
+
+  private ShardedJCrud(final Map<String, JCrud> shards, final ShardResolver<K> resolver, final Executor executor,
+      final boolean ownsExecutor) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+
+    this.shards = Collections.unmodifiableMap(shards);
+    this.shardList = List.copyOf(shards.values());
+    this.resolver = resolver;
+    this.executor = executor;
+    this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+  }
+
+  /**
+   * The {@link JCrud} of the shard owning the key.
+   *
+   * @param shardKey the shard key
+   * @return the {@link JCrud} of the owning shard
+   * @throws IllegalArgumentException in case the resolved shard is unknown
+   */
+  public JCrud onShard(final K shardKey) {
+    final var name = resolver.resolve(shardKey);
+    final var shard = shards.get(name);
+    if (shard == null) {
+      throw new IllegalArgumentException(String.format("Unknown shard '%s' for key '%s'", name, shardKey));
+    }
+
+    return shard;
+  }
+
+  /**
+   * @return the {@link JCrud}s of all shards by their names
+   */
+  public Map<String, JCrud> getShards() {
+    return shards;
+  }
+
+  /**
+   * Cross-shard variant of {@link JCrud#select(String, RowMapper, Object...)}.
+   *
+   * @param query the query to be executed on every shard
+   * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+   * @param params optional parameters for the statement
+   * @param <T> the type of the result entity
+   * @return the entities of all shards in the order of the shards
+   */
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    return concat(scatter(shard -> shard.select(query, rowMapper, params)));
+  }
+
+  /**
+   * Cross-shard variant of {@link JCrud#select(String, RowMapper, Params)}.
+   *
+   * @param query the query to be executed on every shard
+   * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+   * @param params the typed {@link Params} for the statement
+   * @param <T> the type of the result entity
+   * @return the entities of all shards in the order of the shards
+   */
+  public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Params params) {
+    return concat(scatter(shard -> shard.select(query, rowMapper, params)));
+  }
+
+  /**
+   * Cross-shard select, which merges the sorted results of all shards and keeps the first entities. The
+   * query has to sort by the same order as the comparator and should limit its results itself, so no shard
+   * returns more entities than needed.
+   *
+   * @param query the query to be executed on every shard, which sorts its results
+   * @param rowMapper the {@link RowMapper} for mapping each row of the {@link java.sql.ResultSet}
+   * @param order the {@link Comparator} of the order the query sorts by
+   * @param limit the maximum number of returned entities
+   * @param params optional parameters for the statement
+   * @param <T> the type of the result entity
+   * @return the first entities of all shards by the given order
+   */
+  public <T> List<T> selectSorted(final String query, final RowMapper<T> rowMapper,
+      final Comparator<? super T> order, final int limit, final Object... params) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("The limit must not be negative but was " + limit);
+    }
+
+    return merge(scatter(shard -> shard.select(query, rowMapper, params)), order, limit);
+  }
+
+  /**
+   * Cross-shard variant of {@link JCrud#selectSingle(String, RowMapper, Object...)}.
+   *
+   * @param query the query to be executed on every shard
+   * @param rowMapper the {@link RowMapper} for mapping the row of the {@link java.sql.ResultSet}
+   * @param params optional parameters for the statement
+   * @param <T> the type of the result entity
+   * @return the entity found on one of the shards or an empty {@link Optional}
+   * @throws TooManyResultsException in case more than one entity was found over all shards
+   */
+  public <T> Optional<T> selectSingle(final String query, final RowMapper<T> rowMapper, final Object... params) {
+    Optional<T> result = Optional.empty();
+    for (final var found : scatter(shard -> shard.selectSingle(query, rowMapper, params))) {
+      if (found.isPresent()) {
+        if (result.isPresent()) {
+          throw new TooManyResultsException(query, params);
+        }
+        result = found;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Cross-shard variant of {@link JCrud#count(String, Object...)}.
+   *
+   * @param query the query to be executed on every shard. It is expected to be a SELECT COUNT statement.
+   * @param params optional parameters for the statement
+   * @return the sum of the counts of all shards
+   */
+  public long count(final String query, final Object... params) {
+    return scatter(shard -> shard.count(query, params)).stream().mapToLong(Long::longValue).sum();
+  }
+
+  /**
+   * Cross-shard variant of {@link JCrud#count(String, Params)}.
+   *
+   * @param query the query to be executed on every shard. It is expected to be a SELECT COUNT statement.
+   * @param params the typed {@link Params} for the statement
+   * @return the sum of the counts of all shards
+   */
+  public long count(final String query, final Params params) {
+    return scatter(shard -> shard.count(query, params)).stream().mapToLong(Long::longValue).sum();
+  }
+
+  @Override
+  public void close() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+
+  private <R> List<R> scatter(final Function<JCrud, R> operation) {
+    final var futures = new ArrayList<CompletableFuture<R>>(shardList.size() - 1);
+    for (final var shard : shardList.subList(1, shardList.size())) {
+      futures.add(CompletableFuture.supplyAsync(() -> operation.apply(shard), executor));
+    }
+
+    // The calling thread queries the first shard itself instead of only waiting for the others
+    final var results = new ArrayList<R>(shardList.size());
+    results.add(operation.apply(shardList.get(0)));
+    for (final var future : futures) {
+      results.add(join(future));
+    }
+
+    return results;
+  }
+
+  private static <R> R join(final CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException ex) {
+      // Rethrows the exception of the operation, e.g. a DatabaseException, like a local call would
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  private static <T> List<T> concat(final List<List<T>> results) {
+    final var merged = new ArrayList<T>(results.stream().mapToInt(List::size).sum());
+    results.forEach(merged::addAll);
+
+    return merged;
+  }
+
+  private static <T> List<T> merge(final List<List<T>> results, final Comparator<? super T> order,
+      final int limit) {
+    // k-way merge of the sorted shard results, which stops as soon as the limit is reached
+    final var heads = new PriorityQueue<Head<T>>(results.size(), (a, b) -> order.compare(a.value, b.value));
+    for (final var result : results) {
+      final var iterator = result.iterator();
+      if (iterator.hasNext()) {
+        heads.add(new Head<>(iterator));
+      }
+    }
+
+    final var merged = new ArrayList<T>();
+    while (merged.size() < limit && !heads.isEmpty()) {
+      final var head = heads.poll();
+      merged.add(head.value);
+      if (head.advance()) {
+        heads.add(head);
+      }
+    }
+
+    return merged;
+  }
+
+  private static Map<String, JCrud> toJCruds(final Map<String, DataSource> dataSources) {
+    final var jcruds = new LinkedHashMap<String, JCrud>();
+    dataSources.forEach((name, dataSource) -> jcruds.put(name, new JCrudImpl(dataSource)));
+
+    return jcruds;
+  }
+
+  private static ExecutorService createExecutor() {
+    final var threadNumber = new AtomicInteger();
+
+    // A fixed pool would queue the shard queries of concurrent callers behind each other
+    return Executors.newCachedThreadPool(runnable -> {
+      final var thread = new Thread(runnable, "jcrud-shard-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private static final class Head<T> {
+
+    private final Iterator<T> remaining;
+    private T value;
+
+    Head(final Iterator<T> remaining) {
+      this.remaining = remaining;
+      this.value = remaining.next();
+    }
+
+    boolean advance() {
+      if (!remaining.hasNext()) {
+        return false;
+      }
+
+      value = remaining.next();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.transaction;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable settings which are applied to the connection when a transaction begins. The previous
+ * settings of the connection are restored after the transaction has finished.
+ *
+ * @author Tobias Erdle
+ */
+public final class TransactionOptions {
+
+  private static final TransactionOptions DEFAULTS = new TransactionOptions(null, false);
+
+  private final IsolationLevel isolationLevel;
+  private final boolean readOnly;
+
+  private TransactionOptions(final IsolationLevel isolationLevel, final boolean readOnly) {
+    this.isolationLevel = isolationLevel;
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * Options which keep the isolation level of the connection and start a read-write transaction.
+   *
+   * @return the default options
+   */
+  public static TransactionOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Creates a copy of these options with the given isolation level.
+   *
+   * @param isolationLevel the isolation level of the transaction
+   * @return the new options
+   */
+  public TransactionOptions withIsolationLevel(final IsolationLevel isolationLevel) {
+    return new TransactionOptions(Objects.requireNonNull(isolationLevel), readOnly);
+  }
+
+  /**
+   * Creates a copy of these options, which hints the driver that the transaction doesn't modify any
+   * data.
+   *
+   * @return the new options
+   */
+  public TransactionOptions readOnly() {
+    return new TransactionOptions(isolationLevel, true);
+  }
+
+  public Optional<IsolationLevel> getIsolationLevel() {
+    return Optional.ofNullable(isolationLevel);
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+}
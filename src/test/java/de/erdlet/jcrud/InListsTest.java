@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.erdlet.jcrud.parameter.InList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class InListsTest {
+
+    @Test
+    void padsCollectionsToTheNextBucketWithTheirLastValue() {
+        final var expanded = InLists.expand("SELECT * FROM T WHERE A = ? AND B IN (?)",
+            new Object[] {"a", InList.of(List.of(1, 2, 2, 3, 4, 5))});
+
+        assertEquals("SELECT * FROM T WHERE A = ? AND B IN (" + placeholders(16) + ")", expanded.getQuery());
+        assertEquals(17, expanded.getParams().length);
+        assertArrayEquals(new Object[] {"a", 1, 2, 3, 4, 5, 5}, Arrays.copyOf(expanded.getParams(), 7));
+        assertEquals(5, expanded.getParams()[16]);
+    }
+
+    @Test
+    void ignoresQuestionMarksInLiteralsAndComments() {
+        final var expanded = InLists.expand(
+            "SELECT '?', \"?\" FROM T -- ?\n WHERE /* ? */ B IN (?)", new Object[] {InList.of(List.of(1, 2))});
+
+        assertEquals("SELECT '?', \"?\" FROM T -- ?\n WHERE /* ? */ B IN (?, ?, ?, ?)", expanded.getQuery());
+    }
+
+    @Test
+    void expandsTheLargestListIntoOneStatement() {
+        final var values = IntStream.range(0, InList.MAX_SIZE).boxed().collect(Collectors.toList());
+
+        final var expanded = InLists.expand("SELECT * FROM T WHERE B IN (?)", new Object[] {InList.of(values)});
+
+        assertEquals(InList.MAX_SIZE, expanded.getParams().length);
+        assertArrayEquals(values.toArray(), expanded.getParams());
+    }
+
+    @Test
+    void rejectsStatementsWithTooManyParams() {
+        final var values = InList.of(IntStream.range(0, 257).boxed().collect(Collectors.toList()));
+
+        assertThrows(IllegalArgumentException.class, () -> InLists.expand(
+            "SELECT * FROM T WHERE A IN (?) OR B IN (?) OR C = ?", new Object[] {values, values, 1}));
+    }
+
+    @Test
+    void expandsOnlyInLists() {
+        assertTrue(InLists.containsInList(new Object[] {1, InList.of(List.of(1))}));
+        assertFalse(InLists.containsInList(new Object[] {1, List.of(1)}));
+    }
+
+    @Test
+    void rejectsParamsWhichDoNotMatchThePlaceholders() {
+        assertThrows(IllegalArgumentException.class,
+            () -> InLists.expand("SELECT * FROM T WHERE B IN (?)", new Object[] {InList.of(List.of(1)), 2}));
+    }
+
+    private static String placeholders(final int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
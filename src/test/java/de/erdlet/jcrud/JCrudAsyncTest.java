@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import de.erdlet.jcrud.batch.BatchOptions;
+import de.erdlet.jcrud.exception.InvalidStatementException;
+import de.erdlet.jcrud.helper.model.Todo;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JCrudAsyncTest {
+
+    private static BasicDataSource dataSource;
+    private JCrudAsync systemUnderTest;
+
+    @BeforeAll
+    static void initDatabase() throws Exception {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:async");
+        ds.setUsername("sa");
+
+        try (final var conn = ds.getConnection();
+            final var statement = conn.prepareStatement(
+                "CREATE TABLE TODOS (ID INT PRIMARY KEY AUTO_INCREMENT, TITLE VARCHAR NOT NULL, BODY VARCHAR)")) {
+            statement.execute();
+        }
+
+        dataSource = ds;
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.systemUnderTest = new JCrudAsync(new JCrudImpl(dataSource), 4);
+    }
+
+    @AfterEach
+    void truncateTablesAfterTest() throws SQLException {
+        systemUnderTest.close();
+
+        try (final var conn = dataSource.getConnection();
+            final var statement = conn.prepareStatement("TRUNCATE TABLE TODOS")) {
+            statement.execute();
+        }
+    }
+
+    @AfterAll
+    static void closeDb() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    void testOperationsCompleteWithResultsOfJCrud() {
+        final var todos = List.of(new Todo("First todo", "first"), new Todo("Second todo", "second"));
+
+        final var counts = systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", todos,
+            (todo, pstmt) -> {
+                pstmt.setString(1, todo.getTitle());
+                pstmt.setString(2, todo.getBody());
+            }, BatchOptions.defaults()).join();
+
+        final var selected = systemUnderTest.select("SELECT * FROM TODOS",
+            rs -> new Todo(rs.getString("title"), rs.getString("body")));
+        final var single = systemUnderTest.selectSingle("SELECT * FROM TODOS t WHERE t.title = ?",
+            rs -> rs.getString("body"), "Second todo");
+        final var count = systemUnderTest.count("SELECT COUNT(*) FROM TODOS");
+
+        assertArrayEquals(new long[] {1L, 1L}, counts);
+        assertEquals(todos, selected.join());
+        assertEquals("second", single.join().get());
+        assertEquals(2L, count.join());
+    }
+
+    @Test
+    void testIndependentQueriesRunConcurrently() throws Exception {
+        final var started = new CountDownLatch(2);
+
+        final var first = systemUnderTest.select("SELECT 1", rs -> awaitOther(started));
+        final var second = systemUnderTest.select("SELECT 2", rs -> awaitOther(started));
+
+        assertEquals(List.of(true), first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true), second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailingOperationCompletesExceptionally() {
+        final CompletableFuture<Void> result = systemUnderTest.delete("SELECT * FROM TODOS", "entity",
+            (entity, pstmt) -> {
+            });
+
+        final var ex = assertThrows(CompletionException.class, result::join);
+        assertTrue(ex.getCause() instanceof InvalidStatementException);
+    }
+
+    @Test
+    void testConstructorThrowsExceptionWhenMaxConnectionsIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new JCrudAsync(new JCrudImpl(dataSource), 0));
+    }
+
+    private static boolean awaitOther(final CountDownLatch started) {
+        started.countDown();
+
+        try {
+            return started.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -22,21 +22,59 @@
 package de.erdlet.jcrud;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import de.erdlet.jcrud.batch.BatchOptions;
+import de.erdlet.jcrud.exception.DatabaseException;
 import de.erdlet.jcrud.exception.InvalidStatementException;
 import de.erdlet.jcrud.exception.TooManyResultsException;
 import de.erdlet.jcrud.helper.model.Todo;
+import de.erdlet.jcrud.monitoring.Execution;
+import de.erdlet.jcrud.monitoring.Operation;
+import de.erdlet.jcrud.paging.Keyset;
+import de.erdlet.jcrud.paging.LimitSyntax;
+import de.erdlet.jcrud.parameter.InList;
 import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.parameter.Params;
 import de.erdlet.jcrud.results.RowMapper;
+import de.erdlet.jcrud.scan.ScanOptions;
+import de.erdlet.jcrud.transaction.IsolationLevel;
+import de.erdlet.jcrud.transaction.TransactionOptions;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import javax.sql.DataSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -99,6 +137,355 @@ class JCrudImplTest {
             () -> assertEquals(todo3, result.get(2)));
     }
 
+    @Test
+    void testSelectWithSetupMapperResolvesColumnsOncePerQuery() {
+        final var todo1 = new Todo("First todo", "first");
+        final var todo2 = new Todo("Second todo", "second");
+
+        List.of(todo1, todo2).forEach(JCrudImplTest::insertTodo);
+
+        final var setups = new AtomicInteger();
+        final RowMapper<Todo> rowMapper = RowMapper.withSetup(rs -> {
+            setups.incrementAndGet();
+            final int title = rs.findColumn("title");
+            final int body = rs.findColumn("body");
+
+            return row -> new Todo(row.getString(title), row.getString(body));
+        });
+
+        assertEquals(List.of(todo1, todo2), systemUnderTest.select("SELECT * FROM TODOS", rowMapper));
+        assertEquals(1, setups.get());
+
+        try (final var result = systemUnderTest.stream("SELECT * FROM TODOS", rowMapper)) {
+            assertEquals(List.of(todo1, todo2), result.collect(Collectors.toList()));
+        }
+        assertEquals(2, setups.get());
+
+        assertEquals(todo2, systemUnderTest.selectSingle("SELECT * FROM TODOS t WHERE t.title = ?", rowMapper,
+            "Second todo").get());
+        assertEquals(3, setups.get());
+    }
+
+    @Test
+    void testStreamExpectAllRowsInOrder() {
+        final var todo1 = new Todo("First todo", "");
+        final var todo2 = new Todo("Second todo", "");
+        final var todo3 = new Todo("Third todo", "");
+
+        List.of(todo1, todo2, todo3).forEach(JCrudImplTest::insertTodo);
+
+        try (final var result = systemUnderTest.stream("SELECT * FROM TODOS", 2, new TodoRowMapper())) {
+            assertEquals(List.of(todo1, todo2, todo3), result.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testStreamReleasesConnectionWhenClosedBeforeFullyRead() {
+        insertTodo(new Todo("First todo", ""));
+        insertTodo(new Todo("Second todo", ""));
+
+        try (final var result = systemUnderTest.stream("SELECT * FROM TODOS", new TodoRowMapper())) {
+            assertEquals("First todo", result.findFirst().get().getTitle());
+            assertEquals(1, dataSource.getNumActive());
+        }
+
+        assertEquals(0, dataSource.getNumActive());
+    }
+
+    @Test
+    void testScanReadsEveryPartitionBySeparateQuery() {
+        Stream.iterate(1, i -> i + 1).limit(20).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var executions = Collections.synchronizedList(new ArrayList<Execution>());
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE, executions::add);
+        final var firstId = jcrud.selectSingle("SELECT MIN(id) FROM TODOS", rs -> rs.getLong(1)).orElseThrow();
+
+        final List<String> titles;
+        try (final var scan = jcrud.scan("SELECT * FROM TODOS", new TodoRowMapper(),
+            ScanOptions.byRange("id", firstId, firstId + 19).withPartitions(4))) {
+            titles = scan.map(Todo::getTitle).collect(Collectors.toList());
+        }
+
+        assertEquals(Stream.iterate(1, i -> i + 1).limit(20).map(String::valueOf).collect(Collectors.toSet()),
+            Set.copyOf(titles));
+        assertEquals(20, titles.size());
+        assertEquals(4, executions.stream().filter(e -> e.getOperation() == Operation.ITERATE).count());
+    }
+
+    @Test
+    void testOrderedScanReturnsEntitiesInKeyOrderIncludingKeysOutsideOfBounds() {
+        Stream.iterate(1, i -> i + 1).limit(20).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var firstId = systemUnderTest.selectSingle("SELECT MIN(id) FROM TODOS", rs -> rs.getLong(1))
+            .orElseThrow();
+
+        final List<Long> ids;
+        try (final var scan = systemUnderTest.scan("SELECT id FROM TODOS WHERE body = ?", rs -> rs.getLong("id"),
+            ScanOptions.byRange("id", firstId + 5, firstId + 14).withPartitions(3).ordered(), "")) {
+            ids = scan.collect(Collectors.toList());
+        }
+
+        assertEquals(systemUnderTest.select("SELECT id FROM TODOS ORDER BY id", rs -> rs.getLong("id")), ids);
+    }
+
+    @Test
+    void testScanReadsAllPartitionsConcurrently() {
+        Stream.iterate(1, i -> i + 1).limit(20).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var firstId = systemUnderTest.selectSingle("SELECT MIN(id) FROM TODOS", rs -> rs.getLong(1))
+            .orElseThrow();
+        final var running = new CountDownLatch(4);
+
+        // Every partition waits for all others, which only finishes when all of them run at the same time
+        final RowMapper<Boolean> mapper = rs -> {
+            running.countDown();
+            try {
+                return running.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        };
+
+        final List<Boolean> started;
+        try (final var scan = systemUnderTest.scan("SELECT * FROM TODOS", mapper,
+            ScanOptions.byRange("id", firstId, firstId + 19).withPartitions(4))) {
+            started = scan.collect(Collectors.toList());
+        }
+
+        assertEquals(20, started.size());
+        assertTrue(started.stream().allMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    void testScanReadsPartitionsOnSuppliedExecutor() throws InterruptedException {
+        Stream.iterate(1, i -> i + 1).limit(20).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var firstId = systemUnderTest.selectSingle("SELECT MIN(id) FROM TODOS", rs -> rs.getLong(1))
+            .orElseThrow();
+        final var executor = Executors.newFixedThreadPool(2);
+        final var tasks = new AtomicInteger();
+
+        final List<Thread> threads;
+        try (final var scan = systemUnderTest.scan("SELECT * FROM TODOS", rs -> Thread.currentThread(),
+            ScanOptions.byRange("id", firstId, firstId + 19).withPartitions(4).ordered().withExecutor(task -> {
+                tasks.incrementAndGet();
+                executor.execute(task);
+            }))) {
+            threads = scan.collect(Collectors.toList());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(20, threads.size());
+        assertEquals(4, tasks.get());
+        assertFalse(threads.contains(Thread.currentThread()));
+        assertTrue(Set.copyOf(threads).size() <= 2);
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testClosingScanReleasesConnectionsOfAllPartitions() {
+        Stream.iterate(1, i -> i + 1).limit(20).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var firstId = systemUnderTest.selectSingle("SELECT MIN(id) FROM TODOS", rs -> rs.getLong(1))
+            .orElseThrow();
+
+        try (final var scan = systemUnderTest.scan("SELECT * FROM TODOS", new TodoRowMapper(),
+            ScanOptions.byRange("id", firstId, firstId + 19).withPartitions(4).withFetchSize(1))) {
+            assertTrue(scan.findFirst().isPresent());
+        }
+
+        // The partitions notice the closed scan on their own threads
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (dataSource.getNumActive() > 0) {
+                Thread.sleep(10);
+            }
+        });
+    }
+
+    @Test
+    void testAbandonedScanReleasesConnectionsOfAllPartitions() throws SQLException {
+        try (final var conn = dataSource.getConnection();
+            final var statement = conn.prepareStatement(
+                "INSERT INTO TODOS (TITLE, BODY) SELECT X, '' FROM SYSTEM_RANGE(1, 5000)")) {
+            conn.setAutoCommit(true);
+            statement.execute();
+        }
+        final var firstId = systemUnderTest.selectSingle("SELECT MIN(id) FROM TODOS", rs -> rs.getLong(1))
+            .orElseThrow();
+
+        // The partitions have more rows than fit into the buffer, so they block until the scan is stopped
+        readFirstAndAbandon(ScanOptions.byRange("id", firstId, firstId + 4999).withPartitions(4));
+
+        // The stream is never closed, so the partitions only stop once it is garbage collected
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (dataSource.getNumActive() > 0) {
+                System.gc();
+                Thread.sleep(10);
+            }
+        });
+    }
+
+    @Test
+    void testSessionScanReadsPartitionsOnCallingThread() {
+        Stream.iterate(1, i -> i + 1).limit(20).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var firstId = systemUnderTest.selectSingle("SELECT MIN(id) FROM TODOS", rs -> rs.getLong(1))
+            .orElseThrow();
+
+        final var threads = systemUnderTest.inSession(session -> {
+            try (final var scan = session.scan("SELECT * FROM TODOS", rs -> Thread.currentThread(),
+                ScanOptions.byRange("id", firstId, firstId + 19).withPartitions(4))) {
+                return scan.collect(Collectors.toSet());
+            }
+        });
+
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
+    @Test
+    void testScanPropagatesFailureOfPartition() {
+        try (final var scan = systemUnderTest.scan("SELECT * FROM NOT_EXISTING", new TodoRowMapper(),
+            ScanOptions.byRange("id", 0L, 100L).withPartitions(4))) {
+            assertThrows(DatabaseException.class, () -> scan.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testIterateReleasesConnectionWhenFullyRead() {
+        insertTodo(new Todo("First todo", ""));
+
+        final var iterator = systemUnderTest.iterate("SELECT * FROM TODOS t WHERE t.title = ?",
+            new TodoRowMapper(), "First todo");
+
+        assertTrue(iterator.hasNext());
+        assertEquals("First todo", iterator.next().getTitle());
+        assertFalse(iterator.hasNext());
+        assertEquals(0, dataSource.getNumActive());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void testSelectPageContinuesAfterLastKeyOfPreviousPage() {
+        Stream.iterate(1, i -> i + 1).limit(7).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var keyset = Keyset.<Map.Entry<Long, String>, Long>of("id", Map.Entry::getKey).withPageSize(3);
+        final RowMapper<Map.Entry<Long, String>> mapper = rs -> Map.entry(rs.getLong("id"), rs.getString("title"));
+
+        final var first = systemUnderTest.selectPage("SELECT id, title FROM TODOS", mapper, keyset, null);
+        final var second = systemUnderTest.selectPage("SELECT id, title FROM TODOS", mapper, keyset,
+            first.getLastKey().orElseThrow());
+        final var last = systemUnderTest.selectPage("SELECT id, title FROM TODOS", mapper, keyset,
+            second.getLastKey().orElseThrow());
+
+        assertAll(
+            () -> assertEquals(List.of("1", "2", "3"), titles(first.getItems())),
+            () -> assertTrue(first.hasNext()),
+            () -> assertEquals(List.of("4", "5", "6"), titles(second.getItems())),
+            () -> assertTrue(second.hasNext()),
+            () -> assertEquals(List.of("7"), titles(last.getItems())),
+            () -> assertFalse(last.hasNext()));
+    }
+
+    @Test
+    void testPagesQueriesPagesLazilyUntilLastFullPage() {
+        Stream.iterate(1, i -> i + 1).limit(6).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        insertTodo(new Todo("other", "skipped"));
+        final var queries = new AtomicInteger();
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE,
+            execution -> queries.incrementAndGet());
+
+        final var pages = jcrud.pages("SELECT id, title FROM TODOS WHERE body = ?",
+            rs -> Map.entry(rs.getLong("id"), rs.getString("title")),
+            Keyset.<Map.Entry<Long, String>, Long>of("id", Map.Entry::getKey).withPageSize(3), "");
+
+        assertEquals(0, queries.get());
+        assertEquals(List.of("1", "2", "3"), titles(pages.next().getItems()));
+        assertEquals(1, queries.get());
+        assertEquals(List.of("4", "5", "6"), titles(pages.next().getItems()));
+        assertFalse(pages.hasNext());
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void testSelectPageLimitsTheStatementToOnePage() {
+        Stream.iterate(1, i -> i + 1).limit(4).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var executions = Collections.synchronizedList(new ArrayList<Execution>());
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE, executions::add);
+        final var keyset = Keyset.<Map.Entry<Long, String>, Long>of("id", Map.Entry::getKey).withPageSize(2);
+        final RowMapper<Map.Entry<Long, String>> mapper = rs -> Map.entry(rs.getLong("id"), rs.getString("title"));
+
+        final var first = jcrud.selectPage("SELECT id, title FROM TODOS WHERE body = ?", mapper, keyset, null, "");
+        final var second = jcrud.selectPage("SELECT id, title FROM TODOS WHERE body = ?", mapper,
+            keyset.withLimitSyntax(LimitSyntax.LIMIT), first.getLastKey().orElseThrow(), "");
+
+        assertEquals(List.of("1", "2"), titles(first.getItems()));
+        assertEquals(List.of("3", "4"), titles(second.getItems()));
+        assertFalse(second.hasNext());
+        assertEquals("SELECT * FROM (SELECT id, title FROM TODOS WHERE body = ?) jcrud_page ORDER BY id "
+            + "FETCH FIRST ? ROWS ONLY", executions.get(0).getSql());
+        assertEquals("SELECT * FROM (SELECT id, title FROM TODOS WHERE body = ?) jcrud_page WHERE id > ? "
+            + "ORDER BY id LIMIT ?", executions.get(1).getSql());
+    }
+
+    @Test
+    void testSelectPageReplacesConditionMarkerInsteadOfWrappingTheQuery() {
+        Stream.iterate(1, i -> i + 1).limit(5).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var keyset = Keyset.<Map.Entry<Long, String>, Long>of("t.id", Map.Entry::getKey).withPageSize(2);
+        final RowMapper<Map.Entry<Long, String>> mapper = rs -> Map.entry(rs.getLong(1), rs.getString(2));
+
+        // The join selects every column twice, which a derived table would reject
+        final var pages = systemUnderTest.pages("SELECT * FROM TODOS t JOIN TODOS u ON u.id = t.id "
+            + "WHERE " + Keyset.CONDITION + " t.body = ? AND u.title <> ?", mapper, keyset, "", "3");
+
+        final var titles = new ArrayList<String>();
+        pages.forEachRemaining(page -> titles.addAll(titles(page.getItems())));
+
+        assertEquals(List.of("1", "2", "4", "5"), titles);
+    }
+
+    @Test
+    void testPagesRejectsNullKeyOfLastEntityOfPage() {
+        Stream.iterate(1, i -> i + 1).limit(3).forEach(i -> insertTodo(new Todo(String.valueOf(i), "")));
+        final var keyset = Keyset.<Map.Entry<Long, String>, Long>of("id", Map.Entry::getKey).withPageSize(2);
+        final RowMapper<Map.Entry<Long, String>> mapper = rs -> new AbstractMap.SimpleEntry<>(
+            rs.getObject("id", Long.class), rs.getString("title"));
+
+        final var pages = systemUnderTest.pages("SELECT CAST(NULL AS BIGINT) AS id, title FROM TODOS", mapper,
+            keyset);
+
+        final var exception = assertThrows(IllegalStateException.class, pages::hasNext);
+        assertTrue(exception.getMessage().contains("id"));
+    }
+
+    @Test
+    void testKeysetRejectsKeyColumnWhichIsNoPlainLabel() {
+        assertThrows(IllegalArgumentException.class, () -> Keyset.of("id; DROP TABLE TODOS", Todo::getTitle));
+    }
+
+    @Test
+    void testQueryCallsRowCallbackHandlerForEveryRow() {
+        insertTodo(new Todo("First todo", ""));
+        insertTodo(new Todo("Second todo", ""));
+
+        final var titles = new ArrayList<String>();
+        systemUnderTest.query("SELECT * FROM TODOS t WHERE t.body = ?", rs -> {
+            titles.add(rs.getString("title"));
+        }, "");
+
+        assertEquals(List.of("First todo", "Second todo"), titles);
+    }
+
+    @Test
+    void testExtractReturnsResultOfResultSetExtractor() {
+        insertTodo(new Todo("First todo", ""));
+        insertTodo(new Todo("Second todo", ""));
+
+        final int rows = systemUnderTest.extract("SELECT * FROM TODOS", rs -> {
+            var count = 0;
+            while (rs.next()) {
+                count++;
+            }
+            return count;
+        });
+
+        assertEquals(2, rows);
+    }
+
     @Test
     void testSelectWithParameterExpectEmptyResultWhenNoResultIsFound() {
         final var result = systemUnderTest.select("SELECT * FROM TODOS t WHERE t.title = ?",
@@ -148,6 +535,83 @@ class JCrudImplTest {
             exception.getMessage());
     }
 
+    @Test
+    void testSelectSingleWhenMultipleResultReturnsMapsAtMostOneEntity() {
+        insertTodo(new Todo("First todo", "Do something"));
+        insertTodo(new Todo("Second todo", "Do something other"));
+        insertTodo(new Todo("Third todo", "Do something else"));
+
+        final var mappedRows = new AtomicInteger();
+
+        assertThrows(TooManyResultsException.class, () -> systemUnderTest.selectSingle("SELECT * FROM TODOS t",
+            rs -> {
+                mappedRows.incrementAndGet();
+                return new TodoRowMapper().map(rs);
+            }));
+        assertEquals(1, mappedRows.get());
+    }
+
+    @Test
+    void testSelectSingleDoesNotLimitCachedStatementForFollowingSelects() {
+        insertTodo(new Todo("First todo", ""));
+        insertTodo(new Todo("Second todo", ""));
+        insertTodo(new Todo("Third todo", ""));
+
+        final var results = systemUnderTest.inSession(session -> {
+            assertThrows(TooManyResultsException.class,
+                () -> session.selectSingle("SELECT * FROM TODOS", new TodoRowMapper()));
+
+            return session.select("SELECT * FROM TODOS", new TodoRowMapper());
+        });
+
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    void testSelectWithTypedParamsExpectMatchingResults() {
+        insertTodo(new Todo("First todo", "Body"));
+        insertTodo(new Todo("Second todo", "Body"));
+
+        final var result = systemUnderTest.select("SELECT * FROM TODOS t WHERE t.title = ? AND t.id > ?",
+            new TodoRowMapper(), Params.of().setString("Second todo").setLong(0L));
+
+        assertEquals(List.of(new Todo("Second todo", "Body")), result);
+    }
+
+    @Test
+    void testSelectSingleWithTypedParamsWhenMultipleResultReturnsExpectExceptionMessageContainsParams() {
+        insertTodo(new Todo("First todo", "Body"));
+        insertTodo(new Todo("Second todo", "Body"));
+
+        final var exception = assertThrows(TooManyResultsException.class,
+            () -> systemUnderTest.selectSingle("SELECT * FROM TODOS t WHERE t.body = ? AND t.id > ?",
+                new TodoRowMapper(), Params.of().setString("Body").setInt(0)));
+
+        assertEquals("Too many results for query 'SELECT * FROM TODOS t WHERE t.body = ? AND t.id > ?' "
+            + "with params '[Body, 0]'", exception.getMessage());
+    }
+
+    @Test
+    void testCountWithTypedParamsExpectCorrectAmount() {
+        insertTodo(new Todo("First todo", "Body"));
+        insertTodo(new Todo("Second todo", null));
+
+        final var count = systemUnderTest.count("SELECT COUNT(id) FROM TODOS t WHERE t.body = ?",
+            Params.of().setString("Body"));
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    void testCharAndNullLongParamsAreBoundAsObjects() {
+        insertTodo(new Todo("a", "Body"));
+        final Long missing = null;
+
+        assertEquals(1, systemUnderTest.count("SELECT COUNT(id) FROM TODOS t WHERE t.title = ?", 'a'));
+        assertEquals(1, systemUnderTest.select("SELECT * FROM TODOS t WHERE ? IS NULL", new TodoRowMapper(),
+            missing).size());
+    }
+
     @Test
     void testInsertExpectResultIsSavedInDatabase() {
         final var entity = new Todo("Neues Todo", "Neuer Todo Body");
@@ -205,6 +669,253 @@ class JCrudImplTest {
         );
     }
 
+    @Test
+    void testInsertWithBatchOptionsReturnsUpdateCountPerEntity() {
+        final var entities = List.of(new Todo("1", ""), new Todo("2", ""), new Todo("3", ""), new Todo("4", ""),
+            new Todo("5", ""));
+
+        final var counts = systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", entities,
+            new TodoParamSetter(), BatchOptions.defaults().withChunkSize(2));
+
+        assertArrayEquals(new long[]{1, 1, 1, 1, 1}, counts);
+        assertEquals(entities, systemUnderTest.select("SELECT * FROM TODOS", new TodoRowMapper()));
+    }
+
+    @Test
+    void testInsertWithKeyMapperReturnsGeneratedKey() {
+        final long key = systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)",
+            new Todo("1", ""), new TodoParamSetter(), rs -> rs.getLong(1));
+
+        assertEquals(Optional.of(key), systemUnderTest.selectSingle("SELECT id FROM TODOS t WHERE t.title = ?",
+            rs -> rs.getLong("id"), "1"));
+    }
+
+    @Test
+    void testInsertWithKeyMapperReturnsGeneratedKeysInBatchOrder() {
+        final var entities = List.of(new Todo("1", ""), new Todo("2", ""), new Todo("3", ""), new Todo("4", ""),
+            new Todo("5", ""));
+
+        final var keys = systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", entities,
+            new TodoParamSetter(), rs -> rs.getLong(1), BatchOptions.defaults().withChunkSize(2));
+
+        assertEquals(systemUnderTest.select("SELECT id FROM TODOS ORDER BY title", rs -> rs.getLong("id")), keys);
+    }
+
+    @Test
+    void testInsertWithKeySetterWritesGeneratedKeysBackOntoEntities() {
+        final var entities = List.of(new Todo("1", ""), new Todo("2", ""), new Todo("3", ""));
+        final var keys = new HashMap<String, Long>();
+
+        final var counts = systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", entities,
+            new TodoParamSetter(), (todo, rs) -> keys.put(todo.getTitle(), rs.getLong(1)),
+            BatchOptions.defaults().withChunkSize(2));
+
+        assertArrayEquals(new long[]{1, 1, 1}, counts);
+        assertEquals(3, keys.size());
+        for (final var todo : entities) {
+            assertEquals(Optional.of(keys.get(todo.getTitle())), systemUnderTest.selectSingle(
+                "SELECT id FROM TODOS t WHERE t.title = ?", rs -> rs.getLong("id"), todo.getTitle()));
+        }
+    }
+
+    @Test
+    void testSessionCachesStatementsReturningKeysSeparately() {
+        final var statistics = systemUnderTest.inSession(session -> {
+            for (var i = 0; i < 2; i++) {
+                session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("plain", ""),
+                    new TodoParamSetter());
+                session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("keyed", ""),
+                    new TodoParamSetter(), rs -> rs.getLong(1));
+            }
+
+            return session.getStatementCacheStatistics();
+        });
+
+        assertAll(
+            () -> assertEquals(2, statistics.getHits()),
+            () -> assertEquals(2, statistics.getMisses()),
+            () -> assertEquals(2, statistics.getSize()));
+    }
+
+    @Test
+    void testInsertWithBatchOptionsRollsBackAllChunksOnFailure() {
+        final var entities = List.of(new Todo("1", ""), new Todo("2", ""), new Todo(null, ""));
+
+        assertThrows(DatabaseException.class, () -> systemUnderTest.insert(
+            "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", entities, new TodoParamSetter(),
+            BatchOptions.defaults().withChunkSize(2)));
+
+        assertEquals(0, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testInsertWithCommitPerChunkKeepsCommittedChunksOnFailure() {
+        final var entities = List.of(new Todo("1", ""), new Todo("2", ""), new Todo(null, ""));
+
+        assertThrows(DatabaseException.class, () -> systemUnderTest.insert(
+            "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", entities, new TodoParamSetter(),
+            BatchOptions.defaults().withChunkSize(2).commitPerChunk()));
+
+        assertEquals(2, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testSessionBatchDoesNotRepeatRowsOfFailedBatchWithSameStatement() {
+        final var statement = "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)";
+        final ParamSetter<Todo> failOnMissingTitle = (entity, pstmt) -> {
+            if (entity.getTitle() == null) {
+                throw new SQLException("The title is missing");
+            }
+            new TodoParamSetter().setStatementParams(entity, pstmt);
+        };
+
+        systemUnderTest.inSession(session -> {
+            assertThrows(DatabaseException.class, () -> session.insert(statement,
+                List.of(new Todo("1", ""), new Todo("2", ""), new Todo(null, "")), failOnMissingTitle,
+                BatchOptions.defaults()));
+
+            return session.insert(statement, List.of(new Todo("3", "")), failOnMissingTitle, BatchOptions.defaults());
+        });
+
+        assertEquals(List.of("3"), systemUnderTest.select("SELECT title FROM TODOS", rs -> rs.getString(1)));
+    }
+
+    @Test
+    void testSessionDiscardsStatementOfFailedChunk() {
+        final var statement = "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)";
+        final ParamSetter<Todo> failOnMissingTitle = (entity, pstmt) -> {
+            if (entity.getTitle() == null) {
+                throw new SQLException("The title is missing");
+            }
+            new TodoParamSetter().setStatementParams(entity, pstmt);
+        };
+
+        final var statistics = systemUnderTest.inSession(session -> {
+            assertThrows(DatabaseException.class, () -> session.insert(statement,
+                List.of(new Todo("1", ""), new Todo("2", ""), new Todo("3", ""), new Todo(null, "")),
+                failOnMissingTitle, BatchOptions.defaults().withChunkSize(2).commitPerChunk()));
+            session.insert(statement, List.of(new Todo("5", "")), failOnMissingTitle,
+                BatchOptions.defaults().withChunkSize(2).commitPerChunk());
+
+            return session.getStatementCacheStatistics();
+        });
+
+        assertEquals(List.of("1", "2", "5"),
+            systemUnderTest.select("SELECT title FROM TODOS ORDER BY id", rs -> rs.getString(1)));
+        assertAll(
+            () -> assertEquals(0, statistics.getHits()),
+            () -> assertEquals(2, statistics.getMisses()),
+            () -> assertEquals(1, statistics.getSize()));
+    }
+
+    @Test
+    void testInsertWithBatchOptionsJoinsRunningTransaction() {
+        assertThrows(IllegalStateException.class, () -> systemUnderTest.inTransaction(session -> {
+            session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", List.of(new Todo("1", "")),
+                new TodoParamSetter(), BatchOptions.defaults().commitPerChunk());
+
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(0, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testInsertWithIteratorPullsEntitiesLazilyPerChunk() {
+        final var pulled = new ArrayList<Long>();
+        final var entities = Stream.iterate(1, i -> i + 1).limit(5).map(i -> {
+            pulled.add(systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+            return new Todo(String.valueOf(i), "");
+        }).iterator();
+
+        final var total = systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", entities,
+            new TodoParamSetter(), BatchOptions.defaults().withChunkSize(2).commitPerChunk());
+
+        assertEquals(5, total);
+        assertEquals(List.of(0L, 0L, 2L, 2L, 4L), pulled);
+    }
+
+    @Test
+    void testInsertWithStreamSavesAllEntities() {
+        final var total = systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)",
+            Stream.of(new Todo("1", ""), new Todo("2", ""), new Todo("3", "")), new TodoParamSetter(),
+            BatchOptions.defaults().withChunkSize(2));
+
+        assertEquals(3, total);
+        assertEquals(3, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testInsertWithPublisherSavesAllPublishedEntities() {
+        final var publisher = new SubmissionPublisher<Todo>();
+        final var producer = new Thread(() -> {
+            for (var i = 0; i < 25; i++) {
+                publisher.submit(new Todo(String.valueOf(i), ""));
+            }
+            publisher.close();
+        });
+
+        final var total = new long[1];
+        final var consumer = new Thread(() -> total[0] = systemUnderTest.insert(
+            "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", publisher, new TodoParamSetter(),
+            BatchOptions.defaults().withChunkSize(4)));
+
+        consumer.start();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (!publisher.hasSubscribers()) {
+                Thread.onSpinWait();
+            }
+            producer.start();
+            consumer.join();
+        });
+
+        assertEquals(25, total[0]);
+        assertEquals(25, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testInsertWithPublisherThrowsExceptionWhenPublisherFails() {
+        final var publisher = new SubmissionPublisher<Todo>(Runnable::run, 4);
+
+        final Flow.Publisher<Todo> failingPublisher = subscriber -> {
+            publisher.subscribe(subscriber);
+            publisher.submit(new Todo("1", ""));
+            publisher.closeExceptionally(new IllegalStateException("Source failed"));
+        };
+
+        final var exception = assertThrows(CompletionException.class, () -> systemUnderTest.insert(
+            "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", failingPublisher, new TodoParamSetter(),
+            BatchOptions.defaults()));
+
+        assertEquals("Source failed", exception.getCause().getMessage());
+        assertEquals(0, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testUpdateWithBatchOptionsReturnsUpdateCountPerEntity() {
+        insertTodo(new Todo("First todo", ""));
+        insertTodo(new Todo("Second todo", ""));
+
+        final var counts = systemUnderTest.update("UPDATE TODOS SET BODY = 'Done' WHERE TITLE = ?",
+            List.of(new Todo("First todo", ""), new Todo("Unknown todo", ""), new Todo("Second todo", "")),
+            (ent, pstmt) -> pstmt.setString(1, ent.getTitle()), BatchOptions.defaults().withChunkSize(2));
+
+        assertArrayEquals(new long[]{1, 0, 1}, counts);
+    }
+
+    @Test
+    void testDeleteWithBatchOptionsRemovesAllEntities() {
+        insertTodo(new Todo("First todo", ""));
+        insertTodo(new Todo("Second todo", ""));
+
+        final var counts = systemUnderTest.delete("DELETE FROM TODOS WHERE TITLE = ?",
+            List.of(new Todo("First todo", ""), new Todo("Second todo", "")),
+            (ent, pstmt) -> pstmt.setString(1, ent.getTitle()), BatchOptions.defaults());
+
+        assertArrayEquals(new long[]{1, 1}, counts);
+        assertEquals(0, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
     @Test
     void testUpdateThrowsExceptionWhenNoUpdateStatementIsProvided() {
         final var entity = new Todo("Stored entity", "To be updated!");
@@ -279,6 +990,368 @@ class JCrudImplTest {
         assertEquals(2, count);
     }
 
+    @Test
+    void testInSessionExecutesAllOperationsOnOneConnection() {
+        final var count = systemUnderTest.inSession(session -> {
+            session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("First todo", ""),
+                new TodoParamSetter());
+            session.select("SELECT * FROM TODOS", new TodoRowMapper());
+
+            assertEquals(1, dataSource.getNumActive());
+
+            return session.count("SELECT COUNT(id) FROM TODOS");
+        });
+
+        assertEquals(1, count);
+        assertEquals(0, dataSource.getNumActive());
+    }
+
+    @Test
+    void testInSessionThrowsExceptionWhenSessionIsUsedAfterCallback() {
+        final var session = systemUnderTest.inSession(s -> s);
+
+        assertThrows(IllegalStateException.class, () -> session.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testInTransactionCommitsWhenCallbackSucceeds() {
+        systemUnderTest.inTransaction(session -> {
+            session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("First todo", ""),
+                new TodoParamSetter());
+            session.update("UPDATE TODOS SET BODY = ? WHERE TITLE = 'First todo'", new Todo("", "Done"),
+                (ent, pstmt) -> pstmt.setString(1, ent.getBody()));
+
+            return null;
+        });
+
+        final var result = systemUnderTest.selectSingle("SELECT * FROM TODOS t WHERE t.title = ?",
+            new TodoRowMapper(), "First todo");
+
+        assertEquals("Done", result.get().getBody());
+    }
+
+    @Test
+    void testInTransactionRollsBackWhenCallbackThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> systemUnderTest.inTransaction(session -> {
+            session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("First todo", ""),
+                new TodoParamSetter());
+
+            throw new IllegalArgumentException();
+        }));
+
+        assertEquals(0, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testInTransactionWithOptionsRestoresConnectionSettings() {
+        final var options = TransactionOptions.defaults()
+            .withIsolationLevel(IsolationLevel.SERIALIZABLE)
+            .readOnly();
+
+        final var count = systemUnderTest.inTransaction(options,
+            session -> session.count("SELECT COUNT(id) FROM TODOS"));
+
+        assertEquals(0, count);
+        systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("First todo", ""),
+            new TodoParamSetter());
+        assertEquals(1, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testInTransactionCommitsOnConnectionsWithAutoCommitDisabledByThePool() throws Exception {
+        try (final var manualCommitDataSource = new BasicDataSource()) {
+            manualCommitDataSource.setUrl("jdbc:h2:mem:test");
+            manualCommitDataSource.setUsername("sa");
+            manualCommitDataSource.setDefaultAutoCommit(false);
+            final var jcrud = new JCrudImpl(manualCommitDataSource);
+
+            jcrud.inTransaction(session -> {
+                session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("First todo", ""),
+                    new TodoParamSetter());
+                return null;
+            });
+            jcrud.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", List.of(new Todo("Second todo", "")),
+                new TodoParamSetter(), BatchOptions.defaults());
+        }
+
+        assertEquals(2, systemUnderTest.count("SELECT COUNT(id) FROM TODOS"));
+    }
+
+    @Test
+    void testSessionRollbackDiscardsChangesOfRunningTransaction() {
+        systemUnderTest.inTransaction(session -> {
+            session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("First todo", ""),
+                new TodoParamSetter());
+            session.rollback();
+            session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("Second todo", ""),
+                new TodoParamSetter());
+
+            return null;
+        });
+
+        assertEquals(List.of(new Todo("Second todo", "")),
+            systemUnderTest.select("SELECT * FROM TODOS", new TodoRowMapper()));
+    }
+
+    @Test
+    void testSessionReusesPreparedStatementsForSameQuery() {
+        final var statistics = systemUnderTest.inSession(session -> {
+            for (var i = 0; i < 3; i++) {
+                session.count("SELECT COUNT(id) FROM TODOS");
+            }
+
+            return session.getStatementCacheStatistics();
+        });
+
+        assertAll(
+            () -> assertEquals(2, statistics.getHits()),
+            () -> assertEquals(1, statistics.getMisses()),
+            () -> assertEquals(1, statistics.getSize()));
+    }
+
+    @Test
+    void testSessionEvictsLeastRecentlyUsedStatementWhenCacheIsFull() {
+        final var jcrud = new JCrudImpl(dataSource, 1);
+
+        final var statistics = jcrud.inSession(session -> {
+            session.count("SELECT COUNT(id) FROM TODOS");
+            session.count("SELECT COUNT(id) FROM EMPTY_TABLE");
+            session.count("SELECT COUNT(id) FROM TODOS");
+
+            return session.getStatementCacheStatistics();
+        });
+
+        assertAll(
+            () -> assertEquals(0, statistics.getHits()),
+            () -> assertEquals(3, statistics.getMisses()),
+            () -> assertEquals(2, statistics.getEvictions()));
+    }
+
+    @Test
+    void testSessionDoesNotShareStatementWhichIsStillInUse() {
+        insertTodo(new Todo("First todo", ""));
+        insertTodo(new Todo("Second todo", ""));
+
+        final var titles = systemUnderTest.inSession(session -> {
+            final var result = new ArrayList<String>();
+            try (final var outer = session.stream("SELECT * FROM TODOS", new TodoRowMapper())) {
+                outer.forEach(todo -> {
+                    result.add(todo.getTitle());
+                    session.select("SELECT * FROM TODOS", new TodoRowMapper());
+                });
+            }
+
+            return result;
+        });
+
+        assertEquals(List.of("First todo", "Second todo"), titles);
+    }
+
+    @Test
+    void testExecutionListenerIsNotifiedAboutEveryOperation() {
+        final var executions = Collections.synchronizedList(new ArrayList<Execution>());
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE, executions::add);
+
+        jcrud.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)",
+            List.of(new Todo("First todo", ""), new Todo("Second todo", "")), new TodoParamSetter(),
+            BatchOptions.defaults().withChunkSize(1));
+        jcrud.select("SELECT * FROM TODOS", new TodoRowMapper());
+        try (final var stream = jcrud.stream("SELECT * FROM TODOS", new TodoRowMapper())) {
+            assertEquals(1, stream.limit(1).count());
+        }
+        assertThrows(TooManyResultsException.class,
+            () -> jcrud.selectSingle("SELECT * FROM TODOS", new TodoRowMapper()));
+
+        assertEquals(4, executions.size());
+
+        final var batch = executions.get(0);
+        assertAll(
+            () -> assertEquals(Operation.INSERT, batch.getOperation()),
+            () -> assertEquals(2L, batch.getBatchSize()),
+            () -> assertEquals(2L, batch.getRowCount()));
+
+        final var select = executions.get(1);
+        assertAll(
+            () -> assertEquals(Operation.SELECT, select.getOperation()),
+            () -> assertEquals("SELECT * FROM TODOS", select.getSql()),
+            () -> assertEquals(2L, select.getRowCount()),
+            () -> assertTrue(select.getExecuteNanos() > 0),
+            () -> assertEquals(select.getTotalNanos(),
+                select.getAcquireNanos() + select.getExecuteNanos() + select.getMappingNanos()),
+            () -> assertFalse(select.getFailure().isPresent()));
+
+        final var iterate = executions.get(2);
+        assertAll(
+            () -> assertEquals(Operation.ITERATE, iterate.getOperation()),
+            () -> assertEquals(1L, iterate.getRowCount()));
+
+        final var selectSingle = executions.get(3);
+        assertAll(
+            () -> assertEquals(Operation.SELECT_SINGLE, selectSingle.getOperation()),
+            () -> assertTrue(selectSingle.getFailure().get() instanceof TooManyResultsException));
+    }
+
+    @Test
+    void testExecutionListenerIsNotifiedAboutOperationsInsideOfSessions() {
+        final var operations = Collections.synchronizedList(new ArrayList<Operation>());
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE,
+            execution -> operations.add(execution.getOperation()));
+
+        jcrud.inTransaction(session -> {
+            session.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)", new Todo("First todo", ""),
+                new TodoParamSetter());
+            return session.count("SELECT COUNT(*) FROM TODOS");
+        });
+
+        assertEquals(List.of(Operation.INSERT, Operation.COUNT), operations);
+    }
+
+    @Test
+    void testOperationRecorderAllocatesNothingWithoutListenerAndRecording() {
+        final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 10_000; i++) {
+            OperationRecorder.start(null, Operation.SELECT, "SELECT * FROM TODOS", 0);
+        }
+
+        final var thread = Thread.currentThread().getId();
+        final var allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            assertSame(OperationRecorder.DISABLED, OperationRecorder.start(null, Operation.SELECT,
+                "SELECT * FROM TODOS", 0));
+            assertSame(OperationRecorder.DISABLED, OperationRecorder.startBatch(null, Operation.INSERT,
+                "INSERT INTO TODOS (TITLE) VALUES (?)"));
+        }
+        final var allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        // The measurement itself may allocate a little, but not one event per operation
+        assertTrue(allocated < 100_000, "Allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testFlightRecorderEventsAreRecordedAboveThreshold() throws Exception {
+        insertTodo(new Todo("First todo", ""));
+
+        final var file = Files.createTempFile("jcrud", ".jfr");
+        try (final var recording = new Recording()) {
+            recording.enable("jcrud.Query").withThreshold(Duration.ZERO);
+            recording.enable("jcrud.Batch").withThreshold(Duration.ofHours(1));
+            recording.start();
+
+            systemUnderTest.select("SELECT * FROM TODOS t WHERE t.title = ?", new TodoRowMapper(), "First todo");
+            systemUnderTest.insert("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)",
+                List.of(new Todo("Second todo", "")), new TodoParamSetter(), BatchOptions.defaults());
+
+            recording.stop();
+            recording.dump(file);
+
+            final var events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+
+            final var event = events.get(0);
+            assertAll(
+                () -> assertEquals("jcrud.Query", event.getEventType().getName()),
+                () -> assertEquals("SELECT", event.getString("operation")),
+                () -> assertEquals("SELECT * FROM TODOS t WHERE t.title = ?", event.getString("sql")),
+                () -> assertEquals(1, event.getInt("parameterCount")),
+                () -> assertEquals(1L, event.getLong("rowCount")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testInListParamsAreExpandedToBucketedPlaceholderLists() {
+        List.of(new Todo("First todo", "a"), new Todo("Second todo", "b"), new Todo("Third todo", "c"))
+            .forEach(JCrudImplTest::insertTodo);
+
+        final var statements = Collections.synchronizedList(new ArrayList<String>());
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE,
+            execution -> statements.add(execution.getSql()));
+
+        final var todos = jcrud.select("SELECT * FROM TODOS WHERE TITLE IN (?) AND BODY <> ? ORDER BY TITLE",
+            new TodoRowMapper(), InList.of(List.of("Third todo", "First todo")), "c");
+        final var others = jcrud.select("SELECT * FROM TODOS WHERE TITLE NOT IN (?) ORDER BY TITLE",
+            new TodoRowMapper(), InList.of(List.of("First todo")));
+
+        assertEquals(List.of(new Todo("First todo", "a")), todos);
+        assertEquals(List.of(new Todo("Second todo", "b"), new Todo("Third todo", "c")), others);
+        assertEquals(List.of(
+            "SELECT * FROM TODOS WHERE TITLE IN (?, ?, ?, ?) AND BODY <> ? ORDER BY TITLE",
+            "SELECT * FROM TODOS WHERE TITLE NOT IN (?) ORDER BY TITLE"), statements);
+    }
+
+    @Test
+    void testLargeInListParamsAreReadByOneStatement() {
+        List.of(new Todo("First todo", ""), new Todo("Second todo", "")).forEach(JCrudImplTest::insertTodo);
+
+        final var statements = Collections.synchronizedList(new ArrayList<String>());
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE,
+            execution -> statements.add(execution.getSql()));
+
+        final var titles = IntStream.range(0, 600).mapToObj(i -> "Todo " + i).collect(Collectors.toList());
+        titles.set(100, "First todo");
+        titles.set(500, "Second todo");
+        final var inList = InList.of(titles);
+
+        assertEquals(3L, jcrud.count("SELECT COUNT(DISTINCT BODY) + COUNT(*) FROM TODOS WHERE TITLE IN (?)",
+            inList));
+        assertEquals(2, jcrud.select("SELECT * FROM TODOS WHERE TITLE IN (?)", new TodoRowMapper(), inList).size());
+        assertEquals(Optional.of("Second todo"), jcrud.selectSingle(
+            "SELECT MAX(TITLE) FROM TODOS WHERE TITLE IN (?)", rs -> rs.getString(1), inList));
+        assertEquals(3, statements.size());
+        assertTrue(statements.stream().allMatch(sql -> sql.chars().filter(c -> c == '?').count() == 1000));
+    }
+
+    @Test
+    void testCollectionParamsAreBoundAsTheyAre() {
+        insertTodo(new Todo("First todo", ""));
+
+        final var statements = Collections.synchronizedList(new ArrayList<String>());
+        final var jcrud = new JCrudImpl(dataSource, JCrudImpl.DEFAULT_STATEMENT_CACHE_SIZE,
+            execution -> statements.add(execution.getSql()));
+
+        assertEquals(1L, jcrud.count("SELECT COUNT(*) FROM TODOS WHERE ? IS NOT NULL",
+            List.of("First todo", "Other todo")));
+        assertEquals(List.of("SELECT COUNT(*) FROM TODOS WHERE ? IS NOT NULL"), statements);
+    }
+
+    @Test
+    void testSelectPrimitivesReadsTheFirstColumnOfAllRows() {
+        final var expected = LongStream.rangeClosed(1, 1000).toArray();
+
+        assertArrayEquals(expected, systemUnderTest.selectLongs("SELECT X FROM SYSTEM_RANGE(1, 1000)"));
+        assertArrayEquals(new int[] {2, 3},
+            systemUnderTest.selectInts("SELECT CAST(X AS INT) FROM SYSTEM_RANGE(1, 3) WHERE X > ?", 1));
+        assertArrayEquals(new double[] {0.5, 1.0},
+            systemUnderTest.selectDoubles("SELECT CAST(X AS DOUBLE) / 2 FROM SYSTEM_RANGE(1, 2)"));
+        assertArrayEquals(new long[0], systemUnderTest.selectLongs("SELECT ID FROM EMPTY_TABLE"));
+    }
+
+    @Test
+    void testSelectColumnsReadsNumericColumnsIntoParallelArrays() {
+        final var columns = systemUnderTest.selectColumns(
+            "SELECT X AS ID, CAST(X AS DOUBLE) / 4 AS RATIO FROM SYSTEM_RANGE(1, 100) WHERE X IN (?)",
+            InList.of(List.of(1L, 2L, 100L)));
+
+        assertEquals(3, columns.size());
+        assertEquals(2, columns.getColumnCount());
+        assertArrayEquals(new long[] {1, 2, 100}, columns.getLongs("id"));
+        assertArrayEquals(new double[] {0.25, 0.5, 25.0}, columns.getDoubles(2));
+        assertArrayEquals(new double[] {1.0, 2.0, 100.0}, columns.getDoubles("ID"));
+        assertThrows(IllegalArgumentException.class, () -> columns.getLongs("RATIO"));
+        assertThrows(DatabaseException.class,
+            () -> systemUnderTest.selectColumns("SELECT 1 AS ID, 'text' AS NAME"));
+    }
+
+    private void readFirstAndAbandon(final ScanOptions options) {
+        final var scan = systemUnderTest.scan("SELECT * FROM TODOS", new TodoRowMapper(), options);
+        assertTrue(scan.iterator().hasNext());
+    }
+
+    private static List<String> titles(final List<Map.Entry<Long, String>> entries) {
+        return entries.stream().map(Map.Entry::getValue).collect(Collectors.toList());
+    }
+
     private static void insertTodo(final Todo todo) {
         try (final var conn = dataSource.getConnection();
             final var pstmt = conn.prepareStatement("INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)")) {
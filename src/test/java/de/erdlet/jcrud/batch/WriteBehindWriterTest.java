@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import de.erdlet.jcrud.JCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.exception.InvalidStatementException;
+import de.erdlet.jcrud.helper.model.Todo;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindWriterTest {
+
+    private static final String INSERT = "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)";
+    private static final ParamSetter<Todo> TODO_PARAMS = (todo, pstmt) -> {
+        pstmt.setString(1, todo.getTitle());
+        pstmt.setString(2, todo.getBody());
+    };
+
+    private static BasicDataSource dataSource;
+    private JCrud jcrud;
+
+    @BeforeAll
+    static void initDatabase() throws Exception {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:writebehind");
+        ds.setUsername("sa");
+
+        try (final var conn = ds.getConnection();
+            final var statement = conn.prepareStatement(
+                "CREATE TABLE TODOS (ID INT PRIMARY KEY AUTO_INCREMENT, TITLE VARCHAR NOT NULL, BODY VARCHAR)")) {
+            statement.execute();
+        }
+
+        dataSource = ds;
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.jcrud = new JCrudImpl(dataSource);
+    }
+
+    @AfterEach
+    void truncateTablesAfterTest() throws SQLException {
+        try (final var conn = dataSource.getConnection();
+            final var statement = conn.prepareStatement("TRUNCATE TABLE TODOS")) {
+            statement.execute();
+        }
+    }
+
+    @AfterAll
+    static void closeDb() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    void testCloseWritesAllInsertsOfConcurrentThreads() throws Exception {
+        final var futures = new ArrayList<CompletableFuture<Void>>();
+        final var threads = new ArrayList<Thread>();
+
+        try (final var writer = new WriteBehindWriter(jcrud, WriteBehindOptions.defaults().withMaxBatchSize(64))) {
+            for (var t = 0; t < 4; t++) {
+                final var thread = new Thread(() -> {
+                    for (var i = 0; i < 250; i++) {
+                        final var future = writer.insert(INSERT, new Todo("todo", ""), TODO_PARAMS);
+                        synchronized (futures) {
+                            futures.add(future);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (final var thread : threads) {
+                thread.join();
+            }
+        }
+
+        assertEquals(1000, futures.size());
+        assertTrue(futures.stream().allMatch(future -> future.isDone() && !future.isCompletedExceptionally()));
+        assertEquals(1000, jcrud.count("SELECT COUNT(*) FROM TODOS"));
+    }
+
+    @Test
+    void testFlushesAsSoonAsMaxBatchSizeIsQueued() throws Exception {
+        final var options = WriteBehindOptions.defaults().withFlushInterval(Duration.ofMinutes(1)).withMaxBatchSize(3);
+
+        try (final var writer = new WriteBehindWriter(jcrud, options)) {
+            final var first = writer.insert(INSERT, new Todo("1", ""), TODO_PARAMS);
+            writer.insert(INSERT, new Todo("2", ""), TODO_PARAMS);
+            writer.insert(INSERT, new Todo("3", ""), TODO_PARAMS);
+
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(3, jcrud.count("SELECT COUNT(*) FROM TODOS"));
+        }
+    }
+
+    @Test
+    void testOfferRejectsWritesWhileQueueIsFull() {
+        final var options = WriteBehindOptions.defaults().withFlushInterval(Duration.ofMinutes(1)).withCapacity(2);
+
+        try (final var writer = new WriteBehindWriter(jcrud, options)) {
+            assertTrue(writer.offer(INSERT, new Todo("1", ""), TODO_PARAMS).isPresent());
+            assertTrue(writer.offer(INSERT, new Todo("2", ""), TODO_PARAMS).isPresent());
+            assertFalse(writer.offer(INSERT, new Todo("3", ""), TODO_PARAMS).isPresent());
+
+            writer.flush();
+
+            assertTrue(writer.offer(INSERT, new Todo("3", ""), TODO_PARAMS).isPresent());
+        }
+
+        assertEquals(3, jcrud.count("SELECT COUNT(*) FROM TODOS"));
+    }
+
+    @Test
+    void testFailingWriteFailsAllWritesOfItsFlush() {
+        final var options = WriteBehindOptions.defaults().withFlushInterval(Duration.ofMinutes(1));
+
+        try (final var writer = new WriteBehindWriter(jcrud, options)) {
+            final var valid = writer.insert(INSERT, new Todo("1", ""), TODO_PARAMS);
+            final var invalid = writer.insert(INSERT, new Todo(null, ""), TODO_PARAMS);
+
+            writer.flush();
+
+            assertThrows(ExecutionException.class, valid::get);
+            assertThrows(ExecutionException.class, invalid::get);
+        }
+
+        assertEquals(0, jcrud.count("SELECT COUNT(*) FROM TODOS"));
+    }
+
+    @Test
+    void testRejectsStatementsWhichAreNoInsertAndWritesAfterClose() {
+        final var writer = new WriteBehindWriter(jcrud, WriteBehindOptions.defaults());
+
+        assertThrows(InvalidStatementException.class,
+            () -> writer.insert("DELETE FROM TODOS", new Todo("1", ""), TODO_PARAMS));
+
+        writer.close();
+
+        assertThrows(IllegalStateException.class, () -> writer.insert(INSERT, new Todo("1", ""), TODO_PARAMS));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.helper.model.Todo;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import de.erdlet.jcrud.results.RowMapper;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingJCrudTest {
+
+    private static final String INSERT = "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)";
+    private static final RowMapper<Todo> TODO_MAPPER = rs -> new Todo(rs.getString("title"), rs.getString("body"));
+    private static final ParamSetter<Todo> TODO_SETTER = (todo, pstmt) -> {
+        pstmt.setString(1, todo.getTitle());
+        pstmt.setString(2, todo.getBody());
+    };
+
+    private static BasicDataSource dataSource;
+    private CachingJCrud systemUnderTest;
+
+    @BeforeAll
+    static void initDatabase() throws Exception {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:cache");
+        ds.setUsername("sa");
+
+        execute(ds, "CREATE TABLE TODOS (ID INT PRIMARY KEY AUTO_INCREMENT, TITLE VARCHAR NOT NULL, BODY VARCHAR)");
+        execute(ds, "CREATE TABLE TAGS (NAME VARCHAR)");
+
+        dataSource = ds;
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.systemUnderTest = new CachingJCrud(new JCrudImpl(dataSource));
+    }
+
+    @AfterEach
+    void truncateTablesAfterTest() throws SQLException {
+        execute(dataSource, "TRUNCATE TABLE TODOS");
+        execute(dataSource, "TRUNCATE TABLE TAGS");
+    }
+
+    @AfterAll
+    static void closeDb() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    void testSelectReturnsCachedResultForSameQueryAndParams() {
+        systemUnderTest.insert(INSERT, new Todo("First todo", "first"), TODO_SETTER);
+
+        final var first = systemUnderTest.select("SELECT * FROM TODOS WHERE TITLE = ?", TODO_MAPPER, "First todo");
+        final var second = systemUnderTest.select("SELECT * FROM TODOS WHERE TITLE = ?", TODO_MAPPER, "First todo");
+        final var other = systemUnderTest.select("SELECT * FROM TODOS WHERE TITLE = ?", TODO_MAPPER, "Other todo");
+
+        assertSame(first, second);
+        assertEquals(List.of(), other);
+        assertEquals(1L, systemUnderTest.getStatistics().getHits());
+        assertEquals(2L, systemUnderTest.getStatistics().getMisses());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new Todo("Added", null)));
+    }
+
+    @Test
+    void testWriteInvalidatesOnlyResultsOfWrittenTable() {
+        assertEquals(0L, systemUnderTest.count("SELECT COUNT(*) FROM TODOS"));
+        assertEquals(0L, systemUnderTest.count("SELECT COUNT(*) FROM TAGS"));
+
+        systemUnderTest.insert(INSERT, new Todo("First todo", "first"), TODO_SETTER);
+
+        assertEquals(1L, systemUnderTest.count("SELECT COUNT(*) FROM TODOS"));
+        assertEquals(0L, systemUnderTest.count("SELECT COUNT(*) FROM TAGS"));
+        assertEquals(1L, systemUnderTest.getStatistics().getHits());
+    }
+
+    @Test
+    void testTransactionInvalidatesResultsAfterCommit() {
+        assertEquals(0L, systemUnderTest.count("SELECT COUNT(*) FROM TODOS"));
+
+        systemUnderTest.inTransaction(session -> {
+            session.insert(INSERT, new Todo("First todo", "first"), TODO_SETTER);
+            // Read by another connection before the commit, so the old count is cached again
+            assertEquals(0L, systemUnderTest.count("SELECT COUNT(*) FROM TODOS"));
+            return null;
+        });
+
+        assertEquals(1L, systemUnderTest.count("SELECT COUNT(*) FROM TODOS"));
+    }
+
+    @Test
+    void testInvalidateRemovesResultsOfExternallyChangedTable() throws SQLException {
+        assertEquals(0L, systemUnderTest.count("SELECT COUNT(*) FROM TAGS"));
+
+        execute(dataSource, "INSERT INTO TAGS (NAME) VALUES ('home')");
+        assertEquals(0L, systemUnderTest.count("SELECT COUNT(*) FROM TAGS"));
+
+        systemUnderTest.invalidate("public.tags");
+        assertEquals(1L, systemUnderTest.count("SELECT COUNT(*) FROM TAGS"));
+    }
+
+    @Test
+    void testCacheEvictsLeastRecentlyUsedResultWhenFull() {
+        final var cache = new CachingJCrud(new JCrudImpl(dataSource), QueryCacheOptions.defaults()
+            .withMaximumSize(1).withTimeToLive(Duration.ofMinutes(1)));
+
+        cache.count("SELECT COUNT(*) FROM TODOS");
+        cache.count("SELECT COUNT(*) FROM TAGS");
+        cache.count("SELECT COUNT(*) FROM TODOS");
+
+        assertEquals(0L, cache.getStatistics().getHits());
+        assertEquals(2L, cache.getStatistics().getEvictions());
+        assertEquals(1, cache.getStatistics().getSize());
+    }
+
+    @Test
+    void testCacheKeysAreNotChangedByModifiedParams() {
+        final var query = "SELECT COUNT(*) FROM TODOS WHERE CAST(? AS VARBINARY) IS NOT NULL";
+        final var param = new byte[] {1, 2};
+
+        systemUnderTest.count(query, (Object) param);
+        param[0] = 3;
+        systemUnderTest.count(query, (Object) new byte[] {1, 2});
+
+        assertEquals(1L, systemUnderTest.getStatistics().getHits());
+    }
+
+    private static void execute(final BasicDataSource ds, final String sql) throws SQLException {
+        try (final var conn = ds.getConnection();
+            final var statement = conn.prepareStatement(sql)) {
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.exception.DatabaseException;
+import de.erdlet.jcrud.results.RowMapper;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CoalescingJCrudTest {
+
+    private static final String QUERY = "SELECT NAME FROM PRODUCTS WHERE ID = ?";
+    private static final int FOLLOWERS = 8;
+
+    private static BasicDataSource dataSource;
+    private CoalescingJCrud systemUnderTest;
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeAll
+    static void initDatabase() throws Exception {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:coalescing");
+        ds.setUsername("sa");
+
+        try (final var conn = ds.getConnection();
+            final var statement = conn.createStatement()) {
+            statement.execute("CREATE TABLE PRODUCTS (ID INT PRIMARY KEY, NAME VARCHAR)");
+            statement.execute("INSERT INTO PRODUCTS VALUES (1, 'hot product')");
+        }
+
+        dataSource = ds;
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.systemUnderTest = new CoalescingJCrud(new JCrudImpl(dataSource));
+    }
+
+    @AfterAll
+    static void closeDb() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneExecution() throws Exception {
+        final RowMapper<String> mapper = rs -> {
+            blockFirstExecution();
+            return rs.getString("name");
+        };
+
+        final var leader = CompletableFuture.supplyAsync(() -> systemUnderTest.select(QUERY, mapper, 1));
+        started.await();
+        final var followers = startFollowers(() -> systemUnderTest.select(QUERY, mapper, 1));
+        awaitCoalescedCalls();
+        release.countDown();
+
+        final var result = leader.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("hot product"), result);
+        for (final var follower : followers) {
+            assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testWaitingCallsReceiveExceptionOfSharedExecution() throws Exception {
+        final RowMapper<String> mapper = rs -> {
+            blockFirstExecution();
+            throw new SQLException("mapping failed");
+        };
+
+        final var leader = CompletableFuture.supplyAsync(() -> systemUnderTest.selectSingle(QUERY, mapper, 1));
+        started.await();
+        final var followers = startFollowers(() -> systemUnderTest.selectSingle(QUERY, mapper, 1));
+        awaitCoalescedCalls();
+        release.countDown();
+
+        final var failure = assertThrows(CompletionException.class, leader::join).getCause();
+        assertEquals(DatabaseException.class, failure.getClass());
+        for (final var follower : followers) {
+            assertSame(failure, assertThrows(CompletionException.class, follower::join).getCause());
+        }
+    }
+
+    @Test
+    void testResultIsNotRetainedAfterExecutionFinished() {
+        final RowMapper<String> mapper = rs -> {
+            executions.incrementAndGet();
+            return rs.getString("name");
+        };
+
+        systemUnderTest.selectSingle(QUERY, mapper, 1);
+        systemUnderTest.selectSingle(QUERY, mapper, 1);
+
+        assertEquals(2, executions.get());
+        assertEquals(0L, systemUnderTest.getCoalescedCalls());
+    }
+
+    private void blockFirstExecution() {
+        executions.incrementAndGet();
+        started.countDown();
+        try {
+            release.await();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> List<CompletableFuture<T>> startFollowers(final Supplier<T> call) {
+        final var followers = new ArrayList<CompletableFuture<T>>();
+        for (var i = 0; i < FOLLOWERS; i++) {
+            final var follower = new CompletableFuture<T>();
+            new Thread(() -> {
+                try {
+                    follower.complete(call.get());
+                } catch (final RuntimeException ex) {
+                    follower.completeExceptionally(ex);
+                }
+            }).start();
+            followers.add(follower);
+        }
+
+        return followers;
+    }
+
+    private void awaitCoalescedCalls() throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (systemUnderTest.getCoalescedCalls() < FOLLOWERS && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+    }
+}
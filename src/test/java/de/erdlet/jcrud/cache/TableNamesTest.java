@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TableNamesTest {
+
+    @Test
+    void testReadTablesFindsTablesOfFromListsJoinsAndSubQueries() {
+        final var query = "SELECT * FROM todos t, \"Users\" AS u JOIN public.tags g ON g.id = t.tag "
+            + "WHERE t.id IN (SELECT todo FROM done) -- FROM comments\n AND t.title <> 'FROM titles'";
+
+        assertEquals(Set.of("TODOS", "USERS", "TAGS", "DONE"), TableNames.readTables(query));
+    }
+
+    @Test
+    void testReadTablesContinuesFromListAfterSubQuery() {
+        assertEquals(Set.of("A", "B"), TableNames.readTables("select * from (select * from a) x, b where 1 = 1"));
+    }
+
+    @Test
+    void testWrittenTableReturnsTargetOfWriteStatements() {
+        assertEquals(Optional.of("TODOS"), TableNames.writtenTable("INSERT INTO todos (title) VALUES (?)"));
+        assertEquals(Optional.of("TODOS"), TableNames.writtenTable("update PUBLIC.TODOS set title = ?"));
+        assertEquals(Optional.of("TODOS"), TableNames.writtenTable("/* purge */ DELETE FROM todos WHERE id = ?"));
+    }
+
+    @Test
+    void testWrittenTableIsEmptyForUnknownStatements() {
+        assertEquals(Optional.empty(), TableNames.writtenTable("WITH x AS (SELECT 1) DELETE FROM todos"));
+    }
+}
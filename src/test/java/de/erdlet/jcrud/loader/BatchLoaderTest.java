@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.loader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import de.erdlet.jcrud.DelegatingJCrud;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.parameter.InList;
+import de.erdlet.jcrud.results.RowMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class BatchLoaderTest {
+
+    private static final String QUERY = "SELECT ID, NAME FROM PRODUCTS";
+    private static final RowMapper<Map.Entry<Integer, String>> PRODUCT =
+        rs -> Map.entry(rs.getInt("ID"), rs.getString("NAME"));
+
+    private static BasicDataSource dataSource;
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile Runnable beforeQuery = () -> { };
+
+    @BeforeAll
+    static void initDatabase() throws Exception {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:batchloader");
+        ds.setUsername("sa");
+
+        try (final var conn = ds.getConnection();
+            final var statement = conn.createStatement()) {
+            statement.execute("CREATE TABLE PRODUCTS (ID INT PRIMARY KEY, NAME VARCHAR)");
+            statement.execute("INSERT INTO PRODUCTS SELECT X, 'product ' || X FROM SYSTEM_RANGE(1, 250)");
+        }
+
+        dataSource = ds;
+    }
+
+    @AfterAll
+    static void closeDb() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    void loadsConcurrentlyRequestedKeysWithOneQuery() throws Exception {
+        try (final var loader = loader(BatchLoaderOptions.defaults().withWindow(Duration.ofMillis(50L)))) {
+            final var results = new ArrayList<CompletableFuture<Optional<String>>>();
+            final var callers = new ArrayList<Thread>();
+            for (final int id : List.of(3, 1, 3, 999, 2)) {
+                final var result = new CompletableFuture<Optional<String>>();
+                results.add(result);
+                callers.add(new Thread(() -> loader.load(id).thenApply(product -> product.map(Map.Entry::getValue))
+                    .whenComplete((name, ex) -> result.complete(name))));
+            }
+            callers.forEach(Thread::start);
+
+            assertEquals(Optional.of("product 3"), results.get(0).get(5L, TimeUnit.SECONDS));
+            assertEquals(Optional.of("product 1"), results.get(1).get(5L, TimeUnit.SECONDS));
+            assertEquals(Optional.of("product 3"), results.get(2).get(5L, TimeUnit.SECONDS));
+            assertEquals(Optional.empty(), results.get(3).get(5L, TimeUnit.SECONDS));
+            assertEquals(Optional.of("product 2"), results.get(4).get(5L, TimeUnit.SECONDS));
+            assertEquals(1, queries.get());
+        }
+    }
+
+    @Test
+    void loadsCollectedKeysWhenDispatched() {
+        try (final var loader = loader(BatchLoaderOptions.defaults().withWindow(Duration.ofHours(1L)))) {
+            final var first = loader.load(10);
+            final var second = loader.load(20);
+            assertFalse(first.isDone());
+
+            loader.dispatch();
+
+            assertTrue(first.isDone());
+            assertEquals("product 10", first.join().orElseThrow().getValue());
+            assertEquals("product 20", second.join().orElseThrow().getValue());
+            assertEquals(1, queries.get());
+        }
+    }
+
+    @Test
+    void splitsLargeRequestsIntoBatchesOfTheMaximumSize() {
+        try (final var loader = loader(BatchLoaderOptions.defaults().withMaxBatchSize(100))) {
+            final var ids = IntStream.rangeClosed(1, 250).boxed().collect(Collectors.toList());
+
+            final var products = loader.loadAll(ids);
+
+            assertEquals(ids, new ArrayList<>(products.keySet()));
+            assertEquals("product 250", products.get(250).getValue());
+            assertEquals(3, queries.get());
+        }
+    }
+
+    @Test
+    void loadsFullDefaultBatchesByOneQueryEach() {
+        try (final var loader = loader(BatchLoaderOptions.defaults())) {
+            final var ids = IntStream.rangeClosed(1, 2 * BatchLoaderOptions.DEFAULT_MAX_BATCH_SIZE).boxed()
+                .collect(Collectors.toList());
+
+            final var products = loader.loadAll(ids);
+
+            assertEquals("product 250", products.get(250).getValue());
+            assertEquals(2, queries.get());
+        }
+    }
+
+    @Test
+    void runsFullBatchesConcurrently() throws Exception {
+        // Every query waits for the other one, so serialized batches would never complete
+        final var running = new CountDownLatch(2);
+        beforeQuery = () -> {
+            running.countDown();
+            try {
+                if (!running.await(5L, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("The batches didn't run concurrently");
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        };
+
+        try (final var loader = loader(BatchLoaderOptions.defaults().withMaxBatchSize(1))) {
+            final var first = loader.load(1);
+            final var second = loader.load(2);
+
+            assertEquals("product 1", first.get(10L, TimeUnit.SECONDS).orElseThrow().getValue());
+            assertEquals("product 2", second.get(10L, TimeUnit.SECONDS).orElseThrow().getValue());
+            assertEquals(2, queries.get());
+        }
+    }
+
+    @Test
+    void fullBatchesCancelTheTimerOfTheirWindow() throws Exception {
+        final var options = BatchLoaderOptions.defaults().withWindow(Duration.ofMillis(500L)).withMaxBatchSize(2);
+        try (final var loader = loader(options)) {
+            loader.load(1);
+            loader.load(2);
+            Thread.sleep(300L);
+            final var third = loader.load(3);
+
+            // The window of the first, full batch has passed, but the third key has its own window
+            Thread.sleep(300L);
+            assertFalse(third.isDone());
+
+            assertEquals("product 3", third.get(5L, TimeUnit.SECONDS).orElseThrow().getValue());
+            assertEquals(2, queries.get());
+        }
+    }
+
+    @Test
+    void rejectsMaximumBatchSizesAboveTheInListLimit() {
+        assertThrows(IllegalArgumentException.class,
+            () -> BatchLoaderOptions.defaults().withMaxBatchSize(InList.MAX_SIZE + 1));
+    }
+
+    @Test
+    void rejectsKeyColumnsWhichAreNoPlainLabels() {
+        final var options = BatchLoaderOptions.defaults();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new BatchLoader<>(new JCrudImpl(dataSource), QUERY, "ID; DROP TABLE PRODUCTS", PRODUCT,
+                Map.Entry::getKey, options));
+    }
+
+    private BatchLoader<Integer, Map.Entry<Integer, String>> loader(final BatchLoaderOptions options) {
+        final var jcrud = new DelegatingJCrud(new JCrudImpl(dataSource)) {
+
+            @Override
+            public <T> List<T> select(final String query, final RowMapper<T> rowMapper, final Object... params) {
+                queries.incrementAndGet();
+                beforeQuery.run();
+                return super.select(query, rowMapper, params);
+            }
+        };
+
+        return new BatchLoader<>(jcrud, QUERY, "ID", PRODUCT, Map.Entry::getKey, options);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.sql.SQLException;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class HistogramListenerTest {
+
+    private static final String SQL = "SELECT * FROM TODOS";
+
+    @Test
+    void testStatisticsContainPercentilesAndCountersPerStatement() {
+        final var listener = new HistogramListener();
+
+        IntStream.rangeClosed(1, 100).forEach(i -> listener.executed(execution(SQL, i * 1_000L, null)));
+        listener.executed(execution("SELECT COUNT(*) FROM TODOS", 5L, new SQLException("failed")));
+
+        final var statistics = listener.getStatistics(SQL).get();
+        assertAll(
+            () -> assertEquals(100L, statistics.getExecutions()),
+            () -> assertEquals(0L, statistics.getFailures()),
+            () -> assertEquals(200L, statistics.getRows()),
+            () -> assertWithinBucket(50_000L, statistics.getP50Nanos()),
+            () -> assertWithinBucket(99_000L, statistics.getP99Nanos()),
+            () -> assertEquals(100_000L, statistics.getMaxNanos()));
+
+        assertEquals(1L, listener.getStatistics().get("SELECT COUNT(*) FROM TODOS").getFailures());
+    }
+
+    @Test
+    void testResetRemovesAllStatements() {
+        final var listener = new HistogramListener();
+        listener.executed(execution(SQL, 1L, null));
+
+        listener.reset();
+
+        assertFalse(listener.getStatistics(SQL).isPresent());
+        assertTrue(listener.getStatistics().isEmpty());
+    }
+
+    @Test
+    void testHistogramBucketsCoverEveryValue() {
+        for (final var value : new long[] {0L, 7L, 8L, 1_023L, 1_024L, 123_456_789L, Long.MAX_VALUE}) {
+            final var bucket = LatencyHistogram.bucketOf(value);
+
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    void testHistogramCountsConcurrentRecordingsOfTheSameBucket() throws Exception {
+        // Three of four recordings are short, so a single lost one moves the 75th percentile to the long bucket
+        final var histogram = new LatencyHistogram();
+        final var threads = IntStream.range(0, 4).mapToObj(i -> new Thread(
+            () -> IntStream.range(0, 10_000).forEach(n -> histogram.record(i == 0 ? 1_000_000L : 1_000L))))
+            .toArray(Thread[]::new);
+        for (final var thread : threads) {
+            thread.start();
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000L, histogram.count());
+        assertWithinBucket(1_000L, histogram.percentile(75.0));
+        assertWithinBucket(1_000_000L, histogram.percentile(75.01));
+    }
+
+    private static void assertWithinBucket(final long expected, final long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.125, () -> expected + " ~ " + actual);
+    }
+
+    private static Execution execution(final String sql, final long nanos, final Throwable failure) {
+        return new Execution(Operation.SELECT, sql, 0L, nanos, 0L, 2L, 0L, failure);
+    }
+}
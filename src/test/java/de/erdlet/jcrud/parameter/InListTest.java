@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.parameter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class InListTest {
+
+    @Test
+    void testOfKeepsDistinctValuesInIterationOrder() {
+        final var values = new ArrayList<>(List.of(3L, 1L, 3L, 2L));
+
+        final var inList = InList.of(values);
+        values.clear();
+
+        assertEquals(List.of(3L, 1L, 2L), inList.getValues());
+        assertEquals(InList.of(List.of(3L, 1L, 2L)), inList);
+    }
+
+    @Test
+    void testOfRejectsListsWhichCannotBeExpandedCorrectly() {
+        assertThrows(IllegalArgumentException.class, () -> InList.of(null));
+        assertThrows(IllegalArgumentException.class, () -> InList.of(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> InList.of(Arrays.asList(1L, null)));
+        assertThrows(IllegalArgumentException.class,
+            () -> InList.of(IntStream.rangeClosed(0, InList.MAX_SIZE).boxed().collect(Collectors.toList())));
+    }
+}
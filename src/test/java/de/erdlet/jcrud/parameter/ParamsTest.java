@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.parameter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import org.junit.jupiter.api.Test;
+
+class ParamsTest {
+
+    @Test
+    void testToArrayReturnsValuesInOrderOfInsertion() {
+        final var timestamp = new Timestamp(0L);
+
+        final var params = Params.of()
+            .setLong(42L)
+            .setInt(7)
+            .setDouble(1.5)
+            .setBoolean(true)
+            .setString("title")
+            .setTimestamp(timestamp)
+            .setNull(Types.VARCHAR)
+            .setObject('c');
+
+        assertArrayEquals(new Object[]{42L, 7, 1.5, true, "title", timestamp, null, 'c'}, params.toArray());
+    }
+
+    @Test
+    void testParamsGrowBeyondInitialCapacity() {
+        final var params = Params.of();
+        for (var i = 0; i < 10; i++) {
+            params.setInt(i);
+        }
+
+        assertEquals(10, params.size());
+        assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", params.toString());
+    }
+}
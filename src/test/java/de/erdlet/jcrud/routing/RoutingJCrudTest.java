@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import de.erdlet.jcrud.JCrudImpl;
+import de.erdlet.jcrud.helper.model.Todo;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class RoutingJCrudTest {
+
+    private static final String INSERT = "INSERT INTO TODOS (TITLE, BODY) VALUES (?, ?)";
+    private static final String COUNT = "SELECT COUNT(*) FROM TODOS";
+
+    private static BasicDataSource primary;
+    private static BasicDataSource firstReplica;
+    private static BasicDataSource secondReplica;
+
+    // The databases aren't replicated, so their row counts tell which of them served a read
+    @BeforeAll
+    static void initDatabases() throws Exception {
+        primary = createDatabase("routing-primary", 0);
+        firstReplica = createDatabase("routing-replica-1", 1);
+        secondReplica = createDatabase("routing-replica-2", 2);
+    }
+
+    @AfterAll
+    static void closeDbs() throws Exception {
+        primary.close();
+        firstReplica.close();
+        secondReplica.close();
+    }
+
+    @Test
+    void testReadsAreBalancedRoundRobinOverReplicas() {
+        final var jcrud = new RoutingJCrud(primary, List.of(firstReplica, secondReplica), RoutingOptions.defaults());
+
+        final var counts = new ArrayList<Long>();
+        for (var i = 0; i < 4; i++) {
+            counts.add(jcrud.count(COUNT));
+        }
+
+        assertEquals(List.of(1L, 2L, 1L, 2L), counts);
+    }
+
+    @Test
+    void testReadsOfWritingThreadStayOnPrimaryWithinStickyWindow() throws Exception {
+        final var jcrud = new RoutingJCrud(primary, List.of(firstReplica),
+            RoutingOptions.defaults().withStickyWindow(Duration.ofMinutes(1)));
+
+        jcrud.inTransaction(session -> {
+            session.insert(INSERT, new Todo("primary", ""), (todo, pstmt) -> {
+                pstmt.setString(1, todo.getTitle());
+                pstmt.setString(2, todo.getBody());
+            });
+            assertEquals(1L, session.count(COUNT));
+            session.rollback();
+
+            return null;
+        });
+
+        assertEquals(0L, jcrud.count(COUNT));
+        assertEquals(1L, CompletableFuture.supplyAsync(() -> jcrud.count(COUNT)).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testReadsGoToReplicasRightAfterWriteWithoutStickyWindow() {
+        final var jcrud = new RoutingJCrud(primary, List.of(firstReplica),
+            RoutingOptions.defaults().withStickyWindow(Duration.ZERO));
+
+        jcrud.delete("DELETE FROM TODOS WHERE TITLE = ?", "unknown", (title, pstmt) -> pstmt.setString(1, title));
+
+        assertEquals(1L, jcrud.count(COUNT));
+    }
+
+    @Test
+    void testLeastInFlightAvoidsBusyReplica() throws Exception {
+        final var jcrud = new RoutingJCrud(primary, List.of(firstReplica, secondReplica),
+            RoutingOptions.defaults().withLoadBalancing(LoadBalancing.LEAST_IN_FLIGHT));
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+
+        final var busy = CompletableFuture.supplyAsync(() -> jcrud.select("SELECT * FROM TODOS", rs -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return rs.getString("title");
+        }));
+        started.await();
+
+        try {
+            // The first replica is busy with the blocked read, so all counts go to the second replica
+            for (var i = 0; i < 4; i++) {
+                assertEquals(2L, jcrud.count(COUNT));
+            }
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals(List.of("replica-1"), busy.get(5, TimeUnit.SECONDS));
+    }
+
+    private static BasicDataSource createDatabase(final String name, final int rows) throws SQLException {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:" + name);
+        ds.setUsername("sa");
+
+        try (final var conn = ds.getConnection();
+            final var statement = conn.prepareStatement(
+                "CREATE TABLE TODOS (ID INT PRIMARY KEY AUTO_INCREMENT, TITLE VARCHAR NOT NULL, BODY VARCHAR)")) {
+            statement.execute();
+        }
+        for (var i = 0; i < rows; i++) {
+            new JCrudImpl(ds).insert(INSERT, "replica-" + rows, (title, pstmt) -> {
+                pstmt.setString(1, title);
+                pstmt.setString(2, "");
+            });
+        }
+
+        return ds;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.scan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ScanOptionsTest {
+
+    @Test
+    void testBoundariesSplitRangeIntoEquallyWidePartitions() {
+        final var options = ScanOptions.byRange("id", 0L, 100L).withPartitions(4);
+
+        assertEquals(List.of(25L, 50L, 75L), options.getBoundaries());
+    }
+
+    @Test
+    void testBoundariesOfNarrowRangeYieldFewerPartitions() {
+        final var options = ScanOptions.byRange("id", 0L, 2L).withPartitions(8);
+
+        assertEquals(List.of(1L, 2L), options.getBoundaries());
+    }
+
+    @Test
+    void testBoundariesOfTimestampRangeAreTimestamps() {
+        final var options = ScanOptions.byRange("created", Instant.ofEpochMilli(0L), Instant.ofEpochMilli(1000L))
+            .withPartitions(2);
+
+        assertEquals(List.of(new Timestamp(500L)), options.getBoundaries());
+    }
+
+    @Test
+    void testBoundariesOfWidestRangeDoNotOverflow() {
+        final var options = ScanOptions.byRange("id", 0L, Long.MAX_VALUE).withPartitions(2);
+
+        assertEquals(List.of(Long.MAX_VALUE / 2), options.getBoundaries());
+    }
+
+    @Test
+    void testByRangeRejectsKeyColumnWhichIsNoPlainLabel() {
+        assertThrows(IllegalArgumentException.class, () -> ScanOptions.byRange("id) x --", 0L, 1L));
+    }
+
+    @Test
+    void testWithExecutorRejectsNull() {
+        assertThrows(IllegalArgumentException.class, () -> ScanOptions.byRange("id", 0L, 1L).withExecutor(null));
+    }
+}
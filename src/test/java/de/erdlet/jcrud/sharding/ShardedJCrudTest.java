@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Tobias Erdle
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package de.erdlet.jcrud.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import de.erdlet.jcrud.exception.TooManyResultsException;
+import de.erdlet.jcrud.parameter.ParamSetter;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ShardedJCrudTest {
+
+    private static final String INSERT = "INSERT INTO CUSTOMERS (TENANT, NAME) VALUES (?, ?)";
+    private static final ParamSetter<Customer> CUSTOMER_SETTER = (customer, pstmt) -> {
+        pstmt.setLong(1, customer.tenant);
+        pstmt.setString(2, customer.name);
+    };
+
+    private static BasicDataSource even;
+    private static BasicDataSource odd;
+    private ShardedJCrud<Long> systemUnderTest;
+
+    @BeforeAll
+    static void initDatabases() throws Exception {
+        even = createDatabase("shard-even");
+        odd = createDatabase("shard-odd");
+    }
+
+    @BeforeEach
+    void setUp() {
+        final var shards = new LinkedHashMap<String, DataSource>();
+        shards.put("even", even);
+        shards.put("odd", odd);
+
+        systemUnderTest = new ShardedJCrud<>(shards, tenant -> tenant % 2 == 0 ? "even" : "odd");
+        for (final var customer : List.of(new Customer(1L, "Alice"), new Customer(2L, "Bob"),
+            new Customer(3L, "Carol"), new Customer(4L, "Dave"), new Customer(5L, "Eve"))) {
+            systemUnderTest.onShard(customer.tenant).insert(INSERT, customer, CUSTOMER_SETTER);
+        }
+    }
+
+    @AfterEach
+    void truncateTablesAfterTest() throws SQLException {
+        systemUnderTest.close();
+
+        for (final var ds : List.of(even, odd)) {
+            try (final var conn = ds.getConnection();
+                final var statement = conn.prepareStatement("TRUNCATE TABLE CUSTOMERS")) {
+                statement.execute();
+            }
+        }
+    }
+
+    @AfterAll
+    static void closeDbs() throws Exception {
+        even.close();
+        odd.close();
+    }
+
+    @Test
+    void testSingleKeyOperationsRunOnOwningShard() {
+        assertEquals(2L, systemUnderTest.onShard(2L).count("SELECT COUNT(*) FROM CUSTOMERS"));
+        assertEquals(3L, systemUnderTest.onShard(7L).count("SELECT COUNT(*) FROM CUSTOMERS"));
+    }
+
+    @Test
+    void testCrossShardQueriesMergeResultsAndSumCounts() {
+        final var names = systemUnderTest.select("SELECT NAME FROM CUSTOMERS ORDER BY NAME", rs -> rs.getString(1));
+
+        assertEquals(List.of("Bob", "Dave", "Alice", "Carol", "Eve"), names);
+        assertEquals(5L, systemUnderTest.count("SELECT COUNT(*) FROM CUSTOMERS"));
+    }
+
+    @Test
+    void testCrossShardSelectMergesSortedResultsUpToLimit() {
+        final var names = systemUnderTest.selectSorted("SELECT NAME FROM CUSTOMERS ORDER BY NAME LIMIT 3",
+            rs -> rs.getString(1), Comparator.naturalOrder(), 3);
+
+        assertEquals(List.of("Alice", "Bob", "Carol"), names);
+    }
+
+    @Test
+    void testCrossShardSelectSingleThrowsExceptionWhenSeveralShardsFindEntity() {
+        assertEquals("Eve", systemUnderTest.selectSingle("SELECT NAME FROM CUSTOMERS WHERE NAME = ?",
+            rs -> rs.getString(1), "Eve").orElseThrow());
+        assertThrows(TooManyResultsException.class, () -> systemUnderTest.selectSingle(
+            "SELECT NAME FROM CUSTOMERS WHERE TENANT IN (1, 2)", rs -> rs.getString(1)));
+    }
+
+    @Test
+    void testCrossShardQueriesRunConcurrently() {
+        final var running = new CountDownLatch(2);
+
+        final var overlapped = systemUnderTest.select("SELECT NAME FROM CUSTOMERS WHERE TENANT IN (1, 2)", rs -> {
+            running.countDown();
+            try {
+                return running.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+
+        assertEquals(List.of(true, true), overlapped);
+    }
+
+    @Test
+    void testConcurrentCrossShardQueriesDoNotWaitForEachOther() throws Exception {
+        // Both queries of both callers have to run at the same time to pass the latch
+        final var running = new CountDownLatch(4);
+        final var callers = new ArrayList<CompletableFuture<List<Boolean>>>();
+        for (int i = 0; i < 2; i++) {
+            callers.add(CompletableFuture.supplyAsync(
+                () -> systemUnderTest.select("SELECT NAME FROM CUSTOMERS WHERE TENANT IN (1, 2)", rs -> {
+                    running.countDown();
+                    try {
+                        return running.await(5, TimeUnit.SECONDS);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }), runnable -> new Thread(runnable).start()));
+        }
+
+        for (final var caller : callers) {
+            assertEquals(List.of(true, true), caller.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testOnShardThrowsExceptionForUnknownShard() {
+        final ShardedJCrud<Long> jcrud = new ShardedJCrud<>(Map.of("even", even), tenant -> "odd");
+
+        assertThrows(IllegalArgumentException.class, () -> jcrud.onShard(1L));
+        assertTrue(jcrud.getShards().containsKey("even"));
+    }
+
+    private static BasicDataSource createDatabase(final String name) throws SQLException {
+        final var ds = new BasicDataSource();
+        ds.setUrl("jdbc:h2:mem:" + name);
+        ds.setUsername("sa");
+
+        try (final var conn = ds.getConnection();
+            final var statement = conn.prepareStatement(
+                "CREATE TABLE CUSTOMERS (ID INT PRIMARY KEY AUTO_INCREMENT, TENANT BIGINT NOT NULL, NAME VARCHAR)")) {
+            statement.execute();
+        }
+
+        return ds;
+    }
+
+    private static final class Customer {
+
+        private final long tenant;
+        private final String name;
+
+        Customer(final long tenant, final String name) {
+            this.tenant = tenant;
+            this.name = name;
+        }
+    }
+}